@@ -43,37 +43,42 @@ public class AndroidFrameworks {
     }
     public static FrameworkApk getLatest() throws IOException {
         Map<Integer, String> pathMap = getResourcePaths();
+        int latest = getHighestVersion();
+        FrameworkApk current = getCurrent();
+        if(current!=null && latest==current.getVersionCode()){
+            return current;
+        }
+        String path = pathMap.get(latest);
+        if(path == null){
+            throw new IOException("Could not get latest framework");
+        }
+        FrameworkApk frameworkApk = getCache().getOrLoad(latest, AndroidFrameworks::loadResource);
         synchronized (AndroidFrameworks.class){
-            int latest = getHighestVersion();
-            FrameworkApk current = getCurrent();
-            if(current!=null && latest==current.getVersionCode()){
-                return current;
-            }
-            String path = pathMap.get(latest);
-            if(path == null){
-                throw new IOException("Could not get latest framework");
-            }
-            FrameworkApk frameworkApk = loadResource(latest);
-            if(current == null){
+            if(getCurrent() == null){
                 setCurrent(frameworkApk);
             }
-            return frameworkApk;
         }
+        return frameworkApk;
     }
     public static FrameworkApk getBestMatch(int version) throws IOException {
         Map<Integer, String> pathMap = getResourcePaths();
-        synchronized (AndroidFrameworks.class){
-            int best = getBestMatchVersion(version);
-            FrameworkApk current = getCurrent();
-            if(current!=null && best==current.getVersionCode()){
-                return current;
-            }
-            String path = pathMap.get(best);
-            if(path == null){
-                throw new IOException("Could not get framework for version = "+version);
-            }
-            return loadResource(best);
+        int best = getBestMatchVersion(version);
+        FrameworkApk current = getCurrent();
+        if(current!=null && best==current.getVersionCode()){
+            return current;
+        }
+        String path = pathMap.get(best);
+        if(path == null){
+            throw new IOException("Could not get framework for version = "+version);
         }
+        return getCache().getOrLoad(best, AndroidFrameworks::loadResource);
+    }
+    /**
+     * Frameworks loaded by {@link #getLatest()} and {@link #getBestMatch(int)} are shared
+     * through this cache, thus the returned instances should be treated as read-only.
+     * */
+    public static FrameworkCache getCache(){
+        return FRAMEWORK_CACHE;
     }
     public static void destroyCurrent(){
         synchronized (AndroidFrameworks.class){
@@ -81,7 +86,12 @@ public class AndroidFrameworks {
             if(current==null){
                 return;
             }
-            current.destroy();
+            mCurrent = null;
+            if(current.isShared()){
+                getCache().remove(current);
+            }else {
+                current.destroy();
+            }
         }
     }
     private static int getHighestVersion() {
@@ -219,6 +229,8 @@ public class AndroidFrameworks {
                 + '-' + version
                 +FRAMEWORK_EXTENSION;
     }
+    private static final FrameworkCache FRAMEWORK_CACHE = new FrameworkCache(8);
+
     private static final String ANDROID_RESOURCE_DIRECTORY = "/frameworks/android/";
     private static final String ANDROID_PACKAGE = "android";
     private static final String FRAMEWORK_EXTENSION = ".apk";
@@ -23,16 +23,17 @@ import com.reandroid.archive.writer.ApkFileWriter;
 import com.reandroid.archive.writer.ApkStreamWriter;
 import com.reandroid.arsc.ApkFile;
 import com.reandroid.arsc.array.PackageArray;
+import com.reandroid.arsc.base.Block;
 import com.reandroid.arsc.chunk.Chunk;
+import com.reandroid.arsc.chunk.ChunkType;
 import com.reandroid.arsc.chunk.PackageBlock;
 import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.chunk.xml.AndroidManifestBlock;
+import com.reandroid.arsc.chunk.xml.AndroidManifestSummary;
+import com.reandroid.arsc.chunk.xml.ResXmlAttributeRewriter;
 import com.reandroid.arsc.chunk.xml.ResXmlDocument;
 import com.reandroid.arsc.container.SpecTypePair;
-import com.reandroid.arsc.group.StringGroup;
-import com.reandroid.arsc.item.TableString;
 import com.reandroid.arsc.pool.TableStringPool;
-import com.reandroid.utils.collection.CollectionUtil;
 import com.reandroid.utils.collection.EmptyList;
 import com.reandroid.arsc.model.FrameworkTable;
 import com.reandroid.arsc.value.Entry;
@@ -43,7 +44,10 @@ import com.reandroid.xml.XMLElement;
 
 import java.io.*;
 import java.util.*;
-import java.util.function.Predicate;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
 
 public class ApkModule implements ApkFile, Closeable {
@@ -62,6 +66,7 @@ public class ApkModule implements ApkFile, Closeable {
     private Integer preferredFramework;
     private Closeable mCloseable;
     private final List<TableBlock> mExternalFrameworks;
+    private ResFileIndex mResFileIndex;
 
     public ApkModule(String moduleName, ZipEntryMap zipEntryMap){
         this.moduleName=moduleName;
@@ -572,57 +577,56 @@ public class ApkModule implements ApkFile, Closeable {
     }
     public List<ResFile> listResFiles(int resourceId, ResConfig resConfig) {
         List<ResFile> results=new ArrayList<>();
-        TableBlock tableBlock=getTableBlock();
-        if (tableBlock==null){
+        ResFileIndex resFileIndex = getResFileIndex();
+        if (resFileIndex==null){
             return results;
         }
-        TableStringPool stringPool= tableBlock.getStringPool();
         for(InputSource inputSource : getInputSources()){
-            String name=inputSource.getAlias();
-            StringGroup<TableString> groupTableString = stringPool.get(name);
-            if(groupTableString==null){
+            List<Entry> entryList = filterResFileEntries(
+                    resFileIndex.getEntries(inputSource.getAlias()), resourceId, resConfig);
+            if(entryList.size()==0){
                 continue;
             }
-            for(TableString tableString:groupTableString.listItems()){
-                List<Entry> entryList = filterResFileEntries(
-                        tableString, resourceId, resConfig);
-                if(entryList.size()==0){
-                    continue;
-                }
-                ResFile resFile = new ResFile(inputSource, entryList);
-                results.add(resFile);
-            }
+            ResFile resFile = new ResFile(inputSource, entryList);
+            results.add(resFile);
         }
         return results;
     }
 
     public List<Entry> listReferencedEntries(String path) {
-        TableBlock tableBlock = getTableBlock();
-        if (tableBlock == null){
+        ResFileIndex resFileIndex = getResFileIndex();
+        if (resFileIndex == null){
             return new ArrayList<>();
         }
-        TableStringPool stringPool = tableBlock.getStringPool();
-        StringGroup<TableString> stringGroup = stringPool.get(path);
-        if(stringGroup == null){
-            return EmptyList.of();
+        return new ArrayList<>(resFileIndex.getEntries(path));
+    }
+    private ResFileIndex getResFileIndex(){
+        TableBlock tableBlock = getTableBlock();
+        if(tableBlock == null){
+            mResFileIndex = null;
+            return null;
         }
-        TableString tableString = stringPool.get(0);
-        return tableString.listReferencedResValueEntries();
+        ResFileIndex resFileIndex = this.mResFileIndex;
+        if(resFileIndex == null || resFileIndex.getTableBlock() != tableBlock){
+            resFileIndex = new ResFileIndex(tableBlock);
+            this.mResFileIndex = resFileIndex;
+        }
+        return resFileIndex;
     }
-    private List<Entry> filterResFileEntries(TableString tableString, int resourceId, ResConfig resConfig){
-        Iterator<Entry> itr = tableString.getEntries(new Predicate<Entry>() {
-            @Override
-            public boolean test(Entry item) {
-                if(!item.isScalar()){
-                    return false;
-                }
-                if(resourceId != 0 && resourceId != item.getResourceId()){
-                    return false;
-                }
-                return resConfig == null || resConfig.equals(item.getResConfig());
+    private List<Entry> filterResFileEntries(List<Entry> entryList, int resourceId, ResConfig resConfig){
+        if(entryList.size() == 0){
+            return EmptyList.of();
+        }
+        List<Entry> results = new ArrayList<>(entryList.size());
+        for(Entry entry : entryList){
+            if(resourceId != 0 && resourceId != entry.getResourceId()){
+                continue;
             }
-        });
-        return CollectionUtil.toList(itr);
+            if(resConfig == null || resConfig.equals(entry.getResConfig())){
+                results.add(entry);
+            }
+        }
+        return results;
     }
     public String getPackageName(){
         if(hasAndroidManifestBlock()){
@@ -682,6 +686,7 @@ public class ApkModule implements ApkFile, Closeable {
             tableBlock.destroy();
             this.mTableBlock = null;
         }
+        this.mResFileIndex = null;
         try {
             close();
         } catch (IOException ignored) {
@@ -704,6 +709,7 @@ public class ApkModule implements ApkFile, Closeable {
     }
     public void setTableBlock(TableBlock tableBlock){
         ZipEntryMap archive = getZipEntryMap();
+        this.mResFileIndex = null;
         if(tableBlock == null){
             mTableBlock = null;
             archive.remove(TableBlock.FILE_NAME);
@@ -719,6 +725,26 @@ public class ApkModule implements ApkFile, Closeable {
         mTableBlock = tableBlock;
         updateExternalFramework();
     }
+    /**
+     * Returns summary of AndroidManifest.xml, if the manifest is not loaded yet it is read
+     * by streaming without loading {@link AndroidManifestBlock}
+     * */
+    public AndroidManifestSummary getManifestSummary() throws IOException {
+        AndroidManifestBlock manifestBlock = this.mManifestBlock;
+        if(manifestBlock != null){
+            return AndroidManifestSummary.read(manifestBlock.getBytes());
+        }
+        InputSource inputSource = getInputSource(AndroidManifestBlock.FILE_NAME);
+        if(inputSource == null){
+            return null;
+        }
+        InputStream inputStream = inputSource.openStream();
+        try {
+            return AndroidManifestSummary.read(inputStream);
+        } finally {
+            inputStream.close();
+        }
+    }
     @Override
     public AndroidManifestBlock getAndroidManifestBlock() {
         if(mManifestBlock!=null){
@@ -883,6 +909,131 @@ public class ApkModule implements ApkFile, Closeable {
         }
         return resXmlDocument;
     }
+    /**
+     * Applies the rewriter to all binary xml files including AndroidManifest.xml.
+     * Already loaded documents are rewritten and refreshed, the other files are rewritten
+     * from their bytes using up to threadCount threads and replaced by byte sources.
+     * Returns number of changed files.
+     * */
+    public int rewriteXmlAttributes(ResXmlAttributeRewriter rewriter, int threadCount) throws IOException {
+        if(rewriter.isEmpty()){
+            return 0;
+        }
+        int count = 0;
+        List<InputSource> sourceList = new ArrayList<>();
+        for(InputSource inputSource : listInputSources()){
+            if(!inputSource.getAlias().endsWith(".xml")){
+                continue;
+            }
+            if(inputSource instanceof BlockInputSource){
+                Chunk<?> block = ((BlockInputSource<?>) inputSource).getBlock();
+                if(block instanceof ResXmlDocument){
+                    ResXmlDocument resXmlDocument = (ResXmlDocument) block;
+                    if(rewriter.rewrite(resXmlDocument) != 0){
+                        resXmlDocument.refresh();
+                        count ++;
+                    }
+                }
+                continue;
+            }
+            sourceList.add(inputSource);
+        }
+        threadCount = Math.min(threadCount, sourceList.size());
+        if(threadCount < 2){
+            for(InputSource inputSource : sourceList){
+                InputSource rewritten = rewriteXmlAttributes(rewriter, inputSource);
+                if(rewritten != null){
+                    add(rewritten);
+                    count ++;
+                }
+            }
+            return count;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<InputSource>> futureList = new ArrayList<>(sourceList.size());
+            for(InputSource inputSource : sourceList){
+                futureList.add(executor.submit(() -> rewriteXmlAttributes(rewriter, inputSource)));
+            }
+            for(Future<InputSource> future : futureList){
+                InputSource rewritten = awaitRewritten(future);
+                if(rewritten != null){
+                    add(rewritten);
+                    count ++;
+                }
+            }
+        }finally {
+            executor.shutdownNow();
+        }
+        return count;
+    }
+    private static InputSource rewriteXmlAttributes(ResXmlAttributeRewriter rewriter, InputSource inputSource) throws IOException {
+        byte[] bytes = readXmlBytes(inputSource);
+        if(bytes == null){
+            return null;
+        }
+        bytes = rewriter.rewriteInPlace(bytes);
+        if(bytes == null){
+            return null;
+        }
+        ByteInputSource rewritten = new ByteInputSource(bytes, inputSource.getName());
+        rewritten.setAlias(inputSource.getAlias());
+        rewritten.setSort(inputSource.getSort());
+        rewritten.setMethod(inputSource.getMethod());
+        return rewritten;
+    }
+    private static InputSource awaitRewritten(Future<InputSource> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if(cause instanceof IOException){
+                throw (IOException) cause;
+            }
+            if(cause instanceof RuntimeException){
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+    // Reads whole chunk only if it starts with binary xml header, otherwise returns null.
+    // The buffer grows with bytes actually read, thus a corrupt header size can not
+    // allocate more than twice the available length
+    private static byte[] readXmlBytes(InputSource inputSource) throws IOException {
+        DataInputStream inputStream = new DataInputStream(inputSource.openStream());
+        try {
+            byte[] header = new byte[8];
+            inputStream.readFully(header);
+            if((Block.getShort(header, 0) & 0xffff) != (ChunkType.XML.ID & 0xffff)){
+                return null;
+            }
+            int size = Block.getInteger(header, 4);
+            if(size < 8){
+                return null;
+            }
+            byte[] bytes = new byte[Math.min(size, 8192)];
+            System.arraycopy(header, 0, bytes, 0, 8);
+            int position = 8;
+            while (position < size){
+                if(position == bytes.length){
+                    bytes = Arrays.copyOf(bytes, (int) Math.min(size, bytes.length * 2L));
+                }
+                int read = inputStream.read(bytes, position, bytes.length - position);
+                if(read < 0){
+                    return null;
+                }
+                position += read;
+            }
+            return bytes;
+        } catch (EOFException ignored) {
+            return null;
+        } finally {
+            inputStream.close();
+        }
+    }
     public ApkType getApkType(){
         if(mApkType!=null){
             return mApkType;
@@ -20,6 +20,7 @@ import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.chunk.xml.AndroidManifestBlock;
 import com.reandroid.arsc.chunk.xml.ResXmlDocument;
 import com.reandroid.json.JSONObject;
+import com.reandroid.json.JsonUtil;
 
 import java.io.File;
 import java.io.IOException;
@@ -88,7 +89,7 @@ public class ApkModuleJsonDecoder extends ApkModuleDecoder{
         TableBlock tableBlock = apkModule.getTableBlock();
         File file = new File(mainDirectory, TableBlock.DIRECTORY_NAME);
         file = new File(file, TableBlock.FILE_NAME_JSON);
-        tableBlock.toJson().write(file);
+        JsonUtil.writeJson(file, tableBlock::writeJson);
         addDecodedPath(TableBlock.FILE_NAME);
     }
     void decodeAndroidManifest(File mainDirectory) throws IOException {
@@ -20,6 +20,7 @@ import com.reandroid.arsc.chunk.PackageBlock;
 import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.chunk.xml.AndroidManifestBlock;
 import com.reandroid.arsc.chunk.xml.ResXmlDocument;
+import com.reandroid.arsc.chunk.xml.ResXmlTranscoder;
 import com.reandroid.arsc.coder.xml.XmlCoder;
 import com.reandroid.utils.io.IOUtil;
 import com.reandroid.arsc.value.*;
@@ -35,6 +36,7 @@ import java.util.function.Predicate;
 public class ApkModuleXmlDecoder extends ApkModuleDecoder implements Predicate<Entry> {
     private final Map<Integer, Set<ResConfig>> decodedEntries;
     private boolean keepResPath;
+    private ResXmlTranscoder xmlTranscoder;
 
     public ApkModuleXmlDecoder(ApkModule apkModule){
         super(apkModule);
@@ -243,10 +245,17 @@ public class ApkModuleXmlDecoder extends ApkModuleDecoder implements Predicate<E
     }
     private void serializeXml(PackageBlock packageBlock, InputSource inputSource, File outFile)
             throws IOException {
-        ResXmlDocument document = new ResXmlDocument();
-        document.readBytes(inputSource.openStream());
-        document.setPackageBlock(packageBlock);
-        serializeXml(packageBlock, document, outFile);
+        ResXmlTranscoder transcoder = getXmlTranscoder();
+        transcoder.setPackageBlock(packageBlock);
+        transcoder.transcode(inputSource.openStream(), outFile);
+    }
+    private ResXmlTranscoder getXmlTranscoder(){
+        ResXmlTranscoder transcoder = this.xmlTranscoder;
+        if(transcoder == null){
+            transcoder = new ResXmlTranscoder();
+            this.xmlTranscoder = transcoder;
+        }
+        return transcoder;
     }
     private void addDecodedEntry(Entry entry){
         if(entry.isNull()){
@@ -15,6 +15,7 @@
  */
 package com.reandroid.apk;
 
+import com.reandroid.apk.xmlencoder.XMLEncodeCache;
 import com.reandroid.apk.xmlencoder.XMLEncodeSource;
 import com.reandroid.apk.xmlencoder.XMLTableBlockEncoder;
 import com.reandroid.archive.Archive;
@@ -32,6 +33,7 @@ import java.util.List;
 
 public class ApkModuleXmlEncoder extends ApkModuleEncoder{
     private final XMLTableBlockEncoder tableBlockEncoder;
+    private boolean encodeCacheEnabled;
     public ApkModuleXmlEncoder(){
         this.tableBlockEncoder = new XMLTableBlockEncoder();
     }
@@ -39,8 +41,22 @@ public class ApkModuleXmlEncoder extends ApkModuleEncoder{
         this.tableBlockEncoder = new XMLTableBlockEncoder(module, tableBlock);
     }
 
+    /**
+     * Enables persistent cache of compiled xml files under project directory
+     * ({@link XMLEncodeCache#DIRECTORY_NAME}), thus rebuilding a project only
+     * recompiles changed xml files.
+     * */
+    public void setEncodeCacheEnabled(boolean enabled) {
+        this.encodeCacheEnabled = enabled;
+    }
+    public boolean isEncodeCacheEnabled() {
+        return encodeCacheEnabled;
+    }
     @Override
     public void buildResources(File mainDirectory) throws IOException{
+        if(isEncodeCacheEnabled()){
+            tableBlockEncoder.setEncodeCache(XMLEncodeCache.forProject(mainDirectory));
+        }
         encodeManifestBinary(mainDirectory);
         buildTableBlock(mainDirectory);
         encodeManifestXml(mainDirectory);
@@ -92,6 +108,7 @@ public class ApkModuleXmlEncoder extends ApkModuleEncoder{
         XMLEncodeSource xmlEncodeSource =
                 new XMLEncodeSource(tableBlock.pickOne(), xmlSource);
         xmlEncodeSource.setApkLogger(getApkLogger());
+        xmlEncodeSource.setEncodeCache(tableBlockEncoder.getEncodeCache());
         xmlEncodeSource.setMethod(Archive.STORED);
         xmlEncodeSource.setSort(0);
         getApkModule().add(xmlEncodeSource);
@@ -121,6 +138,7 @@ public class ApkModuleXmlEncoder extends ApkModuleEncoder{
             XMLEncodeSource xmlEncodeSource =
                     new XMLEncodeSource(entry.getPackageBlock(), xmlSource);
             xmlEncodeSource.setApkLogger(getApkLogger());
+            xmlEncodeSource.setEncodeCache(tableBlockEncoder.getEncodeCache());
             getApkModule().add(xmlEncodeSource);
         }else {
             FileInputSource inputSource = new FileInputSource(file, path);
@@ -40,6 +40,7 @@ public class FrameworkApk extends ApkModule{
     private String packageName;
     private boolean mOptimizing;
     private boolean mDestroyed;
+    private volatile boolean mShared;
     public FrameworkApk(String moduleName, ZipEntryMap zipEntryMap) {
         super(moduleName, zipEntryMap);
         super.setLoadDefaultFramework(false);
@@ -48,8 +49,15 @@ public class FrameworkApk extends ApkModule{
         this("framework", zipEntryMap);
     }
 
+    /**
+     * Shared instances (see {@link FrameworkCache}) are in use by other modules thus
+     * destroy is ignored, drop the reference instead and the cache releases it.
+     * */
     @Override
     public void destroy(){
+        if(mShared){
+            return;
+        }
         synchronized (mLock){
             this.versionCode = -1;
             this.versionName = "-1";
@@ -58,6 +66,12 @@ public class FrameworkApk extends ApkModule{
             this.mDestroyed = true;
         }
     }
+    public boolean isShared() {
+        return mShared;
+    }
+    void markShared() {
+        this.mShared = true;
+    }
     public boolean isDestroyed() {
         synchronized (mLock){
             if(!mDestroyed){
@@ -0,0 +1,146 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.apk;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size bounded cache of loaded frameworks keyed by version. Entries are held by
+ * soft references and evicted least recently used first, thus unused frameworks
+ * could also be reclaimed on memory pressure. Loading of the same version is done
+ * once, concurrent callers for that version wait for it.
+ * */
+public class FrameworkCache {
+    private final Map<Integer, SoftReference<FrameworkApk>> mCache;
+    private final Map<Integer, Object> mLoadLocks;
+    private int maxSize;
+
+    public FrameworkCache(int maxSize){
+        this.mCache = new LinkedHashMap<>(16, 0.75f, true);
+        this.mLoadLocks = new HashMap<>();
+        this.maxSize = maxSize;
+    }
+
+    public FrameworkApk get(int version){
+        synchronized (mCache){
+            SoftReference<FrameworkApk> reference = mCache.get(version);
+            if(reference == null){
+                return null;
+            }
+            FrameworkApk frameworkApk = reference.get();
+            if(frameworkApk == null || frameworkApk.isDestroyed()){
+                mCache.remove(version);
+                return null;
+            }
+            return frameworkApk;
+        }
+    }
+    public FrameworkApk getOrLoad(int version, Loader loader) throws IOException {
+        FrameworkApk frameworkApk = get(version);
+        if(frameworkApk != null){
+            return frameworkApk;
+        }
+        synchronized (getLoadLock(version)){
+            frameworkApk = get(version);
+            if(frameworkApk != null){
+                return frameworkApk;
+            }
+            frameworkApk = loader.load(version);
+            // load and freeze table here, lazy initialization is not safe once shared
+            frameworkApk.getTableBlock().setReadOnly();
+            put(version, frameworkApk);
+            return frameworkApk;
+        }
+    }
+    public void put(int version, FrameworkApk frameworkApk){
+        synchronized (mCache){
+            if(frameworkApk == null){
+                mCache.remove(version);
+                return;
+            }
+            frameworkApk.markShared();
+            mCache.put(version, new SoftReference<>(frameworkApk));
+            trimToSize();
+        }
+    }
+    public void remove(int version){
+        synchronized (mCache){
+            mCache.remove(version);
+        }
+    }
+    public void remove(FrameworkApk frameworkApk){
+        synchronized (mCache){
+            Iterator<SoftReference<FrameworkApk>> iterator = mCache.values().iterator();
+            while (iterator.hasNext()){
+                if(iterator.next().get() == frameworkApk){
+                    iterator.remove();
+                }
+            }
+        }
+    }
+    public void clear(){
+        synchronized (mCache){
+            mCache.clear();
+        }
+    }
+    public int size(){
+        synchronized (mCache){
+            return mCache.size();
+        }
+    }
+    public int getMaxSize() {
+        return maxSize;
+    }
+    public void setMaxSize(int maxSize) {
+        synchronized (mCache){
+            this.maxSize = maxSize;
+            trimToSize();
+        }
+    }
+    private void trimToSize(){
+        Iterator<Map.Entry<Integer, SoftReference<FrameworkApk>>> iterator =
+                mCache.entrySet().iterator();
+        int size = mCache.size();
+        while (size > maxSize && iterator.hasNext()){
+            iterator.next();
+            iterator.remove();
+            size--;
+        }
+    }
+    private Object getLoadLock(int version){
+        synchronized (mLoadLocks){
+            Object lock = mLoadLocks.get(version);
+            if(lock == null){
+                lock = new Object();
+                mLoadLocks.put(version, lock);
+            }
+            return lock;
+        }
+    }
+    @Override
+    public String toString() {
+        return "FrameworkCache{size=" + size() + ", max=" + getMaxSize() + "}";
+    }
+
+    public interface Loader {
+        FrameworkApk load(int version) throws IOException;
+    }
+}
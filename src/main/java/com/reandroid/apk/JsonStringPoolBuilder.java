@@ -24,6 +24,7 @@ import com.reandroid.arsc.value.ValueType;
 import com.reandroid.json.JSONArray;
 import com.reandroid.json.JSONException;
 import com.reandroid.json.JSONObject;
+import com.reandroid.json.JSONReader;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -72,16 +73,21 @@ public class JsonStringPoolBuilder {
         }
     }
     public void scanFile(File jsonFile) throws IOException {
+        JSONReader reader = new JSONReader(jsonFile);
         try{
-            JSONObject jsonObject = new JSONObject(jsonFile);
-            build(jsonObject);
+            build(reader);
         }catch (JSONException ex){
             throw new IOException(jsonFile+": "+ex.getMessage());
+        }finally {
+            reader.close();
         }
     }
     public void build(JSONObject jsonObject){
         scan(jsonObject);
     }
+    public void build(JSONReader reader){
+        scanValue(reader);
+    }
     public Set<String> getTableString(){
         return mTableStrings;
     }
@@ -132,6 +138,64 @@ public class JsonStringPoolBuilder {
             }
         }
     }
+    private void scanValue(JSONReader reader){
+        JSONReader.Token token = reader.peek();
+        if(token == JSONReader.Token.BEGIN_OBJECT){
+            scanObject(reader);
+        }else if(token == JSONReader.Token.BEGIN_ARRAY){
+            reader.beginArray();
+            while (reader.hasNext()){
+                scanValue(reader);
+            }
+            reader.endArray();
+        }else {
+            reader.skipValue();
+        }
+    }
+    private void scanObject(JSONReader reader){
+        reader.beginObject();
+        String entryName = null;
+        String valueType = null;
+        String data = null;
+        while (reader.hasNext()){
+            String key = reader.nextName();
+            JSONReader.Token token = reader.peek();
+            if(token == JSONReader.Token.VALUE){
+                Object value = reader.nextValue();
+                String text = JSONObject.NULL.equals(value) ? "" : value.toString();
+                if(ValueHeader.NAME_entry_name.equals(key)){
+                    entryName = text;
+                }else if(ApkUtil.NAME_value_type.equals(key)){
+                    valueType = text;
+                }else if(ApkUtil.NAME_data.equals(key)){
+                    data = text;
+                }else if(PackageBlock.NAME_package_id.equals(key)){
+                    mCurrentPackageId = (value instanceof Number) ?
+                            ((Number) value).intValue() : Integer.parseInt(text);
+                }
+                continue;
+            }
+            if(entryName != null){
+                addSpecName(entryName);
+                entryName = null;
+            }
+            if(valueType != null){
+                reader.skipValue();
+            }else if(token == JSONReader.Token.BEGIN_ARRAY
+                    && TableBlock.NAME_styled_strings.equals(key)){
+                this.mStyledStrings = reader.readJSONArray();
+            }else {
+                scanValue(reader);
+            }
+        }
+        reader.endObject();
+        if(entryName != null){
+            addSpecName(entryName);
+        }
+        if(ValueType.STRING.name().equals(valueType)){
+            addTableString(data != null ? data : "");
+        }
+    }
     private void addTableString(String name){
         if(name==null){
             return;
@@ -0,0 +1,108 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.apk;
+
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.group.StringGroup;
+import com.reandroid.arsc.item.TableString;
+import com.reandroid.arsc.pool.TableStringPool;
+import com.reandroid.arsc.value.Entry;
+import com.reandroid.arsc.value.ResValue;
+import com.reandroid.utils.collection.EmptyList;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps archive path to scalar entries referencing it. Records are built on first
+ * lookup of each path and all are dropped once the table string pool reports a
+ * modification, thus lookups on unchanged table do not re-scan references.
+ */
+public class ResFileIndex {
+    private final TableBlock tableBlock;
+    private final Map<String, List<Entry>> recordMap;
+    private int mModificationCount;
+
+    public ResFileIndex(TableBlock tableBlock){
+        this.tableBlock = tableBlock;
+        this.recordMap = new HashMap<>();
+    }
+
+    public TableBlock getTableBlock() {
+        return tableBlock;
+    }
+    public List<Entry> getEntries(String path){
+        if(path == null){
+            return EmptyList.of();
+        }
+        TableStringPool stringPool = getStringPool();
+        if(mModificationCount != stringPool.getModificationCount()){
+            recordMap.clear();
+        }
+        List<Entry> entryList = recordMap.get(path);
+        if(entryList == null){
+            entryList = collectEntries(path, stringPool.get(path));
+            recordMap.put(path, entryList);
+        }
+        // linking string references while collecting could modify the pool
+        mModificationCount = stringPool.getModificationCount();
+        return entryList;
+    }
+    public void clear(){
+        recordMap.clear();
+    }
+    private TableStringPool getStringPool(){
+        return tableBlock.getStringPool();
+    }
+
+    private static List<Entry> collectEntries(String path, StringGroup<TableString> group){
+        if(group == null){
+            return EmptyList.of();
+        }
+        List<Entry> results = null;
+        for(TableString tableString : group.getItems()){
+            if(tableString == null){
+                continue;
+            }
+            Iterator<Entry> iterator = tableString.getEntries(false);
+            while (iterator.hasNext()){
+                Entry entry = iterator.next();
+                if(!isReferencing(entry, path)){
+                    continue;
+                }
+                if(results == null){
+                    results = new ArrayList<>();
+                }
+                results.add(entry);
+            }
+        }
+        if(results == null){
+            return EmptyList.of();
+        }
+        return results;
+    }
+    private static boolean isReferencing(Entry entry, String path){
+        if(entry == null || entry.getParent() == null
+                || entry.isNull() || !entry.isScalar()){
+            return false;
+        }
+        ResValue resValue = entry.getResValue();
+        return resValue != null && path.equals(resValue.getValueAsString());
+    }
+}
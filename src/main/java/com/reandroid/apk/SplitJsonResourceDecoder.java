@@ -22,6 +22,7 @@ import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.chunk.TypeBlock;
 import com.reandroid.arsc.container.SpecTypePair;
 import com.reandroid.json.JSONObject;
+import com.reandroid.json.JsonUtil;
 
 import java.io.File;
 import java.io.IOException;
@@ -67,7 +68,6 @@ public class SplitJsonResourceDecoder {
     private void writeSplitTypeJsonFiles(File packageDirectory, TypeBlock typeBlock) throws IOException {
         File file = new File(packageDirectory,
                 typeBlock.buildUniqueDirectoryName() + ApkUtil.JSON_FILE_EXTENSION);
-        JSONObject jsonObject = typeBlock.toJson();
-        jsonObject.write(file);
+        JsonUtil.writeJson(file, typeBlock::writeJson);
     }
 }
@@ -21,7 +21,9 @@ import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.chunk.TypeBlock;
 import com.reandroid.arsc.value.ResConfig;
 import com.reandroid.json.JSONArray;
+import com.reandroid.json.JSONException;
 import com.reandroid.json.JSONObject;
+import com.reandroid.json.JSONReader;
 
 import java.io.File;
 import java.io.IOException;
@@ -74,13 +76,62 @@ public class TableBlockJsonBuilder {
         packageBlock.sortTypes();
     }
     private void loadType(PackageBlock packageBlock, File typeJsonFile) throws IOException{
-        JSONObject jsonObject = new JSONObject(typeJsonFile);
-        ResConfig resConfig = new ResConfig();
-        resConfig.fromJson(jsonObject.getJSONObject(TypeBlock.NAME_config));
-        TypeBlock typeBlock=packageBlock.getSpecTypePairArray()
-                .getOrCreate(
-                        ((byte)(0xff & jsonObject.getInt(TypeBlock.NAME_id)))
-                        , resConfig);
-        typeBlock.fromJson(jsonObject);
+        JSONReader reader = new JSONReader(typeJsonFile);
+        try{
+            loadType(packageBlock, reader);
+        }catch (JSONException ex){
+            throw new IOException(typeJsonFile + ": " + ex.getMessage(), ex);
+        }finally {
+            reader.close();
+        }
+    }
+    private void loadType(PackageBlock packageBlock, JSONReader reader) {
+        reader.beginObject();
+        int id = 0;
+        String name = null;
+        ResConfig resConfig = null;
+        TypeBlock typeBlock = null;
+        JSONArray entries = null;
+        while (reader.hasNext()){
+            String key = reader.nextName();
+            if(TypeBlock.NAME_id.equals(key)){
+                id = reader.nextInt();
+            }else if(TypeBlock.NAME_name.equals(key)){
+                name = reader.nextString();
+            }else if(TypeBlock.NAME_config.equals(key)){
+                resConfig = new ResConfig();
+                resConfig.fromJson(reader.readJSONObject());
+            }else if(TypeBlock.NAME_entries.equals(key)){
+                if(id != 0 && resConfig != null){
+                    typeBlock = getOrCreateType(packageBlock, id, name, resConfig);
+                    typeBlock.getEntryArray().fromJson(reader);
+                }else {
+                    // out of usual order, entries can not be placed before type is known
+                    entries = reader.readJSONArray();
+                }
+            }else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if(id == 0 || resConfig == null){
+            throw new JSONException("Missing type '" + TypeBlock.NAME_id
+                    + "' or '" + TypeBlock.NAME_config + "'");
+        }
+        if(typeBlock == null){
+            typeBlock = getOrCreateType(packageBlock, id, name, resConfig);
+        }
+        if(entries != null){
+            typeBlock.getEntryArray().fromJson(entries);
+        }
+    }
+    private TypeBlock getOrCreateType(PackageBlock packageBlock, int id, String name, ResConfig resConfig){
+        TypeBlock typeBlock = packageBlock.getSpecTypePairArray()
+                .getOrCreate((byte)(0xff & id), resConfig);
+        typeBlock.setId(id);
+        if(name != null){
+            typeBlock.setTypeName(name);
+        }
+        return typeBlock;
     }
 }
@@ -37,6 +37,7 @@ public class FilePathEncoder {
     private final ApkModule apkModule;
     private APKLogger mLogger;
     private PackageBlock mCurrentPackage;
+    private XMLEncodeCache mEncodeCache;
     public FilePathEncoder(ApkModule apkModule){
         this.apkModule = apkModule;
         this.mLogger = apkModule.getApkLogger();
@@ -113,6 +114,7 @@ public class FilePathEncoder {
         XMLParserSource xmlSource = new XMLFileParserSource(path, resFile);
         XMLEncodeSource encodeSource = new XMLEncodeSource(packageBlock, xmlSource);
         encodeSource.setApkLogger(mLogger);
+        encodeSource.setEncodeCache(mEncodeCache);
         return encodeSource;
     }
     private boolean isXmlFile(File resFile){
@@ -132,6 +134,9 @@ public class FilePathEncoder {
             apkModule.add(inputSource);
         }
     }
+    public void setEncodeCache(XMLEncodeCache encodeCache) {
+        this.mEncodeCache = encodeCache;
+    }
     public void setApkLogger(APKLogger logger){
         this.mLogger = logger;
     }
@@ -0,0 +1,72 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.apk.xmlencoder;
+
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TypeBlock;
+import com.reandroid.arsc.coder.xml.XmlCoder;
+import com.reandroid.arsc.coder.xml.XmlEncodeUtil;
+import com.reandroid.xml.XMLElement;
+import com.reandroid.xml.XMLFactory;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Intermediate form of values xml file, parsed independently of any table.
+ * */
+public class ParsedValuesXml {
+    private final File file;
+    private final String qualifiers;
+    private final String type;
+    private final List<XMLElement> entryElements;
+
+    private ParsedValuesXml(File file, List<XMLElement> entryElements){
+        this.file = file;
+        this.qualifiers = XmlEncodeUtil.getQualifiersFromValuesXml(file);
+        this.type = XmlEncodeUtil.getTypeFromValuesXml(file);
+        this.entryElements = entryElements;
+    }
+
+    public File getFile() {
+        return file;
+    }
+    public String getQualifiers() {
+        return qualifiers;
+    }
+    public String getType() {
+        return type;
+    }
+    public List<XMLElement> getEntryElements() {
+        return entryElements;
+    }
+    public void encode(PackageBlock packageBlock) throws IOException {
+        TypeBlock typeBlock = packageBlock.getOrCreateTypeBlock(getQualifiers(), getType());
+        XmlCoder.getInstance().VALUES_XML.encodeEntries(getEntryElements(), typeBlock);
+    }
+    @Override
+    public String toString() {
+        return getFile() + " (" + getEntryElements().size() + ")";
+    }
+
+    public static ParsedValuesXml parse(File file) throws IOException, XmlPullParserException {
+        List<XMLElement> elementList = XmlCoder.getInstance().VALUES_XML
+                .parseEntries(XMLFactory.newPullParser(file));
+        return new ParsedValuesXml(file, elementList);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.apk.xmlencoder;
+
+import com.reandroid.arsc.BuildInfo;
+import com.reandroid.arsc.chunk.TableBlock;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * On-disk cache of compiled binary xml files, keyed by content hash of source
+ * xml file. Compiled xml depends on resource ids and attribute definitions thus
+ * every key also includes an environment hash computed from public.xml, attrs,
+ * package.json files and content of frameworks in use, any change on them
+ * invalidates all cached files.
+ * */
+public class XMLEncodeCache {
+    private final File directory;
+    private String environment;
+
+    public XMLEncodeCache(File directory){
+        this.directory = directory;
+        this.environment = "";
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+    public void initializeEnvironment(Collection<File> files) throws IOException {
+        initializeEnvironment(files, Collections.emptyList());
+    }
+    public void initializeEnvironment(Collection<File> files, Collection<TableBlock> frameworks) throws IOException {
+        MessageDigest digest = newDigest();
+        update(digest, BuildInfo.getVersion());
+        for(File file : files){
+            update(digest, file.getName());
+            if(file.isFile()){
+                digest.update(readBytes(file));
+            }
+        }
+        for(TableBlock framework : frameworks){
+            update(digest, framework.getClass().getName());
+            updateFramework(digest, framework);
+        }
+        this.environment = toHex(digest.digest());
+    }
+    public String computeKey(int packageId, File file) throws IOException {
+        MessageDigest digest = newDigest();
+        update(digest, environment);
+        update(digest, Integer.toString(packageId));
+        digest.update(readBytes(file));
+        return toHex(digest.digest());
+    }
+    public byte[] get(String key) throws IOException {
+        File file = toCacheFile(key);
+        if(!file.isFile()){
+            return null;
+        }
+        return readBytes(file);
+    }
+    public void put(String key, byte[] bytes) throws IOException {
+        File file = toCacheFile(key);
+        File dir = file.getParentFile();
+        if(!dir.exists()){
+            dir.mkdirs();
+        }
+        File tmp = new File(dir, file.getName() + "." + Thread.currentThread().getId() + ".tmp");
+        try(FileOutputStream outputStream = new FileOutputStream(tmp)){
+            outputStream.write(bytes, 0, bytes.length);
+        }
+        if(!tmp.renameTo(file)){
+            tmp.delete();
+        }
+    }
+    private File toCacheFile(String key){
+        return new File(new File(directory, key.substring(0, 2)), key.substring(2));
+    }
+    @Override
+    public String toString() {
+        return "XMLEncodeCache{" + directory + "}";
+    }
+
+    private static byte[] readBytes(File file) throws IOException {
+        return Files.readAllBytes(file.toPath());
+    }
+    private static void updateFramework(MessageDigest digest, TableBlock framework) throws IOException {
+        DigestOutputStream outputStream = new DigestOutputStream(NULL_OUTPUT, digest);
+        framework.writeBytes(outputStream);
+        digest.update((byte) 0);
+    }
+    private static void update(MessageDigest digest, String text){
+        digest.update(text.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+    private static MessageDigest newDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException(ex);
+        }
+    }
+    private static String toHex(byte[] bytes){
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for(byte b : bytes){
+            builder.append(HEX_CHARS[(b >> 4) & 0x0f]);
+            builder.append(HEX_CHARS[b & 0x0f]);
+        }
+        return builder.toString();
+    }
+
+    public static XMLEncodeCache forProject(File mainDirectory){
+        return new XMLEncodeCache(new File(mainDirectory, DIRECTORY_NAME));
+    }
+
+    private static final OutputStream NULL_OUTPUT = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+    private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+    public static final String DIRECTORY_NAME = ".build-cache";
+}
@@ -4,12 +4,14 @@ import com.reandroid.apk.APKLogger;
 import com.reandroid.apk.CrcOutputStream;
 import com.reandroid.archive.ByteInputSource;
 import com.reandroid.arsc.chunk.PackageBlock;
-import com.reandroid.arsc.chunk.xml.ResXmlDocument;
+import com.reandroid.arsc.chunk.xml.ResXmlCompiler;
 import com.reandroid.utils.io.IOUtil;
+import com.reandroid.xml.source.XMLFileParserSource;
 import com.reandroid.xml.source.XMLParserSource;
 import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.zip.CRC32;
@@ -18,6 +20,7 @@ public class XMLEncodeSource extends ByteInputSource {
     private final PackageBlock packageBlock;
     private final XMLParserSource parserSource;
     private APKLogger mLogger;
+    private XMLEncodeCache mEncodeCache;
     private byte[] array;
 
     public XMLEncodeSource(PackageBlock packageBlock, XMLParserSource parserSource) {
@@ -61,22 +64,48 @@ public class XMLEncodeSource extends ByteInputSource {
         if(array != null){
             return array;
         }
+        String cacheKey = getCacheKey();
+        if(cacheKey != null){
+            byte[] bytes = mEncodeCache.get(cacheKey);
+            if(bytes != null){
+                logVerbose("Cached: " + parserSource.getPath());
+                array = bytes;
+                return bytes;
+            }
+        }
         try {
-            array = encode().getBytes();
+            array = encode();
         } catch (XmlPullParserException ex) {
             throw new IOException(ex);
         }
+        if(cacheKey != null){
+            mEncodeCache.put(cacheKey, array);
+        }
         return array;
     }
-    private ResXmlDocument encode() throws XmlPullParserException, IOException {
+    private String getCacheKey() throws IOException {
+        XMLEncodeCache encodeCache = this.mEncodeCache;
+        if(encodeCache == null || !(parserSource instanceof XMLFileParserSource)){
+            return null;
+        }
+        File file = ((XMLFileParserSource) parserSource).getFile();
+        int packageId = packageBlock != null ? packageBlock.getId() : 0;
+        return encodeCache.computeKey(packageId, file);
+    }
+    public XMLEncodeCache getEncodeCache() {
+        return mEncodeCache;
+    }
+    public void setEncodeCache(XMLEncodeCache encodeCache) {
+        this.mEncodeCache = encodeCache;
+    }
+    private byte[] encode() throws XmlPullParserException, IOException {
         XMLParserSource parserSource = this.parserSource;
         logVerbose("Encoding: " + parserSource.getPath());
         XmlPullParser parser = parserSource.getParser();
-        ResXmlDocument resXmlDocument = new ResXmlDocument();
-        resXmlDocument.setPackageBlock(this.packageBlock);
-        resXmlDocument.parse(parser);
+        ResXmlCompiler compiler = new ResXmlCompiler(this.packageBlock);
+        byte[] bytes = compiler.compile(parser);
         IOUtil.close(parser);
-        return resXmlDocument;
+        return bytes;
     }
     public void setApkLogger(APKLogger logger){
         this.mLogger = logger;
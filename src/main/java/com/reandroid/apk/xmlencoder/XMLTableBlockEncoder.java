@@ -35,6 +35,10 @@ import org.xmlpull.v1.XmlPullParserException;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
 
 public class XMLTableBlockEncoder {
@@ -43,6 +47,8 @@ public class XMLTableBlockEncoder {
     private final Set<File> parsedFiles = new HashSet<>();
     private final ApkModule apkModule;
     private Integer mMainPackageId;
+    private int threadCount = Runtime.getRuntime().availableProcessors();
+    private XMLEncodeCache mEncodeCache;
 
     public XMLTableBlockEncoder(ApkModule apkModule, TableBlock tableBlock){
         this.apkModule = apkModule;
@@ -99,6 +105,8 @@ public class XMLTableBlockEncoder {
 
         encodeAttrs(pubXmlFileList);
 
+        initializeEncodeCache(pubXmlFileList);
+
         encodeValues(pubXmlFileList);
 
         tableBlock.refresh();
@@ -161,6 +169,7 @@ public class XMLTableBlockEncoder {
     private void encodeValues(List<File> pubXmlFileList) throws IOException, XmlPullParserException {
         logMessage("Encoding values ...");
         FilePathEncoder filePathEncoder = new FilePathEncoder(getApkModule());
+        filePathEncoder.setEncodeCache(getEncodeCache());
         TableBlock tableBlock = getTableBlock();
 
         for(File pubXmlFile:pubXmlFileList){
@@ -202,6 +211,34 @@ public class XMLTableBlockEncoder {
             packageBlock.sortTypes();
         }
     }
+    private void initializeEncodeCache(List<File> pubXmlFileList) throws IOException {
+        XMLEncodeCache encodeCache = getEncodeCache();
+        if(encodeCache == null){
+            return;
+        }
+        List<File> fileList = new ArrayList<>();
+        for(File pubXmlFile : pubXmlFileList){
+            fileList.add(pubXmlFile);
+            File json = toPackageJson(pubXmlFile);
+            if(json != null){
+                fileList.add(json);
+            }
+            fileList.addAll(listAttrs(pubXmlFile));
+            fileList.add(toAndroidManifest(pubXmlFile));
+        }
+        encodeCache.initializeEnvironment(fileList, getTableBlock().getFrameWorks());
+        logMessage("Using encode cache: " + encodeCache.getDirectory());
+    }
+    /**
+     * When set, compiled binary xml files are stored to and restored from
+     * the cache keyed by content hash of source files.
+     * */
+    public XMLEncodeCache getEncodeCache() {
+        return mEncodeCache;
+    }
+    public void setEncodeCache(XMLEncodeCache encodeCache) {
+        this.mEncodeCache = encodeCache;
+    }
     private void excludeIds(List<File> pubXmlFileList){
         for(File pubXmlFile : pubXmlFileList){
             addParsedFiles(pubXmlFile);
@@ -272,24 +309,91 @@ public class XMLTableBlockEncoder {
                 + HexUtil.toHex2((byte)packageId) + ", from: " + ref );
     }
     private void encodeResDir(File resDir) throws IOException, XmlPullParserException {
-        List<File> valuesDirList = ApkUtil.listValuesDirectory(resDir);
-        for(File valuesDir : valuesDirList){
-            encodeValuesDir(valuesDir);
+        List<File> xmlFiles = listValuesXmlFiles(resDir);
+        if(getThreadCount() > 1 && xmlFiles.size() > 1){
+            encodeValuesXmlParallel(xmlFiles);
+            return;
         }
-    }
-    private void encodeValuesDir(File valuesDir) throws IOException, XmlPullParserException {
-        List<File> xmlFiles = ApkUtil.listFiles(valuesDir, ".xml");
-        EncodeUtil.sortValuesXml(xmlFiles);
-        for(File file:xmlFiles){
-            if(isAlreadyParsed(file)){
-                continue;
-            }
-            addParsedFiles(file);
+        PackageBlock packageBlock = getTableBlock().getCurrentPackage();
+        for(File file : xmlFiles){
             logVerbose("Encoding: " + IOUtil.shortPath(file, 4));
             XmlCoder xmlCoder = XmlCoder.getInstance();
-            xmlCoder.VALUES_XML.encode(file, getTableBlock().getCurrentPackage());
+            xmlCoder.VALUES_XML.encode(file, packageBlock);
+        }
+    }
+    /**
+     * Parses values xml files concurrently and encodes them to the current package
+     * on the calling thread in the same order as sequential encoding, thus the
+     * resulting table is identical. At most a few multiples of thread count
+     * parsed files are held in memory.
+     * */
+    private void encodeValuesXmlParallel(List<File> xmlFiles) throws IOException, XmlPullParserException {
+        int threadCount = Math.min(getThreadCount(), xmlFiles.size());
+        int window = threadCount * 4;
+        PackageBlock packageBlock = getTableBlock().getCurrentPackage();
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            LinkedList<Future<ParsedValuesXml>> pending = new LinkedList<>();
+            Iterator<File> iterator = xmlFiles.iterator();
+            while (iterator.hasNext() || !pending.isEmpty()){
+                while (pending.size() < window && iterator.hasNext()){
+                    File file = iterator.next();
+                    pending.add(executor.submit(() -> ParsedValuesXml.parse(file)));
+                }
+                ParsedValuesXml parsedValuesXml = awaitParsed(pending.removeFirst());
+                logVerbose("Encoding: " + IOUtil.shortPath(parsedValuesXml.getFile(), 4));
+                parsedValuesXml.encode(packageBlock);
+            }
+        }finally {
+            executor.shutdownNow();
         }
     }
+    private ParsedValuesXml awaitParsed(Future<ParsedValuesXml> future) throws IOException, XmlPullParserException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if(cause instanceof IOException){
+                throw (IOException) cause;
+            }
+            if(cause instanceof XmlPullParserException){
+                throw (XmlPullParserException) cause;
+            }
+            if(cause instanceof RuntimeException){
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+    private List<File> listValuesXmlFiles(File resDir){
+        List<File> results = new ArrayList<>();
+        List<File> valuesDirList = ApkUtil.listValuesDirectory(resDir);
+        for(File valuesDir : valuesDirList){
+            List<File> xmlFiles = ApkUtil.listFiles(valuesDir, ".xml");
+            EncodeUtil.sortValuesXml(xmlFiles);
+            for(File file : xmlFiles){
+                if(isAlreadyParsed(file)){
+                    continue;
+                }
+                addParsedFiles(file);
+                results.add(file);
+            }
+        }
+        return results;
+    }
+    /**
+     * Number of threads used to parse values xml files, values less than 2
+     * disables parallel parsing. Default is number of available processors.
+     * */
+    public int getThreadCount() {
+        return threadCount;
+    }
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
     private File toAndroidManifest(File pubXmlFile){
         File resDirectory = toResDirectory(pubXmlFile);
         File packageDirectory = resDirectory.getParentFile();
@@ -27,6 +27,8 @@ import com.reandroid.arsc.value.ValueType;
 import com.reandroid.json.JSONConvert;
 import com.reandroid.json.JSONArray;
 import com.reandroid.json.JSONObject;
+import com.reandroid.json.JSONReader;
+import com.reandroid.json.JSONWriter;
 
 import java.util.Iterator;
 
@@ -147,6 +149,20 @@ public class EntryArray extends OffsetBlockArray<Entry> implements JSONConvert<J
         if(typeBlock == null){
             return null;
         }
+        SpecTypePair specTypePair = typeBlock.getParentSpecTypePair();
+        if(specTypePair != null){
+            int entryId = specTypePair.getEntryIdByName(entryName);
+            if(entryId >= 0){
+                // the name is unique within the type, thus no need to search further
+                Entry entry = getEntry(entryId);
+                if(entry == null){
+                    return null;
+                }
+                if(entryName.equals(entry.getName())){
+                    return entry;
+                }
+            }
+        }
         PackageBlock packageBlock = typeBlock.getPackageBlock();
         if(packageBlock == null){
             return null;
@@ -186,6 +202,19 @@ public class EntryArray extends OffsetBlockArray<Entry> implements JSONConvert<J
         }
         return jsonArray;
     }
+    public void writeJson(JSONWriter writer) {
+        writer.array();
+        String name_id = Entry.NAME_id;
+        for(Entry entry : listItems(true)){
+            JSONObject childObject = entry.toJson();
+            if(childObject==null){
+                continue;
+            }
+            childObject.put(name_id, entry.getId());
+            writer.value(childObject);
+        }
+        writer.endArray();
+    }
     @Override
     public void fromJson(JSONArray json) {
         clearChildes();
@@ -230,6 +259,64 @@ public class EntryArray extends OffsetBlockArray<Entry> implements JSONConvert<J
             entry.fromJson(jsonObject);
         }
     }
+    /**
+     * Same as {@link #fromJson(JSONArray)} but reads entries one by one
+     * */
+    public void fromJson(JSONReader reader) {
+        clearChildes();
+        boolean sparse = isSparse();
+        SparseOffsetsArray offsetsArray = null;
+        if(sparse){
+            offsetsArray = (SparseOffsetsArray) getOffsetArray();
+            offsetsArray.setSize(0);
+        }
+        String name_id = Entry.NAME_id;
+        int capacity = 0;
+        int count = 0;
+        int size = 0;
+        reader.beginArray();
+        while (reader.hasNext()){
+            JSONObject jsonObject = reader.readJSONObject();
+            int index = count;
+            count ++;
+            if(count > capacity){
+                capacity = Math.max(count, capacity * 2);
+                ensureSize(capacity);
+                if(sparse){
+                    offsetsArray.setSize(capacity);
+                }
+            }
+            if(jsonObject == null){
+                if(sparse){
+                    offsetsArray.setIdx(index , OffsetArray.NO_ENTRY);
+                }
+                continue;
+            }
+            int id = jsonObject.getInt(name_id);
+            if(sparse){
+                offsetsArray.setIdx(index, id);
+            }else {
+                index = id;
+                if(id >= capacity){
+                    capacity = Math.max(id + 1, capacity * 2);
+                    ensureSize(capacity);
+                }
+                if(id + 1 > size){
+                    size = id + 1;
+                }
+            }
+            super.get(index).fromJson(jsonObject);
+        }
+        reader.endArray();
+        if(count > size){
+            size = count;
+        }
+        setChildesCount(size);
+        if(sparse){
+            offsetsArray.setSize(size);
+        }
+        refreshCountAndStart();
+    }
     public void merge(EntryArray entryArray){
         if(entryArray ==null|| entryArray == this|| entryArray.isEmpty()){
             return;
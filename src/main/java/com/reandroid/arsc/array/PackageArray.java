@@ -24,6 +24,8 @@ import com.reandroid.arsc.item.IntegerItem;
 import com.reandroid.json.JSONConvert;
 import com.reandroid.json.JSONArray;
 import com.reandroid.json.JSONObject;
+import com.reandroid.json.JSONReader;
+import com.reandroid.json.JSONWriter;
 
 import java.io.IOException;
 import java.util.Comparator;
@@ -156,6 +158,13 @@ public class PackageArray extends BlockArray<PackageBlock>
         }
         return jsonArray;
     }
+    public void writeJson(JSONWriter writer) {
+        writer.array();
+        for(PackageBlock packageBlock:listItems()){
+            packageBlock.writeJson(writer);
+        }
+        writer.endArray();
+    }
     @Override
     public void fromJson(JSONArray json) {
         int length= json.length();
@@ -167,6 +176,17 @@ public class PackageArray extends BlockArray<PackageBlock>
             packageBlock.fromJson(jsonObject);
         }
     }
+    public void fromJson(JSONReader reader) {
+        clearChildes();
+        reader.beginArray();
+        int i = 0;
+        while (reader.hasNext()){
+            ensureSize(i + 1);
+            get(i).fromJson(reader);
+            i++;
+        }
+        reader.endArray();
+    }
     public void merge(PackageArray packageArray){
         if(packageArray==null||packageArray==this){
             return;
@@ -20,15 +20,15 @@ import com.reandroid.arsc.base.BlockArray;
 import com.reandroid.arsc.header.HeaderBlock;
 import com.reandroid.arsc.io.BlockReader;
 import com.reandroid.arsc.chunk.xml.ResXmlAttribute;
+import com.reandroid.arsc.chunk.xml.ResXmlDocument;
 import com.reandroid.arsc.item.ShortItem;
 import com.reandroid.json.JSONConvert;
 import com.reandroid.json.JSONArray;
 import com.reandroid.json.JSONObject;
+import com.reandroid.utils.collection.EmptyIterator;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
+import java.util.*;
 
 public class ResXmlAttributeArray extends BlockArray<ResXmlAttribute>
         implements Comparator<ResXmlAttribute>, JSONConvert<JSONArray> {
@@ -36,6 +36,11 @@ public class ResXmlAttributeArray extends BlockArray<ResXmlAttribute>
     private final ShortItem mAttributeStart;
     private final ShortItem mAttributeCount;
     private final ShortItem mAttributesUnitSize;
+    private ResXmlAttribute[] mIndexedChildes;
+    private int[] mResourceIds;
+    private ResXmlAttribute[] mResourceIdAttributes;
+    private Map<String, ResXmlAttribute> mNameIndex;
+    private int mIndexedModification;
     public ResXmlAttributeArray(HeaderBlock headerBlock,
                                 ShortItem attributeStart,
                                 ShortItem attributeCount,
@@ -46,6 +51,182 @@ public class ResXmlAttributeArray extends BlockArray<ResXmlAttribute>
         this.mAttributesUnitSize=attributesUnitSize;
     }
 
+    /**
+     * Returns the first attribute having the given non-zero resource id
+     * */
+    public ResXmlAttribute searchByResourceId(int resourceId){
+        if(resourceId == 0){
+            return null;
+        }
+        buildIndex();
+        int i = Arrays.binarySearch(mResourceIds, resourceId);
+        if(i < 0){
+            return null;
+        }
+        i = firstIndexOf(mResourceIds, i);
+        ResXmlAttribute attribute = mResourceIdAttributes[i];
+        if(isIndexed(attribute) && attribute.getNameResourceID() == resourceId){
+            return attribute;
+        }
+        invalidateIndex();
+        return searchByResourceIdLinear(resourceId);
+    }
+    public Iterator<ResXmlAttribute> iteratorWithResourceId(int resourceId){
+        if(resourceId == 0){
+            return iterator(attribute -> attribute.getNameResourceID() == 0);
+        }
+        buildIndex();
+        int[] resourceIds = mResourceIds;
+        int i = Arrays.binarySearch(resourceIds, resourceId);
+        if(i < 0){
+            return EmptyIterator.of();
+        }
+        i = firstIndexOf(resourceIds, i);
+        int end = i + 1;
+        while (end < resourceIds.length && resourceIds[end] == resourceId){
+            end ++;
+        }
+        List<ResXmlAttribute> results = new ArrayList<>(end - i);
+        ResXmlAttribute[] attributes = mResourceIdAttributes;
+        for(; i < end; i++){
+            ResXmlAttribute attribute = attributes[i];
+            if(!isIndexed(attribute) || attribute.getNameResourceID() != resourceId){
+                invalidateIndex();
+                return iterator(item -> item.getNameResourceID() == resourceId);
+            }
+            results.add(attribute);
+        }
+        return results.iterator();
+    }
+    /**
+     * Returns the first attribute named by the given name and having resource id = 0,
+     * otherwise the last one with non-zero resource id.
+     * Prefixed names are not indexed, thus are searched by iterating.
+     * */
+    public ResXmlAttribute searchByName(String name){
+        if(name == null){
+            return null;
+        }
+        if(name.indexOf(':') >= 0){
+            return searchByNameLinear(name);
+        }
+        buildIndex();
+        ResXmlAttribute attribute = mNameIndex.get(name);
+        if(attribute == null){
+            return null;
+        }
+        if(isIndexed(attribute) && name.equals(attribute.getName())){
+            return attribute;
+        }
+        invalidateIndex();
+        return searchByNameLinear(name);
+    }
+    /**
+     * Called when name or resource id of child attribute is changed
+     * */
+    public void onAttributeNameChanged(ResXmlAttribute attribute){
+        invalidateIndex();
+    }
+    private boolean isIndexed(ResXmlAttribute attribute){
+        return attribute.getParent() == this && mIndexedChildes == getChildes();
+    }
+    private void invalidateIndex(){
+        mIndexedChildes = null;
+        mResourceIds = null;
+        mResourceIdAttributes = null;
+        mNameIndex = null;
+    }
+    private void buildIndex(){
+        ResXmlAttribute[] childes = getChildes();
+        int modification = getDocumentModification();
+        if(mIndexedChildes == childes && mNameIndex != null
+                && mIndexedModification == modification){
+            return;
+        }
+        int length = childes.length;
+        long[] sortKeys = new long[length];
+        int count = 0;
+        Map<String, ResXmlAttribute> nameIndex = new HashMap<>();
+        for(int i = 0; i < length; i++){
+            ResXmlAttribute attribute = childes[i];
+            if(attribute == null){
+                continue;
+            }
+            int resourceId = attribute.getNameResourceID();
+            if(resourceId != 0){
+                // signed resource id on upper bits keeps positions of duplicate ids in order
+                sortKeys[count] = ((long) resourceId << 32) | i;
+                count ++;
+            }
+            String name = attribute.getName();
+            if(name == null){
+                continue;
+            }
+            ResXmlAttribute exist = nameIndex.get(name);
+            if(exist == null || exist.getNameResourceID() != 0){
+                nameIndex.put(name, attribute);
+            }
+        }
+        Arrays.sort(sortKeys, 0, count);
+        int[] resourceIds = new int[count];
+        ResXmlAttribute[] attributes = new ResXmlAttribute[count];
+        for(int i = 0; i < count; i++){
+            long key = sortKeys[i];
+            resourceIds[i] = (int) (key >> 32);
+            attributes[i] = childes[(int) key];
+        }
+        this.mResourceIds = resourceIds;
+        this.mResourceIdAttributes = attributes;
+        this.mNameIndex = nameIndex;
+        this.mIndexedChildes = childes;
+        this.mIndexedModification = modification;
+    }
+    /**
+     * Attribute names and resource ids are references to the document string pool and
+     * id map, editing those changes attributes without notifying this array. Both
+     * counters only grow thus their sum changes on any edit.
+     * */
+    private int getDocumentModification(){
+        ResXmlDocument document = getParentInstance(ResXmlDocument.class);
+        if(document == null){
+            return 0;
+        }
+        return document.getResXmlIDMap().getResXmlIDArray().getModificationCount()
+                + document.getStringPool().getModificationCount();
+    }
+    private ResXmlAttribute searchByResourceIdLinear(int resourceId){
+        ResXmlAttribute[] childes = getChildes();
+        for(int i = 0; i < childes.length; i++){
+            ResXmlAttribute attribute = childes[i];
+            if(attribute != null && attribute.getNameResourceID() == resourceId){
+                return attribute;
+            }
+        }
+        return null;
+    }
+    private ResXmlAttribute searchByNameLinear(String name){
+        ResXmlAttribute[] childes = getChildes();
+        ResXmlAttribute withIdAttribute = null;
+        for(int i = 0; i < childes.length; i++){
+            ResXmlAttribute attribute = childes[i];
+            if(attribute == null || !attribute.equalsName(name)){
+                continue;
+            }
+            if(attribute.getNameResourceID() != 0){
+                withIdAttribute = attribute;
+                continue;
+            }
+            return attribute;
+        }
+        return withIdAttribute;
+    }
+    private static int firstIndexOf(int[] sorted, int index){
+        int value = sorted[index];
+        while (index > 0 && sorted[index - 1] == value){
+            index --;
+        }
+        return index;
+    }
     public int removeUndefinedAttributes(){
         List<ResXmlAttribute> undefinedAttributes = listUndefined();
         super.remove(undefinedAttributes);
@@ -72,6 +253,16 @@ public class ResXmlAttributeArray extends BlockArray<ResXmlAttribute>
     public void sortAttributes(){
         sort(this);
     }
+    @Override
+    public void sort(Comparator<? super ResXmlAttribute> comparator){
+        super.sort(comparator);
+        invalidateIndex();
+    }
+    @Override
+    public void setItem(int index, ResXmlAttribute item){
+        super.setItem(index, item);
+        invalidateIndex();
+    }
     private void refreshCount(){
         short count= (short) childesCount();
         mAttributeCount.set(count);
@@ -118,6 +309,7 @@ public class ResXmlAttributeArray extends BlockArray<ResXmlAttribute>
     }
     @Override
     public void clearChildes(){
+        invalidateIndex();
         ResXmlAttribute[] childes = getChildes();
         if(childes==null || childes.length==0){
             super.clearChildes();
@@ -28,6 +28,7 @@ public class ResXmlIDArray extends BlockArray<ResXmlID>  {
     private final HeaderBlock mHeaderBlock;
     private final Map<Integer, ResXmlID> mResIdMap;
     private boolean mUpdated;
+    private int mModificationCount;
     public ResXmlIDArray(HeaderBlock headerBlock){
         super();
         this.mHeaderBlock=headerBlock;
@@ -59,6 +60,17 @@ public class ResXmlIDArray extends BlockArray<ResXmlID>  {
         updateIdMap();
         return mResIdMap.get(resId);
     }
+    /**
+     * Increments on every resource id change of child items, lookups keyed by resource id
+     * can compare it to find out they are stale
+     * */
+    public int getModificationCount(){
+        return mModificationCount;
+    }
+    public void onIdChangedInternal(){
+        mUpdated = false;
+        mModificationCount ++;
+    }
     public void refreshIdMap(){
         mUpdated = false;
         updateIdMap();
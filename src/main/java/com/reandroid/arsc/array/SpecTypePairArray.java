@@ -28,6 +28,8 @@ import com.reandroid.arsc.value.ResConfig;
 import com.reandroid.json.JSONConvert;
 import com.reandroid.json.JSONArray;
 import com.reandroid.json.JSONObject;
+import com.reandroid.json.JSONReader;
+import com.reandroid.json.JSONWriter;
 
 import java.util.*;
 
@@ -314,6 +316,34 @@ public class SpecTypePairArray extends BlockArray<SpecTypePair>
             specTypePair.fromJson(jsonObject);
         }
     }
+    /**
+     * Same as {@link #fromJson(JSONArray)} but reads types one by one. The type id
+     * is taken from {@link SpecBlock#NAME_spec} member, if it is not the first member
+     * the remaining members are read as whole {@link JSONObject}.
+     * */
+    public void fromJson(JSONReader reader) {
+        reader.beginArray();
+        while (reader.hasNext()){
+            reader.beginObject();
+            if(SpecBlock.NAME_spec.equals(reader.peekName())){
+                reader.nextName();
+                JSONObject spec = reader.readJSONObject();
+                SpecTypePair specTypePair = getOrCreate((byte) spec.getInt(TypeBlock.NAME_id));
+                specTypePair.getSpecBlock().fromJson(spec);
+                specTypePair.fromJsonMembers(reader);
+            }else {
+                JSONObject jsonObject = new JSONObject();
+                while (reader.hasNext()){
+                    jsonObject.put(reader.nextName(), reader.readValue());
+                }
+                int id = jsonObject.getJSONObject(SpecBlock.NAME_spec)
+                        .getInt(TypeBlock.NAME_id);
+                getOrCreate((byte) id).fromJson(jsonObject);
+            }
+            reader.endObject();
+        }
+        reader.endArray();
+    }
     public JSONArray toJson(boolean specsOnly) {
         JSONArray jsonArray=new JSONArray();
         int i=0;
@@ -327,6 +357,13 @@ public class SpecTypePairArray extends BlockArray<SpecTypePair>
         }
         return jsonArray;
     }
+    public void writeJson(JSONWriter writer) {
+        writer.array();
+        for(SpecTypePair specTypePair:listItems()){
+            specTypePair.writeJson(writer);
+        }
+        writer.endArray();
+    }
     public void merge(SpecTypePairArray pairArray){
         if(pairArray==null || pairArray==this){
             return;
@@ -16,7 +16,9 @@
 package com.reandroid.arsc.array;
 
 import com.reandroid.arsc.item.IntegerItem;
+import com.reandroid.arsc.item.ReferenceItem;
 import com.reandroid.arsc.item.StringItem;
+import com.reandroid.arsc.item.WeakStringReference;
 import com.reandroid.arsc.pool.StringPool;
 import com.reandroid.json.JSONConvert;
 import com.reandroid.json.JSONArray;
@@ -53,6 +55,16 @@ public abstract class StringArray<T extends StringItem> extends OffsetBlockArray
         super.onPreRefreshRefresh();
     }
 
+    /**
+     * Adds count new items at the end and returns index of the first one,
+     * allocated free space is trimmed first
+     * */
+    public int appendNew(int count){
+        trimAllocatedFreeSpace();
+        int start = childesCount();
+        ensureSize(start + count);
+        return start;
+    }
     public List<String> toStringList(){
         return new AbstractList<String>() {
             @Override
@@ -101,6 +113,114 @@ public abstract class StringArray<T extends StringItem> extends OffsetBlockArray
         }
         return removed;
     }
+    /**
+     * Removes unused strings and optionally merges duplicate strings in one sweep, items
+     * before keepCount are neither moved nor removed. Items before styledCount are removed
+     * when unused (with their styles) but never merged. Moved items do not update their
+     * references one by one, references are counted into int array and rewritten once
+     * at the end. Returns number of removed strings.
+     * */
+    public int compact(int keepCount, int styledCount, boolean mergeDuplicates){
+        trimAllocatedFreeSpace();
+        T[] childes = getChildes();
+        int length = childes.length;
+        if(keepCount < 0){
+            keepCount = 0;
+        }
+        if(keepCount >= length){
+            return 0;
+        }
+        int[] counts = new int[length];
+        int[] targets = new int[length];
+        Map<String, Integer> firstIndexMap = mergeDuplicates ? new HashMap<>() : null;
+        for(int i = 0; i < length; i++){
+            T item = childes[i];
+            if(item == null){
+                targets[i] = -1;
+                continue;
+            }
+            Collection<ReferenceItem> referencedList = item.getReferencedList();
+            counts[i] = referencedList.size();
+            if(i < styledCount && counts[i] != 0 && !item.hasReference()){
+                // referenced only by its own style
+                counts[i] = 0;
+            }
+            targets[i] = i;
+            if(i < keepCount || i < styledCount){
+                continue;
+            }
+            if(!mergeDuplicates || counts[i] == 0){
+                continue;
+            }
+            String str = item.get();
+            if(str == null){
+                continue;
+            }
+            Integer first = firstIndexMap.get(str);
+            if(first == null){
+                firstIndexMap.put(str, i);
+            }else if(isTransferable(referencedList)){
+                targets[i] = first;
+                counts[first] += counts[i];
+            }
+        }
+        int[] newIndexes = new int[length];
+        int size = 0;
+        for(int i = 0; i < length; i++){
+            int target = targets[i];
+            if(target < 0 || (i >= keepCount && counts[i] == 0)){
+                newIndexes[i] = -1;
+            }else if(target == i){
+                newIndexes[i] = size;
+                size ++;
+            }else {
+                newIndexes[i] = newIndexes[target];
+            }
+        }
+        int removed = length - size;
+        if(removed == 0){
+            return 0;
+        }
+        T[] update = newInstance(size);
+        List<T> removedList = new ArrayList<>(removed);
+        for(int i = 0; i < length; i++){
+            T item = childes[i];
+            if(item == null){
+                continue;
+            }
+            int newIndex = newIndexes[i];
+            if(newIndex != i && newIndex >= 0){
+                for(ReferenceItem ref : item.getReferencedList()){
+                    ref.set(newIndex);
+                }
+            }
+            if(targets[i] == i && newIndex >= 0){
+                update[newIndex] = item;
+                continue;
+            }
+            if(newIndex >= 0){
+                T target = childes[targets[i]];
+                target.addReference(item.getReferencedList());
+                item.removeAllReference();
+            }
+            item.onPreRemoveInternal();
+            removedList.add(item);
+        }
+        replaceChildesInternal(update);
+        for(T item : removedList){
+            item.setIndex(-1);
+            item.onRemoved();
+        }
+        return removed;
+    }
+    private static boolean isTransferable(Collection<ReferenceItem> referencedList){
+        for(ReferenceItem ref : referencedList){
+            if(ref instanceof WeakStringReference){
+                return false;
+            }
+        }
+        return true;
+    }
     List<T> listUnusedStringsToRemove(){
         return listUnusedStrings();
     }
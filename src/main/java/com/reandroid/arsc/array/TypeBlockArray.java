@@ -18,6 +18,7 @@ package com.reandroid.arsc.array;
 import com.reandroid.arsc.chunk.ChunkType;
 import com.reandroid.arsc.base.BlockArray;
 import com.reandroid.arsc.chunk.SpecBlock;
+import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.chunk.TypeBlock;
 import com.reandroid.arsc.container.SpecTypePair;
 import com.reandroid.arsc.header.HeaderBlock;
@@ -26,9 +27,12 @@ import com.reandroid.arsc.io.BlockReader;
 import com.reandroid.arsc.item.TypeString;
 import com.reandroid.arsc.value.Entry;
 import com.reandroid.arsc.value.ResConfig;
+import com.reandroid.arsc.value.ResConfigKey;
 import com.reandroid.json.JSONConvert;
 import com.reandroid.json.JSONArray;
 import com.reandroid.json.JSONObject;
+import com.reandroid.json.JSONReader;
+import com.reandroid.json.JSONWriter;
 import com.reandroid.utils.collection.ComputeIterator;
 
 import java.io.IOException;
@@ -39,6 +43,9 @@ public class TypeBlockArray extends BlockArray<TypeBlock>
         implements JSONConvert<JSONArray>, Comparator<TypeBlock> {
     private byte mTypeId;
     private Boolean mHasComplexEntry;
+    private Map<ResConfigKey, TypeBlock> mConfigIndex;
+    private Map<ResConfigKey, TypeBlock> mSparseConfigIndex;
+    private TypeBlock[] mIndexedChildes;
 
     public TypeBlockArray(){
         super();
@@ -126,11 +133,15 @@ public class TypeBlockArray extends BlockArray<TypeBlock>
         if(typeBlock != null){
             return typeBlock;
         }
+        boolean indexed = mIndexedChildes == getChildes();
         byte id = getTypeId();
         typeBlock = createNext(sparse);
         typeBlock.setTypeId(id);
         ResConfig config = typeBlock.getResConfig();
         config.copyFrom(resConfig);
+        if(indexed){
+            addToConfigIndex(typeBlock);
+        }
         return typeBlock;
     }
     public TypeBlock getOrCreate(String qualifiers){
@@ -138,26 +149,28 @@ public class TypeBlockArray extends BlockArray<TypeBlock>
         if(typeBlock!=null){
             return typeBlock;
         }
+        boolean indexed = mIndexedChildes == getChildes();
         int count = getHighestEntryCount();
         typeBlock = createNext();
         typeBlock.ensureEntriesCount(count);
         ResConfig config=typeBlock.getResConfig();
         config.parseQualifiers(qualifiers);
+        if(indexed){
+            addToConfigIndex(typeBlock);
+        }
         return typeBlock;
     }
     public TypeBlock getTypeBlock(String qualifiers){
-        TypeBlock[] items=getChildes();
-        if(items==null){
-            return null;
+        ResConfig config = ResConfig.parse(qualifiers);
+        TypeBlock typeBlock = getTypeBlock(config, false);
+        TypeBlock sparseBlock = getTypeBlock(config, true);
+        if(typeBlock == null){
+            return sparseBlock;
         }
-        int max=items.length;
-        for(int i=0;i<max;i++){
-            TypeBlock block=items[i];
-            if(block.getResConfig().isEqualQualifiers(qualifiers)){
-                return block;
-            }
+        if(sparseBlock != null && sparseBlock.getIndex() < typeBlock.getIndex()){
+            return sparseBlock;
         }
-        return null;
+        return typeBlock;
     }
     public TypeBlock getTypeBlock(ResConfig config){
         return getTypeBlock(config, false);
@@ -166,21 +179,83 @@ public class TypeBlockArray extends BlockArray<TypeBlock>
         if(config==null){
             return null;
         }
-        TypeBlock[] items = getChildes();
-        if(items == null){
-            return null;
+        ResConfigKey key = config.getKey();
+        TypeBlock typeBlock = getConfigIndex(sparse).get(key);
+        if(typeBlock == null || isIndexed(typeBlock, key, sparse)){
+            return typeBlock;
+        }
+        // modified out of the tracked paths
+        onResConfigChanged();
+        return getConfigIndex(sparse).get(key);
+    }
+    /**
+     * Called when config of any of the child types changes, thus the config index
+     * is rebuilt on next lookup
+     * */
+    public void onResConfigChanged(){
+        this.mIndexedChildes = null;
+        TableBlock tableBlock = getParentInstance(TableBlock.class);
+        if(tableBlock != null){
+            tableBlock.onEntryChangedInternal();
+        }
+    }
+    private boolean isIndexed(TypeBlock typeBlock, ResConfigKey key, boolean sparse){
+        TypeBlock[] childes = getChildes();
+        int index = typeBlock.getIndex();
+        return index >= 0 && index < childes.length
+                && childes[index] == typeBlock
+                && sparse == typeBlock.isSparse()
+                && key == typeBlock.getResConfig().getKey();
+    }
+    public void buildIndexes(){
+        getConfigIndex(false);
+        for(TypeBlock typeBlock : getChildes()){
+            if(typeBlock != null){
+                typeBlock.getTypeString();
+            }
+        }
+    }
+    private Map<ResConfigKey, TypeBlock> getConfigIndex(boolean sparse){
+        TypeBlock[] childes = getChildes();
+        if(mIndexedChildes != childes){
+            buildConfigIndex(childes);
+        }
+        if(sparse){
+            return mSparseConfigIndex;
         }
-        int length = items.length;
+        return mConfigIndex;
+    }
+    private void addToConfigIndex(TypeBlock typeBlock){
+        Map<ResConfigKey, TypeBlock> map = typeBlock.isSparse() ? mSparseConfigIndex : mConfigIndex;
+        map.putIfAbsent(typeBlock.getResConfig().getKey(), typeBlock);
+        this.mIndexedChildes = getChildes();
+    }
+    private void buildConfigIndex(TypeBlock[] childes){
+        Map<ResConfigKey, TypeBlock> index = new HashMap<>();
+        Map<ResConfigKey, TypeBlock> sparseIndex = new HashMap<>();
+        int length = childes.length;
         for(int i = 0; i < length; i++){
-            TypeBlock typeBlock = items[i];
-            if(typeBlock == null || sparse != typeBlock.isSparse()){
+            TypeBlock typeBlock = childes[i];
+            if(typeBlock == null){
                 continue;
             }
-            if(config.equals(typeBlock.getResConfig())){
-                return typeBlock;
-            }
+            Map<ResConfigKey, TypeBlock> map = typeBlock.isSparse() ? sparseIndex : index;
+            // keep the first one, same as linear search
+            map.putIfAbsent(typeBlock.getResConfig().getKey(), typeBlock);
         }
-        return null;
+        this.mConfigIndex = index;
+        this.mSparseConfigIndex = sparseIndex;
+        this.mIndexedChildes = childes;
+    }
+    @Override
+    public void sort(Comparator<? super TypeBlock> comparator){
+        super.sort(comparator);
+        onResConfigChanged();
+    }
+    @Override
+    public void setItem(int index, TypeBlock item){
+        super.setItem(index, item);
+        onResConfigChanged();
     }
     public void setTypeId(byte id){
         this.mTypeId=id;
@@ -250,7 +325,7 @@ public class TypeBlockArray extends BlockArray<TypeBlock>
         });
     }
     public boolean hasDuplicateResConfig(boolean ignoreEmpty){
-        Set<Integer> uniqueHashSet = new HashSet<>();
+        Set<ResConfigKey> uniqueSet = new HashSet<>();
         Iterator<TypeBlock> itr;
         if(ignoreEmpty){
             itr = iteratorNonEmpty();
@@ -258,12 +333,9 @@ public class TypeBlockArray extends BlockArray<TypeBlock>
             itr = iterator(true);
         }
         while (itr.hasNext()){
-            Integer hash = itr.next()
-                    .getResConfig().hashCode();
-            if(uniqueHashSet.contains(hash)){
+            if(!uniqueSet.add(itr.next().getResConfig().getKey())){
                 return true;
             }
-            uniqueHashSet.add(hash);
         }
         return false;
     }
@@ -380,6 +452,13 @@ public class TypeBlockArray extends BlockArray<TypeBlock>
         }
         return jsonArray;
     }
+    public void writeJson(JSONWriter writer) {
+        writer.array();
+        for(TypeBlock typeBlock:listItems()){
+            typeBlock.writeJson(writer);
+        }
+        writer.endArray();
+    }
     @Override
     public void fromJson(JSONArray json) {
         if(json == null){
@@ -393,6 +472,36 @@ public class TypeBlockArray extends BlockArray<TypeBlock>
             typeBlock.fromJson(jsonObject);
         }
     }
+    /**
+     * Same as {@link #fromJson(JSONArray)} but reads types one by one. Types are written
+     * with {@link TypeBlock#NAME_is_sparse} as the first member, if it comes later the
+     * already read type is copied to a new sparse type.
+     * */
+    public void fromJson(JSONReader reader) {
+        reader.beginArray();
+        while (reader.hasNext()){
+            reader.beginObject();
+            boolean sparse = false;
+            if(TypeBlock.NAME_is_sparse.equals(reader.peekName())){
+                reader.nextName();
+                sparse = reader.nextBoolean();
+            }
+            TypeBlock typeBlock = createNext(sparse);
+            if(typeBlock.fromJsonMembers(reader) && !sparse){
+                toSparse(typeBlock);
+            }
+            reader.endObject();
+        }
+        reader.endArray();
+    }
+    private TypeBlock toSparse(TypeBlock typeBlock){
+        TypeBlock sparseBlock = createNext(true);
+        sparseBlock.getResConfig().copyFrom(typeBlock.getResConfig());
+        sparseBlock.merge(typeBlock);
+        remove(typeBlock);
+        typeBlock.destroy();
+        return sparseBlock;
+    }
     public void merge(TypeBlockArray typeBlockArray){
         if(typeBlockArray == null || typeBlockArray == this){
             return;
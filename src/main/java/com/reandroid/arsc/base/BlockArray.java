@@ -183,6 +183,24 @@ public abstract class BlockArray<T extends Block> extends BlockContainer<T> impl
             trimNullBlocks();
         }
     }
+    /**
+     * Replaces all childes at once without calling onIndexChanged of moved items,
+     * the caller is responsible to update anything depending on old indexes
+     * */
+    protected void replaceChildesInternal(T[] childes){
+        int length = childes.length;
+        for(int i = 0; i < length; i++){
+            T item = childes[i];
+            if(item.getIndex() != i){
+                item.setIndex(-1);
+                item.setIndex(i);
+            }
+            item.setParent(this);
+        }
+        mFreeSpace = 0;
+        mAllocateStep = 0;
+        elementData = childes;
+    }
     public void sort(Comparator<? super T> comparator){
         T[] elementData = this.elementData;
         if(comparator == null || elementData.length < 2){
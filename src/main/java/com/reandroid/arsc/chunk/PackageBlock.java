@@ -40,6 +40,8 @@ import com.reandroid.common.Namespace;
 import com.reandroid.json.JSONArray;
 import com.reandroid.json.JSONConvert;
 import com.reandroid.json.JSONObject;
+import com.reandroid.json.JSONReader;
+import com.reandroid.json.JSONWriter;
 import com.reandroid.utils.*;
 import com.reandroid.utils.collection.*;
 import com.reandroid.utils.io.IOUtil;
@@ -260,6 +262,15 @@ public class PackageBlock extends Chunk<PackageHeader>
             iterator.next().linkSpecStringsInternal(specStringPool);
         }
     }
+    public void buildIndexes(){
+        getTypeStringPool().ensureStringLinkUnlockedInternal();
+        getSpecStringPool().ensureStringLinkUnlockedInternal();
+        getPrefix();
+        Iterator<SpecTypePair> iterator = getSpecTypePairs();
+        while (iterator.hasNext()){
+            iterator.next().buildIndexes();
+        }
+    }
     public void destroy(){
         getPackageBody().destroy();
         getTypeStringPool().destroy();
@@ -675,6 +686,29 @@ public class PackageBlock extends Chunk<PackageHeader>
         }
         return jsonObject;
     }
+    public void writeJson(JSONWriter writer) {
+        writer.object();
+        writer.key(BuildInfo.NAME_arsc_lib_version).value(BuildInfo.getVersion());
+        writer.key(NAME_package_id).value(getId());
+        writer.key(NAME_package_name).value(getName());
+        writer.key(NAME_specs);
+        getSpecTypePairArray().writeJson(writer);
+        LibraryInfoArray libraryInfoArray = getLibraryBlock().getLibraryInfoArray();
+        if(libraryInfoArray.childesCount()>0){
+            writer.key(NAME_libraries).value(libraryInfoArray.toJson());
+        }
+        StagedAlias stagedAlias =
+                StagedAlias.mergeAll(getStagedAliasList().getChildes());
+        if(stagedAlias!=null){
+            writer.key(NAME_staged_aliases)
+                    .value(stagedAlias.getStagedAliasEntryArray().toJson());
+        }
+        JSONArray jsonArray = getOverlayableList().toJson();
+        if(jsonArray!=null){
+            writer.key(NAME_overlaybles).value(jsonArray);
+        }
+        writer.endObject();
+    }
     @Override
     public void fromJson(JSONObject json) {
         int id = json.optInt(NAME_package_id, 0);
@@ -698,6 +732,41 @@ public class PackageBlock extends Chunk<PackageHeader>
             getOverlayableList().fromJson(json.getJSONArray(NAME_overlaybles));
         }
     }
+    /**
+     * Same as {@link #fromJson(JSONObject)} but reads specs and types one by one
+     * */
+    public void fromJson(JSONReader reader) {
+        reader.beginObject();
+        while (reader.hasNext()){
+            String name = reader.nextName();
+            if(NAME_package_id.equals(name)){
+                int id = reader.nextInt();
+                if(id != 0){
+                    setId(id);
+                }
+            }else if(NAME_package_name.equals(name)){
+                String packageName = reader.nextString();
+                if(packageName != null){
+                    setName(packageName);
+                }
+            }else if(NAME_specs.equals(name) && reader.peek() == JSONReader.Token.BEGIN_ARRAY){
+                getSpecTypePairArray().fromJson(reader);
+            }else if(NAME_libraries.equals(name)){
+                getLibraryBlock().getLibraryInfoArray()
+                        .fromJson(reader.readJSONArray());
+            }else if(NAME_staged_aliases.equals(name)){
+                StagedAlias stagedAlias = new StagedAlias();
+                stagedAlias.getStagedAliasEntryArray()
+                        .fromJson(reader.readJSONArray());
+                getStagedAliasList().add(stagedAlias);
+            }else if(NAME_overlaybles.equals(name)){
+                getOverlayableList().fromJson(reader.readJSONArray());
+            }else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
     public void merge(PackageBlock packageBlock){
         if(packageBlock==null||packageBlock==this){
             return;
@@ -19,10 +19,12 @@ import com.reandroid.arsc.ApkFile;
 import com.reandroid.arsc.BuildInfo;
 import com.reandroid.arsc.array.PackageArray;
 import com.reandroid.arsc.model.ResourceEntry;
+import com.reandroid.arsc.model.ResolvedEntryCache;
 import com.reandroid.arsc.header.HeaderBlock;
 import com.reandroid.arsc.header.InfoHeader;
 import com.reandroid.arsc.header.TableHeader;
 import com.reandroid.arsc.io.BlockReader;
+import com.reandroid.arsc.item.TableString;
 import com.reandroid.arsc.pool.TableStringPool;
 import com.reandroid.arsc.value.*;
 import com.reandroid.common.BytesOutputStream;
@@ -30,6 +32,8 @@ import com.reandroid.common.ReferenceResolver;
 import com.reandroid.json.JSONConvert;
 import com.reandroid.json.JSONArray;
 import com.reandroid.json.JSONObject;
+import com.reandroid.json.JSONReader;
+import com.reandroid.json.JSONWriter;
 import com.reandroid.utils.collection.*;
 import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
@@ -45,6 +49,7 @@ public class TableBlock extends Chunk<TableHeader>
     private final List<TableBlock> mFrameWorks;
     private ApkFile mApkFile;
     private ReferenceResolver referenceResolver;
+    private ResolvedEntryCache mResolvedEntryCache;
     private PackageBlock mCurrentPackage;
 
     public TableBlock() {
@@ -456,20 +461,66 @@ public class TableBlock extends Chunk<TableHeader>
         return resolveReference(referenceId, null);
     }
     public List<Entry> resolveReferenceWithConfig(int referenceId, ResConfig resConfig){
-        ReferenceResolver resolver = this.referenceResolver;
-        if(resolver == null){
-            resolver = new ReferenceResolver(this);
-            this.referenceResolver = resolver;
+        return getReferenceResolver().resolveWithConfig(referenceId, resConfig);
+    }
+    /**
+     * Returns first of {@link #resolveReferenceWithConfig(int, ResConfig)}, the result is
+     * cached until this table is refreshed or its entries are edited
+     * */
+    public Entry resolveBestEntry(int referenceId, ResConfig resConfig){
+        return getResolvedEntryCache().resolve(referenceId, resConfig);
+    }
+    /**
+     * Same as {@link #resolveBestEntry(int, ResConfig)} for many ids, the returned array
+     * is aligned with the given ids
+     * */
+    public Entry[] resolveBestEntries(int[] referenceIds, ResConfig resConfig){
+        return getResolvedEntryCache().resolveAll(referenceIds, resConfig);
+    }
+    public ResolvedEntryCache getResolvedEntryCache(){
+        ResolvedEntryCache cache = this.mResolvedEntryCache;
+        if(cache == null){
+            synchronized (this){
+                cache = this.mResolvedEntryCache;
+                if(cache == null){
+                    cache = new ResolvedEntryCache(this, RESOLVED_CACHE_SIZE);
+                    this.mResolvedEntryCache = cache;
+                }
+            }
         }
-        return resolver.resolveWithConfig(referenceId, resConfig);
+        return cache;
     }
     public List<Entry> resolveReference(int referenceId, Predicate<Entry> filter){
+        return getReferenceResolver().resolveAll(referenceId, filter);
+    }
+    /**
+     * Returns resolver shared by all callers of this table, it is thread-safe
+     * */
+    public ReferenceResolver getReferenceResolver(){
         ReferenceResolver resolver = this.referenceResolver;
         if(resolver == null){
             resolver = new ReferenceResolver(this);
             this.referenceResolver = resolver;
         }
-        return resolver.resolveAll(referenceId, filter);
+        return resolver;
+    }
+    /**
+     * Read-only tables could be shared by multiple threads, e.g frameworks
+     * */
+    public boolean isReadOnly(){
+        return false;
+    }
+    /**
+     * Links strings and builds all lazily initialized indexes and caches at once, thus
+     * lookups afterwards only read them. Required before sharing this table across threads.
+     * */
+    public void buildIndexes(){
+        getStringPool().ensureStringLinkUnlockedInternal();
+        getReferenceResolver();
+        getResolvedEntryCache();
+        for(PackageBlock packageBlock : listPackages()){
+            packageBlock.buildIndexes();
+        }
     }
     public void destroy(){
         getPackageArray().destroy();
@@ -564,6 +615,17 @@ public class TableBlock extends Chunk<TableHeader>
     @Override
     protected void onChunkRefreshed() {
         refreshPackageCount();
+        onEntryChangedInternal();
+    }
+    /**
+     * Called when an entry is added or removed, its value changes or a type config
+     * changes, drops resolved entries cached by {@link #resolveBestEntry(int, ResConfig)}
+     * */
+    public void onEntryChangedInternal(){
+        ResolvedEntryCache cache = this.mResolvedEntryCache;
+        if(cache != null){
+            cache.clear();
+        }
     }
     @Override
     public void onReadBytes(BlockReader reader) throws IOException {
@@ -696,11 +758,58 @@ public class TableBlock extends Chunk<TableHeader>
         }
         return jsonObject;
     }
+    /**
+     * Writes the same structure as {@link #toJson()} entry by entry, without
+     * building the whole json tree in memory
+     * */
+    public void writeJson(JSONWriter writer) {
+        writer.object();
+        writer.key(BuildInfo.NAME_arsc_lib_version).value(BuildInfo.getVersion());
+        writer.key(NAME_packages);
+        getPackageArray().writeJson(writer);
+        boolean styledStarted = false;
+        for(TableString tableString : getStringPool().getStrings()){
+            if(tableString == null || !tableString.hasStyle()){
+                continue;
+            }
+            JSONObject jsonObject = tableString.toJson();
+            if(jsonObject == null){
+                continue;
+            }
+            if(!styledStarted){
+                writer.key(NAME_styled_strings);
+                writer.array();
+                styledStarted = true;
+            }
+            writer.value(jsonObject);
+        }
+        if(styledStarted){
+            writer.endArray();
+        }
+        writer.endObject();
+    }
     @Override
     public void fromJson(JSONObject json) {
         getPackageArray().fromJson(json.getJSONArray(NAME_packages));
         refresh();
     }
+    /**
+     * Same as {@link #fromJson(JSONObject)} but reads packages one by one, string pools
+     * are expected to be built before
+     * */
+    public void fromJson(JSONReader reader) {
+        reader.beginObject();
+        while (reader.hasNext()){
+            String name = reader.nextName();
+            if(NAME_packages.equals(name)){
+                getPackageArray().fromJson(reader);
+            }else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        refresh();
+    }
     public void merge(TableBlock tableBlock){
         if(tableBlock==null||tableBlock==this){
             return;
@@ -790,6 +899,7 @@ public class TableBlock extends Chunk<TableHeader>
     public static final String FILE_NAME_JSON = "resources.arsc.json";
 
     private static final String NAME_packages = "packages";
+    private static final int RESOLVED_CACHE_SIZE = 4096;
     public static final String NAME_styled_strings = "styled_strings";
 
     public static final String JSON_FILE_NAME = "resources.arsc.json";
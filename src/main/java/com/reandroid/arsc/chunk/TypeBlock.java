@@ -30,6 +30,8 @@ import com.reandroid.arsc.value.Entry;
 import com.reandroid.arsc.value.ResConfig;
 import com.reandroid.json.JSONConvert;
 import com.reandroid.json.JSONObject;
+import com.reandroid.json.JSONReader;
+import com.reandroid.json.JSONWriter;
 import com.reandroid.utils.collection.ComputeIterator;
 import com.reandroid.utils.collection.MergingIterator;
 
@@ -228,11 +230,15 @@ public class TypeBlock extends Chunk<TypeHeader>
         if(packageBlock == null){
             return null;
         }
-        int id = packageBlock.resolveResourceId(getId(), name);
-        if(id != 0){
-            id = id & 0xffff;
-        } else {
-            id = getParentSpecTypePair().getHighestEntryId() + 1;
+        SpecTypePair specTypePair = getParentSpecTypePair();
+        int id = specTypePair.getEntryIdByName(name);
+        if(id < 0){
+            id = packageBlock.resolveResourceId(getId(), name);
+            if(id != 0){
+                id = id & 0xffff;
+            } else {
+                id = specTypePair.getHighestEntryId() + 1;
+            }
         }
 
         SpecStringPool stringPool = packageBlock.getSpecStringPool();
@@ -325,6 +331,18 @@ public class TypeBlock extends Chunk<TypeHeader>
         jsonObject.put(NAME_entries, getEntryArray().toJson());
         return jsonObject;
     }
+    public void writeJson(JSONWriter writer) {
+        writer.object();
+        if(isSparse()){
+            writer.key(NAME_is_sparse).value(true);
+        }
+        writer.key(NAME_id).value(getId());
+        writer.key(NAME_name).value(getTypeName());
+        writer.key(NAME_config).value(getResConfig().toJson());
+        writer.key(NAME_entries);
+        getEntryArray().writeJson(writer);
+        writer.endObject();
+    }
     @Override
     public void fromJson(JSONObject json) {
         setId(json.getInt(NAME_id));
@@ -337,6 +355,39 @@ public class TypeBlock extends Chunk<TypeHeader>
         getResConfig()
                 .fromJson(json.getJSONObject(NAME_config));
     }
+    public void fromJson(JSONReader reader) {
+        reader.beginObject();
+        fromJsonMembers(reader);
+        reader.endObject();
+    }
+    /**
+     * Reads members of type json object, the reader should be positioned after the
+     * beginning of the object. {@link #NAME_is_sparse} can not be changed after creation
+     * of this block thus its value is only returned (false if absent).
+     * */
+    public boolean fromJsonMembers(JSONReader reader) {
+        boolean sparse = false;
+        while (reader.hasNext()){
+            String name = reader.nextName();
+            if(NAME_is_sparse.equals(name)){
+                sparse = reader.nextBoolean();
+            }else if(NAME_id.equals(name)){
+                setId(reader.nextInt());
+            }else if(NAME_name.equals(name)){
+                String typeName = reader.nextString();
+                if(typeName != null){
+                    setTypeName(typeName);
+                }
+            }else if(NAME_config.equals(name)){
+                getResConfig().fromJson(reader.readJSONObject());
+            }else if(NAME_entries.equals(name)){
+                getEntryArray().fromJson(reader);
+            }else {
+                reader.skipValue();
+            }
+        }
+        return sparse;
+    }
     public void merge(TypeBlock typeBlock){
         if(typeBlock==null||typeBlock==this){
             return;
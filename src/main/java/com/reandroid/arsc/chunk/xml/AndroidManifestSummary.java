@@ -0,0 +1,303 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.arsc.chunk.xml;
+
+import com.reandroid.arsc.value.ValueType;
+import com.reandroid.utils.io.IOUtil;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable summary of binary AndroidManifest.xml, read in one pass by
+ * {@link ResXmlStreamParser} without building {@link AndroidManifestBlock}.
+ * Values are the same as the respective getters of {@link AndroidManifestBlock},
+ * component names are expanded by {@link AndroidManifestBlock#fullClassName(String)} rule.
+ * */
+public class AndroidManifestSummary {
+    private final String packageName;
+    private final Integer versionCode;
+    private final String versionName;
+    private final Integer minSdkVersion;
+    private final Integer targetSdkVersion;
+    private final List<String> usesPermissions;
+    private final List<String> activities;
+    private final List<String> activityAliases;
+    private final List<String> services;
+    private final List<String> receivers;
+    private final List<String> providers;
+
+    private AndroidManifestSummary(Reader reader){
+        this.packageName = reader.packageName;
+        this.versionCode = reader.versionCode;
+        this.versionName = reader.versionName;
+        this.minSdkVersion = reader.minSdkVersion;
+        this.targetSdkVersion = reader.targetSdkVersion;
+        this.usesPermissions = unmodifiable(reader.usesPermissions);
+        this.activities = unmodifiable(reader.activities);
+        this.activityAliases = unmodifiable(reader.activityAliases);
+        this.services = unmodifiable(reader.services);
+        this.receivers = unmodifiable(reader.receivers);
+        this.providers = unmodifiable(reader.providers);
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+    public Integer getVersionCode() {
+        return versionCode;
+    }
+    public String getVersionName() {
+        return versionName;
+    }
+    public Integer getMinSdkVersion() {
+        return minSdkVersion;
+    }
+    public Integer getTargetSdkVersion() {
+        return targetSdkVersion;
+    }
+    public List<String> getUsesPermissions() {
+        return usesPermissions;
+    }
+    public List<String> getActivities() {
+        return activities;
+    }
+    public List<String> getActivityAliases() {
+        return activityAliases;
+    }
+    public List<String> getServices() {
+        return services;
+    }
+    public List<String> getReceivers() {
+        return receivers;
+    }
+    public List<String> getProviders() {
+        return providers;
+    }
+    @Override
+    public String toString(){
+        StringBuilder builder = new StringBuilder();
+        builder.append("{");
+        builder.append(AndroidManifestBlock.NAME_PACKAGE).append("=").append(getPackageName());
+        builder.append(", ").append(AndroidManifestBlock.NAME_versionCode).append("=").append(getVersionCode());
+        builder.append(", ").append(AndroidManifestBlock.NAME_versionName).append("=").append(getVersionName());
+        builder.append(", ").append(AndroidManifestBlock.NAME_minSdkVersion).append("=").append(getMinSdkVersion());
+        builder.append(", ").append(AndroidManifestBlock.NAME_targetSdkVersion).append("=").append(getTargetSdkVersion());
+        builder.append(", PERMISSIONS").append(getUsesPermissions());
+        builder.append(", activities=").append(getActivities().size());
+        builder.append(", services=").append(getServices().size());
+        builder.append(", receivers=").append(getReceivers().size());
+        builder.append(", providers=").append(getProviders().size());
+        builder.append("}");
+        return builder.toString();
+    }
+
+    public static AndroidManifestSummary read(byte[] bytes) throws IOException {
+        ResXmlStreamParser parser = new ResXmlStreamParser();
+        try {
+            parser.setInput(bytes);
+            return read(parser);
+        } catch (XmlPullParserException exception) {
+            throw toIOException(exception);
+        } finally {
+            parser.close();
+        }
+    }
+    public static AndroidManifestSummary read(InputStream inputStream) throws IOException {
+        ResXmlStreamParser parser = new ResXmlStreamParser();
+        try {
+            parser.setInput(inputStream, null);
+            return read(parser);
+        } catch (XmlPullParserException exception) {
+            throw toIOException(exception);
+        } finally {
+            parser.close();
+        }
+    }
+    public static AndroidManifestSummary read(File file) throws IOException {
+        InputStream inputStream = new FileInputStream(file);
+        try {
+            return read(inputStream);
+        } finally {
+            IOUtil.close(inputStream);
+        }
+    }
+    /**
+     * Reads from the current position of the parser, the parser is left at END_DOCUMENT
+     * */
+    public static AndroidManifestSummary read(ResXmlStreamParser parser) throws IOException {
+        Reader reader = new Reader(parser);
+        try {
+            reader.read();
+        } catch (XmlPullParserException exception) {
+            throw toIOException(exception);
+        }
+        return new AndroidManifestSummary(reader);
+    }
+    private static List<String> unmodifiable(List<String> list){
+        if(list.isEmpty()){
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(list);
+    }
+    private static IOException toIOException(XmlPullParserException exception){
+        IOException ioException = new IOException(exception.getMessage());
+        ioException.initCause(exception);
+        return ioException;
+    }
+
+    static class Reader {
+        private final ResXmlStreamParser parser;
+        String packageName;
+        Integer versionCode;
+        String versionName;
+        Integer minSdkVersion;
+        Integer targetSdkVersion;
+        final List<String> usesPermissions = new ArrayList<>();
+        final List<String> activities = new ArrayList<>();
+        final List<String> activityAliases = new ArrayList<>();
+        final List<String> services = new ArrayList<>();
+        final List<String> receivers = new ArrayList<>();
+        final List<String> providers = new ArrayList<>();
+        private boolean usesSdkFound;
+        private boolean applicationFound;
+
+        Reader(ResXmlStreamParser parser){
+            this.parser = parser;
+        }
+        void read() throws XmlPullParserException {
+            ResXmlStreamParser parser = this.parser;
+            int event = parser.next();
+            while (event != XmlPullParser.END_DOCUMENT){
+                if(event == XmlPullParser.START_TAG){
+                    if(!onStartTag(parser.getDepth(), parser.getName())){
+                        parser.skipSubTree();
+                    }
+                }
+                event = parser.next();
+            }
+        }
+        /**
+         * Returns false if the subtree has nothing to read
+         * */
+        private boolean onStartTag(int depth, String tag){
+            if(depth == 1){
+                if(!AndroidManifestBlock.TAG_manifest.equals(tag)){
+                    return false;
+                }
+                readManifest();
+                return true;
+            }
+            if(depth == 2){
+                if(AndroidManifestBlock.TAG_application.equals(tag)){
+                    if(applicationFound){
+                        return false;
+                    }
+                    applicationFound = true;
+                    return true;
+                }
+                if(AndroidManifestBlock.TAG_uses_permission.equals(tag)){
+                    add(usesPermissions, getString(AndroidManifestBlock.ID_name));
+                }else if(AndroidManifestBlock.TAG_uses_sdk.equals(tag) && !usesSdkFound){
+                    usesSdkFound = true;
+                    minSdkVersion = getDecimal(AndroidManifestBlock.ID_minSdkVersion);
+                    targetSdkVersion = getDecimal(AndroidManifestBlock.ID_targetSdkVersion);
+                }
+                return false;
+            }
+            List<String> components = getComponentList(tag);
+            if(components != null){
+                add(components, fullClassName(getString(AndroidManifestBlock.ID_name)));
+            }
+            return false;
+        }
+        private void readManifest(){
+            ResXmlStreamParser parser = this.parser;
+            int count = parser.getRawAttributeCount();
+            for(int i = 0; i < count; i++){
+                if(parser.getRawAttributeNameResource(i) == 0
+                        && AndroidManifestBlock.NAME_PACKAGE.equals(parser.getRawAttributeName(i))){
+                    packageName = getString(i, ValueType.STRING);
+                    break;
+                }
+            }
+            versionCode = getDecimal(AndroidManifestBlock.ID_versionCode);
+            versionName = getString(AndroidManifestBlock.ID_versionName);
+        }
+        private List<String> getComponentList(String tag){
+            if(AndroidManifestBlock.TAG_activity.equals(tag)){
+                return activities;
+            }
+            if(AndroidManifestBlock.TAG_activity_alias.equals(tag)){
+                return activityAliases;
+            }
+            if(AndroidManifestBlock.TAG_service.equals(tag)){
+                return services;
+            }
+            if(AndroidManifestBlock.TAG_receiver.equals(tag)){
+                return receivers;
+            }
+            if(AndroidManifestBlock.TAG_provider.equals(tag)){
+                return providers;
+            }
+            return null;
+        }
+        private String fullClassName(String name){
+            if(name == null || !name.startsWith(".") || packageName == null){
+                return name;
+            }
+            return packageName + name;
+        }
+        private String getString(int resourceId){
+            return getString(indexOf(resourceId), ValueType.STRING);
+        }
+        private String getString(int index, ValueType valueType){
+            if(index < 0 || parser.getRawAttributeValueType(index) != (valueType.getByte() & 0xff)){
+                return null;
+            }
+            return parser.getString(parser.getRawAttributeValueData(index));
+        }
+        private Integer getDecimal(int resourceId){
+            int index = indexOf(resourceId);
+            if(index < 0 || parser.getRawAttributeValueType(index) != (ValueType.DEC.getByte() & 0xff)){
+                return null;
+            }
+            return parser.getRawAttributeValueData(index);
+        }
+        private int indexOf(int resourceId){
+            ResXmlStreamParser parser = this.parser;
+            int count = parser.getRawAttributeCount();
+            for(int i = 0; i < count; i++){
+                if(parser.getRawAttributeNameResource(i) == resourceId){
+                    return i;
+                }
+            }
+            return -1;
+        }
+        private static void add(List<String> list, String value){
+            if(value != null){
+                list.add(value);
+            }
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package com.reandroid.arsc.chunk.xml;
 
+import com.reandroid.arsc.array.ResXmlAttributeArray;
+import com.reandroid.arsc.base.Block;
 import com.reandroid.arsc.chunk.PackageBlock;
 import com.reandroid.arsc.coder.*;
 import com.reandroid.arsc.model.ResourceEntry;
@@ -338,6 +340,13 @@ public class ResXmlAttribute extends AttributeValue implements Comparable<ResXml
         putInteger(getBytesInternal(), OFFSET_NAME, ref);
         mNameReference = link(OFFSET_NAME);
         linkNameId();
+        onNameChanged();
+    }
+    private void onNameChanged(){
+        Block parent = getParent();
+        if(parent instanceof ResXmlAttributeArray){
+            ((ResXmlAttributeArray) parent).onAttributeNameChanged(this);
+        }
     }
     int getValueStringReference(){
         return getInteger(getBytesInternal(), OFFSET_STRING);
@@ -370,6 +379,7 @@ public class ResXmlAttribute extends AttributeValue implements Comparable<ResXml
         super.onDataLoaded();
         linkAll();
         linkStartNameSpace();
+        onNameChanged();
     }
     @Override
     public void onRemoved(){
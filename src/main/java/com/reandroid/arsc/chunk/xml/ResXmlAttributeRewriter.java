@@ -0,0 +1,307 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.arsc.chunk.xml;
+
+import com.reandroid.arsc.base.Block;
+import com.reandroid.arsc.chunk.ChunkType;
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.io.BlockReader;
+import com.reandroid.arsc.item.ResXmlID;
+import com.reandroid.arsc.value.ValueType;
+import com.reandroid.utils.collection.CollectionUtil;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Applies a set of attribute value substitutions to binary xml documents. Substitutions
+ * that keep the document size (replacing type/data, changing package id) are written
+ * directly to the attribute records and resource map of the chunk bytes, only documents
+ * having attributes to remove are loaded as {@link ResXmlDocument} and rebuilt.
+ * <br />
+ * Rules are tried in the order added and the first matching rule is applied. Attribute
+ * name id 0 matches any attribute. String values are not supported since their data
+ * is an index to the pool of each document.
+ * <br />
+ * Once configured, an instance can be used concurrently.
+ * */
+public class ResXmlAttributeRewriter {
+    private final List<Rule> mRules;
+    private boolean mHasRemove;
+    private int mPackageIdOld;
+    private int mPackageIdNew;
+
+    public ResXmlAttributeRewriter(){
+        this.mRules = new ArrayList<>();
+        this.mPackageIdOld = -1;
+    }
+
+    public ResXmlAttributeRewriter replace(int nameResourceId, ValueType valueType, int data,
+                                           ValueType newValueType, int newData){
+        checkType(valueType);
+        checkType(newValueType);
+        mRules.add(new Rule(RULE_REPLACE, nameResourceId, valueType.getByte() & 0xff, data,
+                newValueType.getByte() & 0xff, newData));
+        return this;
+    }
+    /**
+     * Same as {@link PackageBlock#changePackageId(int, int)} applied to xml files, reference
+     * values and attribute name ids of the old package id are moved to the new package id
+     * */
+    public ResXmlAttributeRewriter changePackageId(int packageIdOld, int packageIdNew){
+        if(this.mPackageIdOld >= 0){
+            throw new IllegalArgumentException("Package id change already set: "
+                    + mPackageIdOld + " -> " + mPackageIdNew);
+        }
+        this.mPackageIdOld = packageIdOld;
+        this.mPackageIdNew = packageIdNew;
+        mRules.add(new Rule(RULE_PACKAGE_ID, 0, 0, 0, 0, 0));
+        return this;
+    }
+    public ResXmlAttributeRewriter remove(int nameResourceId){
+        if(nameResourceId == 0){
+            throw new IllegalArgumentException("Can not remove attributes without id");
+        }
+        mRules.add(new Rule(RULE_REMOVE, nameResourceId, -1, 0, 0, 0));
+        mHasRemove = true;
+        return this;
+    }
+    public boolean isEmpty(){
+        return mRules.isEmpty();
+    }
+
+    /**
+     * Rewrites a copy of binary xml bytes, returns null if nothing changed otherwise the
+     * rewritten bytes. The given array is not modified.
+     * */
+    public byte[] rewrite(byte[] bytes) throws IOException {
+        if(isEmpty() || !isXml(bytes)){
+            return null;
+        }
+        return rewriteInPlace(bytes.clone());
+    }
+    /**
+     * Rewrites binary xml bytes, returns null if nothing changed, the same array if
+     * changed in place or new bytes if the document needed to be rebuilt.
+     * The given array may be modified even if new bytes are returned.
+     * */
+    public byte[] rewriteInPlace(byte[] bytes) throws IOException {
+        if(isEmpty() || !isXml(bytes)){
+            return null;
+        }
+        if(mHasRemove && scan(bytes, false) != 0){
+            ResXmlDocument document = new ResXmlDocument();
+            document.readBytes(new BlockReader(bytes));
+            if(rewrite(document) == 0){
+                return null;
+            }
+            document.refresh();
+            return document.getBytes();
+        }
+        if(scan(bytes, true) == 0){
+            return null;
+        }
+        return bytes;
+    }
+    /**
+     * Rewrites loaded document, returns number of changes. The document is not refreshed.
+     * */
+    public int rewrite(ResXmlDocument document){
+        if(isEmpty()){
+            return 0;
+        }
+        int count = 0;
+        List<ResXmlElement> elementList = CollectionUtil.toList(document.recursiveElements());
+        for(ResXmlElement element : elementList){
+            List<ResXmlAttribute> removeList = null;
+            Iterator<ResXmlAttribute> iterator = element.getAttributes();
+            while (iterator.hasNext()){
+                ResXmlAttribute attribute = iterator.next();
+                int type = attribute.getType() & 0xff;
+                Rule rule = findRule(attribute.getNameResourceID(), type, attribute.getData());
+                if(rule == null){
+                    continue;
+                }
+                if(rule.kind == RULE_REMOVE){
+                    if(removeList == null){
+                        removeList = new ArrayList<>();
+                    }
+                    removeList.add(attribute);
+                }else if(rule.kind == RULE_REPLACE){
+                    attribute.setTypeAndData(ValueType.valueOf(rule.newType), rule.newData);
+                }else {
+                    attribute.setData(changePackageId(attribute.getData()));
+                }
+                count ++;
+            }
+            if(removeList != null){
+                for(ResXmlAttribute attribute : removeList){
+                    element.removeAttribute(attribute);
+                }
+            }
+        }
+        if(mPackageIdOld >= 0){
+            ResXmlIDMap xmlIDMap = document.getResXmlIDMap();
+            for(ResXmlID xmlID : xmlIDMap.listResXmlID()){
+                int resourceId = xmlID.get();
+                int update = PackageBlock.replacePackageId(resourceId, mPackageIdOld, mPackageIdNew);
+                if(update != resourceId){
+                    xmlID.set(update);
+                    count ++;
+                }
+            }
+        }
+        return count;
+    }
+    /**
+     * Walks start element chunks, if apply is false counts attributes to remove
+     * otherwise applies non-remove rules in place and counts changes
+     * */
+    private int scan(byte[] bytes, boolean apply){
+        int end = Math.min(Block.getInteger(bytes, 4), bytes.length);
+        int position = Block.getShort(bytes, 2) & 0xffff;
+        int mapStart = 0;
+        int mapCount = 0;
+        int count = 0;
+        while (position + 8 <= end){
+            int type = Block.getShort(bytes, position) & 0xffff;
+            int headerSize = Block.getShort(bytes, position + 2) & 0xffff;
+            int size = Block.getInteger(bytes, position + 4);
+            if(size < 8 || size > end - position){
+                break;
+            }
+            if(type == (ChunkType.XML_RESOURCE_MAP.ID & 0xffff)){
+                mapStart = position + headerSize;
+                mapCount = (size - headerSize) / 4;
+            }else if(type == (ChunkType.XML_START_ELEMENT.ID & 0xffff)){
+                count += scanAttributes(bytes, position + headerSize, mapStart, mapCount, apply);
+            }
+            position += size;
+        }
+        if(apply && mPackageIdOld >= 0){
+            for(int i = 0; i < mapCount; i++){
+                int offset = mapStart + i * 4;
+                int resourceId = Block.getInteger(bytes, offset);
+                int update = PackageBlock.replacePackageId(resourceId, mPackageIdOld, mPackageIdNew);
+                if(update != resourceId){
+                    Block.putInteger(bytes, offset, update);
+                    count ++;
+                }
+            }
+        }
+        return count;
+    }
+    private int scanAttributes(byte[] bytes, int extension, int mapStart, int mapCount, boolean apply){
+        int start = extension + (Block.getShort(bytes, extension + 8) & 0xffff);
+        int unitSize = Block.getShort(bytes, extension + 10) & 0xffff;
+        int attributeCount = Block.getShort(bytes, extension + 12) & 0xffff;
+        int count = 0;
+        for(int i = 0; i < attributeCount; i++){
+            int offset = start + i * unitSize;
+            if(offset + 20 > bytes.length){
+                break;
+            }
+            int nameReference = Block.getInteger(bytes, offset + 4);
+            int resourceId = 0;
+            if(nameReference >= 0 && nameReference < mapCount){
+                resourceId = Block.getInteger(bytes, mapStart + nameReference * 4);
+            }
+            int type = bytes[offset + 15] & 0xff;
+            int data = Block.getInteger(bytes, offset + 16);
+            Rule rule = findRule(resourceId, type, data);
+            if(rule == null){
+                continue;
+            }
+            if(!apply){
+                if(rule.kind == RULE_REMOVE){
+                    count ++;
+                }
+                continue;
+            }
+            if(rule.kind == RULE_REPLACE){
+                bytes[offset + 15] = (byte) rule.newType;
+                Block.putInteger(bytes, offset + 16, rule.newData);
+            }else if(rule.kind == RULE_PACKAGE_ID){
+                Block.putInteger(bytes, offset + 16, changePackageId(data));
+            }
+            count ++;
+        }
+        return count;
+    }
+    private Rule findRule(int resourceId, int type, int data){
+        List<Rule> rules = this.mRules;
+        int size = rules.size();
+        for(int i = 0; i < size; i++){
+            Rule rule = rules.get(i);
+            if(rule.kind == RULE_PACKAGE_ID){
+                if(isReference(type) && changePackageId(data) != data){
+                    return rule;
+                }
+                continue;
+            }
+            if(rule.nameId != 0 && rule.nameId != resourceId){
+                continue;
+            }
+            if(rule.kind == RULE_REMOVE){
+                return rule;
+            }
+            if(rule.type == type && rule.data == data){
+                return rule;
+            }
+        }
+        return null;
+    }
+    private int changePackageId(int resourceId){
+        return PackageBlock.replacePackageId(resourceId, mPackageIdOld, mPackageIdNew);
+    }
+    private static boolean isReference(int type){
+        ValueType valueType = ValueType.valueOf(type);
+        return valueType != null && valueType.isReference();
+    }
+    private static boolean isXml(byte[] bytes){
+        return bytes != null && bytes.length >= 8
+                && (Block.getShort(bytes, 0) & 0xffff) == (ChunkType.XML.ID & 0xffff);
+    }
+    private static void checkType(ValueType valueType){
+        if(valueType == null || valueType == ValueType.STRING){
+            throw new IllegalArgumentException("Unsupported value type: " + valueType);
+        }
+    }
+
+    static class Rule {
+        final int kind;
+        final int nameId;
+        final int type;
+        final int data;
+        final int newType;
+        final int newData;
+
+        Rule(int kind, int nameId, int type, int data, int newType, int newData){
+            this.kind = kind;
+            this.nameId = nameId;
+            this.type = type;
+            this.data = data;
+            this.newType = newType;
+            this.newData = newData;
+        }
+    }
+
+    private static final int RULE_REPLACE = 0;
+    private static final int RULE_PACKAGE_ID = 1;
+    private static final int RULE_REMOVE = 2;
+}
@@ -0,0 +1,1039 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.arsc.chunk.xml;
+
+import com.reandroid.arsc.array.ResXmlIDArray;
+import com.reandroid.arsc.array.StringArray;
+import com.reandroid.arsc.base.Block;
+import com.reandroid.arsc.chunk.ChunkType;
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.ParentChunk;
+import com.reandroid.arsc.coder.EncodeResult;
+import com.reandroid.arsc.coder.ValueCoder;
+import com.reandroid.arsc.coder.XmlSanitizer;
+import com.reandroid.arsc.item.ResXmlString;
+import com.reandroid.arsc.model.ResourceEntry;
+import com.reandroid.arsc.model.ResourceLibrary;
+import com.reandroid.arsc.pool.ResXmlStringPool;
+import com.reandroid.arsc.value.Value;
+import com.reandroid.arsc.value.ValueType;
+import com.reandroid.utils.StringsUtil;
+import com.reandroid.utils.io.IOUtil;
+import com.reandroid.xml.XMLFactory;
+import com.reandroid.xml.XMLUtil;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Compiles text xml to binary xml bytes without building {@link ResXmlElement} tree.
+ * The first pass reads parser events into flat int tables while collecting the string pool
+ * and {@link ResXmlIDMap} exactly the way {@link ResXmlDocument#parse(XmlPullParser)} does,
+ * the second pass writes the chunk bytes. The result is byte-identical to
+ * {@link ResXmlDocument#parse(XmlPullParser)} followed by {@link ResXmlDocument#getBytes()}
+ * for parsers reporting each text run as one event (e.g. parsers of {@link XMLFactory}).
+ * <br />
+ * Tables are reused between calls, thus an instance is not thread safe.
+ * */
+public class ResXmlCompiler {
+    private PackageBlock packageBlock;
+    private final ValueOutput valueOutput;
+
+    private String[] mStrings;
+    private final IntTable mStringTable;
+    private final Map<String, int[]> mUniqueStrings;
+    private int mPositionCount;
+
+    private final IntTable mIdTable;
+    private final Map<Integer, Integer> mIdSlots;
+
+    private final IntTable mNamespaceTable;
+    private final IntTable mElementTable;
+    private final IntTable mAttributeTable;
+    private final IntTable mTextTable;
+    private final IntTable mNodes;
+
+    public ResXmlCompiler(PackageBlock packageBlock){
+        this.packageBlock = packageBlock;
+        this.valueOutput = new ValueOutput();
+        this.mStrings = new String[64];
+        this.mStringTable = new IntTable(S_COLUMNS);
+        this.mUniqueStrings = new HashMap<>();
+        this.mIdTable = new IntTable(ID_COLUMNS);
+        this.mIdSlots = new HashMap<>();
+        this.mNamespaceTable = new IntTable(NS_COLUMNS);
+        this.mElementTable = new IntTable(E_COLUMNS);
+        this.mAttributeTable = new IntTable(A_COLUMNS);
+        this.mTextTable = new IntTable(T_COLUMNS);
+        this.mNodes = new IntTable(1);
+    }
+    public ResXmlCompiler(){
+        this(null);
+    }
+
+    public PackageBlock getPackageBlock(){
+        return packageBlock;
+    }
+    public void setPackageBlock(PackageBlock packageBlock){
+        this.packageBlock = packageBlock;
+    }
+    public byte[] compile(File xmlFile) throws IOException {
+        XmlPullParser parser;
+        try {
+            parser = XMLFactory.newPullParser(xmlFile);
+        } catch (XmlPullParserException ex) {
+            throw new IOException(ex);
+        }
+        try {
+            return compile(parser);
+        } catch (XmlPullParserException ex) {
+            throw new IOException(ex);
+        } finally {
+            IOUtil.close(parser);
+        }
+    }
+    public byte[] compile(XmlPullParser parser) throws IOException, XmlPullParserException {
+        if(packageBlock == null){
+            throw new IOException("Can not decode without package");
+        }
+        try {
+            int event = parser.getEventType();
+            if(event == XmlPullParser.START_DOCUMENT){
+                event = parser.next();
+            }
+            while (event != XmlPullParser.START_TAG && event != XmlPullParser.END_DOCUMENT){
+                event = parser.next();
+            }
+            if(event == XmlPullParser.START_TAG){
+                parseElement(parser, -1);
+            }
+            return build();
+        } finally {
+            clear();
+        }
+    }
+
+    private int parseElement(XmlPullParser parser, int parent) throws IOException, XmlPullParserException {
+        if(parser.getEventType() != XmlPullParser.START_TAG){
+            throw new XmlPullParserException("Invalid state START_TAG != "
+                    + parser.getEventType());
+        }
+        IntTable elements = mElementTable;
+        int element = elements.add();
+        elements.set(element, E_PARENT, parent);
+        elements.set(element, E_URI, -1);
+        elements.set(element, E_LINKED_NAMESPACE, -1);
+        elements.set(element, E_COMMENT, -1);
+        elements.set(element, E_LINE, parser.getLineNumber());
+
+        String name = parser.getName();
+        String prefix = ResXmlElement.splitPrefix(name);
+        name = ResXmlElement.splitName(name);
+        setElementName(element, name);
+        String uri = parser.getNamespace();
+        if(prefix == null){
+            prefix = parser.getPrefix();
+        }
+        parseNamespaces(parser, element);
+        parseAttributes(parser, element);
+        mNodes.set(mNodes.add(), 0, element << 2 | NODE_START);
+        parseChildes(parser, element);
+        if(prefix != null){
+            if(uri == null || uri.length() == 0){
+                int namespace = findNamespaceByPrefix(element, prefix);
+                if(namespace >= 0){
+                    uri = getNamespaceUri(namespace);
+                }
+            }
+            setTagNamespace(element, uri, prefix);
+        }
+        elements.set(element, E_END_LINE, parser.getLineNumber());
+        mNodes.set(mNodes.add(), 0, element << 2 | NODE_END);
+        return element;
+    }
+    private void setElementName(int element, String name){
+        int i = name.lastIndexOf(':');
+        String prefix = null;
+        if(i >= 0){
+            prefix = name.substring(0, i);
+            name = name.substring(i + 1);
+        }
+        IntTable elements = mElementTable;
+        int start = getOrCreate(name);
+        elements.set(element, E_NAME, start);
+        addReference(start);
+        int end = getOrCreate(name);
+        elements.set(element, E_END_NAME, end);
+        addReference(end);
+        if(prefix == null || prefix.trim().length() == 0){
+            return;
+        }
+        int namespace = findNamespaceByPrefix(element, prefix);
+        if(namespace < 0){
+            String uri;
+            if(ResourceLibrary.PREFIX_ANDROID.equals(prefix)){
+                uri = ResourceLibrary.URI_ANDROID;
+            }else {
+                uri = ResourceLibrary.URI_RES_AUTO;
+            }
+            namespace = getOrCreateNamespace(element, uri, prefix);
+        }
+        setElementUri(element, mNamespaceTable.get(namespace, NS_URI));
+    }
+    private void parseNamespaces(XmlPullParser parser, int element) throws XmlPullParserException {
+        int count = parser.getNamespaceCount(parser.getDepth());
+        for(int i = 0; i < count; i++){
+            int namespace = createNamespace(element,
+                    parser.getNamespaceUri(i),
+                    parser.getNamespacePrefix(i));
+            mNamespaceTable.set(namespace, NS_LINE, parser.getLineNumber());
+        }
+        count = parser.getAttributeCount();
+        for(int i = 0; i < count; i++){
+            String name = parser.getAttributeName(i);
+            String prefix = ResXmlElement.splitPrefix(name);
+            name = ResXmlElement.splitName(name);
+            String value = parser.getAttributeValue(i);
+            if(ResXmlElement.looksNamespace(value, prefix)){
+                getOrCreateNamespace(element, value, name);
+            }
+        }
+    }
+    private void parseAttributes(XmlPullParser parser, int element) throws IOException {
+        IntTable elements = mElementTable;
+        int start = mAttributeTable.size();
+        elements.set(element, E_ATTRIBUTE_START, start);
+        int count = parser.getAttributeCount();
+        for(int i = 0; i < count; i++){
+            String name = parser.getAttributeName(i);
+            String prefix = ResXmlElement.splitPrefix(name);
+            name = ResXmlElement.splitName(name);
+            String value = parser.getAttributeValue(i);
+            if(ResXmlElement.looksNamespace(value, prefix)){
+                continue;
+            }
+            if(prefix == null){
+                prefix = parser.getAttributePrefix(i);
+                if(prefix != null && prefix.length() == 0){
+                    prefix = null;
+                }
+            }
+            String uri;
+            if(prefix != null){
+                uri = parser.getAttributeNamespace(i);
+                if(uri.length() == 0){
+                    int namespace = findNamespaceByPrefix(element, prefix);
+                    if(namespace >= 0){
+                        uri = getNamespaceUri(namespace);
+                    }
+                }
+            }else {
+                uri = null;
+            }
+            encodeAttribute(element, uri, prefix, name, value);
+        }
+        elements.set(element, E_ATTRIBUTE_COUNT, mAttributeTable.size() - start);
+    }
+    private void parseChildes(XmlPullParser parser, int element) throws IOException, XmlPullParserException {
+        int currentElement = element;
+        int text = -1;
+        String indentText = null;
+        int event = parser.next();
+        while (event != XmlPullParser.END_TAG && event != XmlPullParser.END_DOCUMENT){
+            if(event == XmlPullParser.START_TAG){
+                text = -1;
+                currentElement = parseElement(parser, element);
+            }else if(ResXmlTextNode.isTextEvent(event)){
+                IntTable texts = mTextTable;
+                if(text < 0){
+                    text = texts.add();
+                    texts.set(text, T_STRING, -1);
+                    mNodes.set(mNodes.add(), 0, text << 2 | NODE_TEXT);
+                    indentText = null;
+                }
+                texts.set(text, T_LINE, parser.getLineNumber());
+                String str;
+                if(event == XmlPullParser.ENTITY_REF){
+                    str = ResXmlTextNode.decodeEntityRef(parser.getText());
+                }else {
+                    str = XmlSanitizer.unEscapeUnQuote(parser.getText());
+                }
+                int exist = texts.get(text, T_STRING);
+                String existText = exist < 0 ? null : mStrings[exist];
+                if(existText == null || existText.length() == 0){
+                    existText = indentText;
+                }
+                if(existText == null && ResXmlTextNode.isIndent(str)){
+                    indentText = str;
+                }else {
+                    if(existText != null){
+                        str = existText + str;
+                    }
+                    int string = getOrCreate(str);
+                    if(string != exist){
+                        removeReference(exist);
+                        texts.set(text, T_STRING, string);
+                        addReference(string);
+                    }
+                    indentText = null;
+                }
+            }else if(event == XmlPullParser.COMMENT){
+                setComment(currentElement, parser.getText());
+            }
+            event = parser.next();
+        }
+    }
+    private void setComment(int element, String comment){
+        IntTable elements = mElementTable;
+        int exist = elements.get(element, E_COMMENT);
+        int string;
+        if(comment == null || comment.length() == 0){
+            string = -1;
+        }else {
+            if(exist >= 0 && comment.equals(mStrings[exist])){
+                return;
+            }
+            string = getOrCreate(comment);
+        }
+        if(string == exist){
+            return;
+        }
+        removeReference(exist);
+        elements.set(element, E_COMMENT, string);
+        addReference(string);
+    }
+    private void setTagNamespace(int element, String uri, String prefix){
+        IntTable elements = mElementTable;
+        int linked = elements.get(element, E_LINKED_NAMESPACE);
+        if(linked >= 0){
+            mNamespaceTable.add(linked, NS_REFERENCES, -1);
+            elements.set(element, E_LINKED_NAMESPACE, -1);
+        }
+        if(uri == null || prefix == null){
+            setElementUri(element, -1);
+            return;
+        }
+        int namespace = getOrCreateNamespace(element, uri, prefix);
+        setElementUri(element, mNamespaceTable.get(namespace, NS_URI));
+        elements.set(element, E_LINKED_NAMESPACE, namespace);
+        mNamespaceTable.add(namespace, NS_REFERENCES, 1);
+    }
+    private void setElementUri(int element, int string){
+        int exist = mElementTable.get(element, E_URI);
+        if(exist == string){
+            return;
+        }
+        removeReference(exist);
+        mElementTable.set(element, E_URI, string);
+        addReference(string);
+    }
+    private void encodeAttribute(int element, String uri, String prefix, String name, String value) throws IOException {
+        IntTable attributes = mAttributeTable;
+        int attribute = attributes.add();
+        attributes.set(attribute, A_URI, -1);
+        attributes.set(attribute, A_NAME, -1);
+        attributes.set(attribute, A_STRING, -1);
+
+        String nsUri = StringsUtil.emptyToNull(uri);
+        String nsPrefix = StringsUtil.emptyToNull(prefix);
+        if(nsUri != null || nsPrefix != null){
+            int namespace;
+            if(nsUri != null && nsPrefix != null){
+                namespace = getOrCreateNamespace(element, nsUri, nsPrefix);
+            }else if(nsUri != null){
+                namespace = findNamespaceByUri(element, nsUri);
+            }else {
+                namespace = findNamespaceByPrefix(element, nsPrefix);
+            }
+            if(namespace >= 0){
+                int string = mNamespaceTable.get(namespace, NS_URI);
+                attributes.set(attribute, A_URI, string);
+                addReference(string);
+                mNamespaceTable.add(namespace, NS_REFERENCES, 1);
+            }
+        }
+        PackageBlock packageBlock = this.packageBlock;
+        ResourceEntry nameEntry = null;
+        String attrPrefix = prefix;
+        if(attrPrefix == null){
+            attrPrefix = XMLUtil.splitPrefix(name);
+        }
+        String attrName = XMLUtil.splitName(name);
+        EncodeResult unknownId = ValueCoder.encodeUnknownNameId(attrName);
+        if(unknownId != null){
+            setAttributeName(attribute, attrName, unknownId.value);
+            nameEntry = new ResourceEntry(packageBlock, unknownId.value);
+        }else if(attrPrefix != null){
+            nameEntry = packageBlock.getTableBlock()
+                    .getAttrResource(packageBlock, attrPrefix, attrName);
+            if(nameEntry != null){
+                setAttributeName(attribute, attrName, nameEntry.getResourceId());
+            }
+        }
+        if(nameEntry == null){
+            if(nsPrefix != null){
+                throw new IOException("Unknown attribute name '" + prefix + ":" + name + "'");
+            }
+            setAttributeName(attribute, name, 0);
+        }
+        ValueOutput output = this.valueOutput;
+        output.attribute = attribute;
+        EncodeResult encodeResult = ValueCoder.encodeAttributeValue(false, output, nameEntry, value);
+        if(encodeResult.isError()){
+            throw new IOException(encodeResult.getError() + ", at line = "
+                    + mElementTable.get(element, E_LINE) + ", <"
+                    + mStrings[mElementTable.get(element, E_NAME)] + " "
+                    + (nsPrefix != null ? nsPrefix + ":" + name : name)
+                    + "=\"" + value + "\"");
+        }
+    }
+    private void setAttributeName(int attribute, String name, int resourceId){
+        int string = getOrCreateAttribute(resourceId, name);
+        mAttributeTable.set(attribute, A_NAME, string);
+        mAttributeTable.set(attribute, A_RESOURCE, resourceId);
+        addReference(string);
+    }
+
+    private int createNamespace(int element, String uri, String prefix){
+        IntTable namespaces = mNamespaceTable;
+        int namespace = namespaces.add();
+        namespaces.set(namespace, NS_OWNER, element);
+        int string = newString(uri);
+        namespaces.set(namespace, NS_URI, string);
+        addReference(string);
+        if(prefix != null){
+            string = getOrCreate(prefix);
+            addReference(string);
+        }else {
+            string = -1;
+        }
+        namespaces.set(namespace, NS_PREFIX, string);
+        return namespace;
+    }
+    private int getOrCreateNamespace(int element, String uri, String prefix){
+        int namespace = findNamespace(element, uri, prefix);
+        if(namespace < 0){
+            namespace = createNamespace(0, uri, prefix);
+        }
+        return namespace;
+    }
+    private int findNamespace(int element, String uri, String prefix){
+        if(uri == null || prefix == null){
+            return -1;
+        }
+        IntTable namespaces = mNamespaceTable;
+        int count = namespaces.size();
+        while (element >= 0){
+            for(int i = 0; i < count; i++){
+                if(namespaces.get(i, NS_OWNER) == element
+                        && uri.equals(getNamespaceUri(i))
+                        && prefix.equals(getNamespacePrefix(i))){
+                    return i;
+                }
+            }
+            element = mElementTable.get(element, E_PARENT);
+        }
+        return -1;
+    }
+    private int findNamespaceByUri(int element, String uri){
+        IntTable namespaces = mNamespaceTable;
+        int count = namespaces.size();
+        while (element >= 0){
+            for(int i = 0; i < count; i++){
+                if(namespaces.get(i, NS_OWNER) == element && uri.equals(getNamespaceUri(i))){
+                    return i;
+                }
+            }
+            element = mElementTable.get(element, E_PARENT);
+        }
+        return -1;
+    }
+    private int findNamespaceByPrefix(int element, String prefix){
+        if(prefix == null){
+            return -1;
+        }
+        IntTable namespaces = mNamespaceTable;
+        int count = namespaces.size();
+        int result = -1;
+        while (element >= 0){
+            for(int i = 0; i < count; i++){
+                if(namespaces.get(i, NS_OWNER) != element
+                        || !prefix.equals(getNamespacePrefix(i))){
+                    continue;
+                }
+                String uri = getNamespaceUri(i);
+                if(uri != null && uri.length() != 0){
+                    return i;
+                }
+                result = i;
+            }
+            element = mElementTable.get(element, E_PARENT);
+        }
+        return result;
+    }
+    private String getNamespaceUri(int namespace){
+        return getString(mNamespaceTable.get(namespace, NS_URI));
+    }
+    private String getNamespacePrefix(int namespace){
+        return getString(mNamespaceTable.get(namespace, NS_PREFIX));
+    }
+
+    /**
+     * Same as {@link ResXmlStringPool#getOrCreate(String)}, an existing string is reused only if
+     * its index is greater than count of ids (or both are zero)
+     * */
+    private int getOrCreate(String str){
+        int[] group = mUniqueStrings.get(str);
+        if(group != null){
+            int first = group[0];
+            if(mStringTable.get(first, S_POSITION) != 0 || mIdTable.size() == 0){
+                return first;
+            }
+            if(group[1] >= 0){
+                return group[1];
+            }
+        }
+        int string = newString(str);
+        if(group == null){
+            mUniqueStrings.put(str, new int[]{string, -1});
+        }else if(group[1] < 0){
+            group[1] = string;
+        }
+        return string;
+    }
+    /**
+     * Same as {@link ResXmlStringPool#getOrCreateAttribute(int, String)}, the string is
+     * inserted at the end of id strings
+     * */
+    private int getOrCreateAttribute(int resourceId, String name){
+        if(resourceId == 0){
+            return getOrCreate(name);
+        }
+        IntTable ids = mIdTable;
+        Integer exist = mIdSlots.get(resourceId);
+        if(exist != null){
+            int string = ids.get(exist, ID_STRING);
+            if(Objects.equals(name, mStrings[string])){
+                return string;
+            }
+        }
+        int slot = ids.add();
+        int string = addString(name);
+        mStringTable.set(string, S_POSITION, -1);
+        mStringTable.set(string, S_ID, slot);
+        ids.set(slot, ID_RESOURCE, resourceId);
+        ids.set(slot, ID_STRING, string);
+        mIdSlots.put(resourceId, slot);
+        return string;
+    }
+    private int newString(String str){
+        int string = addString(str);
+        mStringTable.set(string, S_POSITION, mPositionCount);
+        mStringTable.set(string, S_ID, -1);
+        mPositionCount ++;
+        return string;
+    }
+    private int addString(String str){
+        int string = mStringTable.add();
+        if(string == mStrings.length){
+            mStrings = Arrays.copyOf(mStrings, string * 2);
+        }
+        mStrings[string] = str;
+        return string;
+    }
+    private String getString(int string){
+        if(string < 0){
+            return null;
+        }
+        return mStrings[string];
+    }
+    private void addReference(int string){
+        if(string >= 0){
+            mStringTable.add(string, S_REFERENCES, 1);
+        }
+    }
+    private void removeReference(int string){
+        if(string >= 0){
+            mStringTable.add(string, S_REFERENCES, -1);
+        }
+    }
+
+    private byte[] build() throws IOException {
+        int[] indexes = buildStringIndexes();
+        byte[] poolBytes = buildStringPool(indexes);
+        byte[] idBytes = buildIdMap();
+        int size = HEADER_SIZE_DOCUMENT + poolBytes.length + idBytes.length + countNodeBytes();
+        byte[] bytes = new byte[size];
+        putShort(bytes, 0, ChunkType.XML.ID);
+        putShort(bytes, 2, HEADER_SIZE_DOCUMENT);
+        Block.putInteger(bytes, 4, size);
+        int offset = HEADER_SIZE_DOCUMENT;
+        System.arraycopy(poolBytes, 0, bytes, offset, poolBytes.length);
+        offset += poolBytes.length;
+        System.arraycopy(idBytes, 0, bytes, offset, idBytes.length);
+        offset += idBytes.length;
+        IntTable nodes = mNodes;
+        int count = nodes.size();
+        for(int i = 0; i < count; i++){
+            int node = nodes.get(i, 0);
+            int id = node >>> 2;
+            int type = node & 0x3;
+            if(type == NODE_START){
+                offset = writeStartNamespaces(bytes, offset, id, indexes);
+                offset = writeStartElement(bytes, offset, id, indexes);
+            }else if(type == NODE_END){
+                offset = writeEndElement(bytes, offset, id, indexes);
+                offset = writeEndNamespaces(bytes, offset, id, indexes);
+            }else {
+                offset = writeText(bytes, offset, id, indexes);
+            }
+        }
+        if(offset != size){
+            throw new IOException("Invalid compiled size: " + offset + ", expecting " + size);
+        }
+        return bytes;
+    }
+    /**
+     * Ids first, then other strings having references in the order of creation
+     * */
+    private int[] buildStringIndexes(){
+        IntTable strings = mStringTable;
+        int count = strings.size();
+        int[] indexes = new int[count];
+        int index = mIdTable.size();
+        int[] byPosition = new int[mPositionCount];
+        for(int i = 0; i < count; i++){
+            int position = strings.get(i, S_POSITION);
+            if(position < 0){
+                indexes[i] = strings.get(i, S_ID);
+            }else {
+                byPosition[position] = i;
+            }
+        }
+        for(int i = 0; i < byPosition.length; i++){
+            int string = byPosition[i];
+            if(strings.get(string, S_REFERENCES) > 0){
+                indexes[string] = index;
+                index ++;
+            }else {
+                indexes[string] = -1;
+            }
+        }
+        return indexes;
+    }
+    private byte[] buildStringPool(int[] indexes){
+        String[] sorted = new String[indexes.length];
+        int count = 0;
+        for(int i = 0; i < indexes.length; i++){
+            int index = indexes[i];
+            if(index >= 0){
+                sorted[index] = mStrings[i];
+                count ++;
+            }
+        }
+        ResXmlStringPool stringPool = new ResXmlStringPool(true);
+        StringArray<ResXmlString> stringArray = stringPool.getStringsArray();
+        stringArray.ensureSize(count);
+        for(int i = 0; i < count; i++){
+            stringArray.get(i).set(sorted[i]);
+        }
+        stringPool.refresh();
+        return stringPool.getBytes();
+    }
+    private byte[] buildIdMap(){
+        IntTable ids = mIdTable;
+        int count = ids.size();
+        ResXmlIDMap idMap = new ResXmlIDMap();
+        ResXmlIDArray idArray = idMap.getResXmlIDArray();
+        idArray.setChildesCount(count);
+        for(int i = 0; i < count; i++){
+            idArray.get(i).set(ids.get(i, ID_RESOURCE));
+        }
+        idMap.refresh();
+        return idMap.getBytes();
+    }
+    private int countNodeBytes(){
+        int size = 0;
+        IntTable namespaces = mNamespaceTable;
+        int count = namespaces.size();
+        for(int i = 0; i < count; i++){
+            if(namespaces.get(i, NS_REFERENCES) != 0){
+                size += SIZE_NAMESPACE * 2;
+            }
+        }
+        count = mElementTable.size();
+        size += count * (SIZE_START_ELEMENT + SIZE_END_ELEMENT);
+        size += mAttributeTable.size() * SIZE_ATTRIBUTE;
+        IntTable texts = mTextTable;
+        count = texts.size();
+        for(int i = 0; i < count; i++){
+            if(texts.get(i, T_STRING) >= 0){
+                size += SIZE_TEXT;
+            }
+        }
+        return size;
+    }
+    private int writeStartNamespaces(byte[] bytes, int offset, int element, int[] indexes){
+        IntTable namespaces = mNamespaceTable;
+        int count = namespaces.size();
+        for(int i = 0; i < count; i++){
+            if(namespaces.get(i, NS_OWNER) == element && namespaces.get(i, NS_REFERENCES) != 0){
+                offset = writeNamespace(bytes, offset, ChunkType.XML_START_NAMESPACE, i, indexes);
+            }
+        }
+        return offset;
+    }
+    private int writeEndNamespaces(byte[] bytes, int offset, int element, int[] indexes){
+        IntTable namespaces = mNamespaceTable;
+        for(int i = namespaces.size() - 1; i >= 0; i--){
+            if(namespaces.get(i, NS_OWNER) == element && namespaces.get(i, NS_REFERENCES) != 0){
+                offset = writeNamespace(bytes, offset, ChunkType.XML_END_NAMESPACE, i, indexes);
+            }
+        }
+        return offset;
+    }
+    private int writeNamespace(byte[] bytes, int offset, ChunkType chunkType, int namespace, int[] indexes){
+        IntTable namespaces = mNamespaceTable;
+        offset = writeNodeHeader(bytes, offset, chunkType, SIZE_NAMESPACE,
+                namespaces.get(namespace, NS_LINE), -1);
+        Block.putInteger(bytes, offset, index(indexes, namespaces.get(namespace, NS_PREFIX)));
+        Block.putInteger(bytes, offset + 4, index(indexes, namespaces.get(namespace, NS_URI)));
+        return offset + 8;
+    }
+    private int writeStartElement(byte[] bytes, int offset, int element, int[] indexes){
+        IntTable elements = mElementTable;
+        IntTable attributes = mAttributeTable;
+        int start = elements.get(element, E_ATTRIBUTE_START);
+        int count = elements.get(element, E_ATTRIBUTE_COUNT);
+        offset = writeNodeHeader(bytes, offset, ChunkType.XML_START_ELEMENT,
+                SIZE_START_ELEMENT + count * SIZE_ATTRIBUTE,
+                elements.get(element, E_LINE),
+                index(indexes, elements.get(element, E_COMMENT)));
+        Block.putInteger(bytes, offset, index(indexes, elements.get(element, E_URI)));
+        Block.putInteger(bytes, offset + 4, index(indexes, elements.get(element, E_NAME)));
+        putShort(bytes, offset + 8, SIZE_ATTRIBUTE);
+        putShort(bytes, offset + 10, SIZE_ATTRIBUTE);
+        putShort(bytes, offset + 12, count);
+        int[] sorted = sortAttributes(start, count);
+        putShort(bytes, offset + 14, positionOf(sorted, findIdAttribute(start, count)));
+        putShort(bytes, offset + 16, positionOf(sorted,
+                findNoIdAttribute(start, count, ResXmlStartElement.ATTRIBUTE_NAME_CLASS)));
+        putShort(bytes, offset + 18, positionOf(sorted,
+                findNoIdAttribute(start, count, ResXmlStartElement.ATTRIBUTE_NAME_STYLE)));
+        offset += 20;
+        for(int i = 0; i < count; i++){
+            int attribute = sorted[i];
+            Block.putInteger(bytes, offset, index(indexes, attributes.get(attribute, A_URI)));
+            Block.putInteger(bytes, offset + 4, index(indexes, attributes.get(attribute, A_NAME)));
+            int string = index(indexes, attributes.get(attribute, A_STRING));
+            Block.putInteger(bytes, offset + 8, string);
+            putShort(bytes, offset + 12, 8);
+            bytes[offset + 15] = (byte) attributes.get(attribute, A_TYPE);
+            int data = attributes.get(attribute, A_DATA);
+            if(string >= 0){
+                data = string;
+            }
+            Block.putInteger(bytes, offset + 16, data);
+            offset += SIZE_ATTRIBUTE;
+        }
+        return offset;
+    }
+    private int writeEndElement(byte[] bytes, int offset, int element, int[] indexes){
+        IntTable elements = mElementTable;
+        offset = writeNodeHeader(bytes, offset, ChunkType.XML_END_ELEMENT, SIZE_END_ELEMENT,
+                elements.get(element, E_END_LINE), -1);
+        Block.putInteger(bytes, offset, -1);
+        Block.putInteger(bytes, offset + 4, index(indexes, elements.get(element, E_END_NAME)));
+        return offset + 8;
+    }
+    private int writeText(byte[] bytes, int offset, int text, int[] indexes){
+        IntTable texts = mTextTable;
+        int string = texts.get(text, T_STRING);
+        if(string < 0){
+            return offset;
+        }
+        offset = writeNodeHeader(bytes, offset, ChunkType.XML_CDATA, SIZE_TEXT,
+                texts.get(text, T_LINE), -1);
+        Block.putInteger(bytes, offset, index(indexes, string));
+        Block.putInteger(bytes, offset + 4, 0);
+        Block.putInteger(bytes, offset + 8, 0);
+        return offset + 12;
+    }
+    private int writeNodeHeader(byte[] bytes, int offset, ChunkType chunkType, int size, int line, int comment){
+        putShort(bytes, offset, chunkType.ID);
+        putShort(bytes, offset + 2, HEADER_SIZE_NODE);
+        Block.putInteger(bytes, offset + 4, size);
+        Block.putInteger(bytes, offset + 8, line);
+        Block.putInteger(bytes, offset + 12, comment);
+        return offset + HEADER_SIZE_NODE;
+    }
+    /**
+     * Stable sort in the order of {@link ResXmlAttribute#compareTo(ResXmlAttribute)}
+     * */
+    private int[] sortAttributes(int start, int count){
+        Integer[] attributes = new Integer[count];
+        for(int i = 0; i < count; i++){
+            attributes[i] = start + i;
+        }
+        if(count > 1){
+            Arrays.sort(attributes, attributeComparator);
+        }
+        int[] results = new int[count];
+        for(int i = 0; i < count; i++){
+            results[i] = attributes[i];
+        }
+        return results;
+    }
+    private final Comparator<Integer> attributeComparator = new Comparator<Integer>() {
+        @Override
+        public int compare(Integer attribute1, Integer attribute2) {
+            IntTable attributes = mAttributeTable;
+            int id1 = attributes.get(attribute1, A_RESOURCE);
+            int id2 = attributes.get(attribute2, A_RESOURCE);
+            if(id1 == 0 && id2 != 0){
+                return 1;
+            }
+            if(id2 == 0 && id1 != 0){
+                return -1;
+            }
+            if(id1 != 0){
+                return Integer.compare(id1, id2);
+            }
+            String name1 = getString(attributes.get(attribute1, A_NAME));
+            if(name1 == null){
+                name1 = "";
+            }
+            String name2 = getString(attributes.get(attribute2, A_NAME));
+            if(name2 == null){
+                name2 = "";
+            }
+            return name1.compareTo(name2);
+        }
+    };
+    private int findIdAttribute(int start, int count){
+        IntTable attributes = mAttributeTable;
+        int end = start + count;
+        for(int i = start; i < end; i++){
+            if(attributes.get(i, A_RESOURCE) == ResXmlStartElement.ATTRIBUTE_RESOURCE_ID_id){
+                return i;
+            }
+        }
+        return -1;
+    }
+    private int findNoIdAttribute(int start, int count, String name){
+        IntTable attributes = mAttributeTable;
+        int end = start + count;
+        for(int i = start; i < end; i++){
+            if(attributes.get(i, A_RESOURCE) == 0
+                    && name.equals(getString(attributes.get(i, A_NAME)))){
+                return i;
+            }
+        }
+        return -1;
+    }
+    private static int positionOf(int[] sorted, int attribute){
+        if(attribute < 0){
+            return 0;
+        }
+        for(int i = 0; i < sorted.length; i++){
+            if(sorted[i] == attribute){
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+    private static int index(int[] indexes, int string){
+        if(string < 0){
+            return -1;
+        }
+        return indexes[string];
+    }
+    private static void putShort(byte[] bytes, int offset, int value){
+        Block.putShort(bytes, offset, (short) value);
+    }
+    private void clear(){
+        Arrays.fill(mStrings, 0, mStringTable.size(), null);
+        mStringTable.clear();
+        mUniqueStrings.clear();
+        mPositionCount = 0;
+        mIdTable.clear();
+        mIdSlots.clear();
+        mNamespaceTable.clear();
+        mElementTable.clear();
+        mAttributeTable.clear();
+        mTextTable.clear();
+        mNodes.clear();
+    }
+
+    /**
+     * Receives encoded attribute value in place of {@link ResXmlAttribute}
+     * */
+    private class ValueOutput implements Value {
+        int attribute;
+
+        ValueOutput(){
+        }
+        @Override
+        public void setValue(EncodeResult encodeResult) {
+            if(encodeResult == null){
+                throw new NullPointerException();
+            }
+            if(encodeResult.isError()){
+                throw new IllegalArgumentException("Can not set error value: "
+                        + encodeResult.getError());
+            }
+            setData(encodeResult.value);
+            setValueType(encodeResult.valueType);
+        }
+        @Override
+        public void setValueType(ValueType valueType) {
+            mAttributeTable.set(attribute, A_TYPE, valueType.getByte() & 0xff);
+        }
+        @Override
+        public ValueType getValueType() {
+            return ValueType.valueOf((byte) mAttributeTable.get(attribute, A_TYPE));
+        }
+        @Override
+        public int getData() {
+            return mAttributeTable.get(attribute, A_DATA);
+        }
+        @Override
+        public void setData(int data) {
+            mAttributeTable.set(attribute, A_DATA, data);
+        }
+        @Override
+        public String getValueAsString() {
+            return getString(mAttributeTable.get(attribute, A_STRING));
+        }
+        @Override
+        public void setValueAsString(String value) {
+            if(getValueType() == ValueType.STRING
+                    && Objects.equals(value, getValueAsString())){
+                return;
+            }
+            if(value == null){
+                value = "";
+            }
+            IntTable attributes = mAttributeTable;
+            int string = getOrCreate(value);
+            removeReference(attributes.get(attribute, A_STRING));
+            attributes.set(attribute, A_STRING, string);
+            addReference(string);
+            setValueType(ValueType.STRING);
+        }
+        @Override
+        public PackageBlock getPackageBlock() {
+            return packageBlock;
+        }
+        @Override
+        public ParentChunk getParentChunk() {
+            return null;
+        }
+    }
+    /**
+     * Growable table of int rows, rows are zero filled when added
+     * */
+    static class IntTable {
+        private final int columns;
+        private int[] data;
+        private int count;
+
+        IntTable(int columns){
+            this.columns = columns;
+            this.data = new int[columns * 32];
+        }
+        int add(){
+            int row = count;
+            int end = (row + 1) * columns;
+            if(end > data.length){
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            Arrays.fill(data, row * columns, end, 0);
+            count = row + 1;
+            return row;
+        }
+        int get(int row, int column){
+            return data[row * columns + column];
+        }
+        void set(int row, int column, int value){
+            data[row * columns + column] = value;
+        }
+        void add(int row, int column, int value){
+            data[row * columns + column] += value;
+        }
+        int size(){
+            return count;
+        }
+        void clear(){
+            count = 0;
+        }
+    }
+
+    private static final int NODE_START = 0;
+    private static final int NODE_END = 1;
+    private static final int NODE_TEXT = 2;
+
+    private static final int S_POSITION = 0;
+    private static final int S_ID = 1;
+    private static final int S_REFERENCES = 2;
+    private static final int S_COLUMNS = 3;
+
+    private static final int ID_RESOURCE = 0;
+    private static final int ID_STRING = 1;
+    private static final int ID_COLUMNS = 2;
+
+    private static final int NS_OWNER = 0;
+    private static final int NS_URI = 1;
+    private static final int NS_PREFIX = 2;
+    private static final int NS_LINE = 3;
+    private static final int NS_REFERENCES = 4;
+    private static final int NS_COLUMNS = 5;
+
+    private static final int E_PARENT = 0;
+    private static final int E_NAME = 1;
+    private static final int E_END_NAME = 2;
+    private static final int E_URI = 3;
+    private static final int E_LINKED_NAMESPACE = 4;
+    private static final int E_COMMENT = 5;
+    private static final int E_LINE = 6;
+    private static final int E_END_LINE = 7;
+    private static final int E_ATTRIBUTE_START = 8;
+    private static final int E_ATTRIBUTE_COUNT = 9;
+    private static final int E_COLUMNS = 10;
+
+    private static final int A_URI = 0;
+    private static final int A_NAME = 1;
+    private static final int A_RESOURCE = 2;
+    private static final int A_STRING = 3;
+    private static final int A_TYPE = 4;
+    private static final int A_DATA = 5;
+    private static final int A_COLUMNS = 6;
+
+    private static final int T_STRING = 0;
+    private static final int T_LINE = 1;
+    private static final int T_COLUMNS = 2;
+
+    private static final int HEADER_SIZE_DOCUMENT = 8;
+    private static final int HEADER_SIZE_NODE = 16;
+    private static final int SIZE_NAMESPACE = 24;
+    private static final int SIZE_START_ELEMENT = 36;
+    private static final int SIZE_END_ELEMENT = 24;
+    private static final int SIZE_ATTRIBUTE = 20;
+    private static final int SIZE_TEXT = 28;
+}
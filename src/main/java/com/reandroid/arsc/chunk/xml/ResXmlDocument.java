@@ -145,7 +145,7 @@ public class ResXmlDocument extends Chunk<HeaderBlock>
             message.append(count);
             appendOnce = true;
         }
-        count = getStringPool().removeUnusedStrings().size();
+        count = getStringPool().compact(false);
         if(count != 0){
             if(appendOnce){
                 message.append("\n");
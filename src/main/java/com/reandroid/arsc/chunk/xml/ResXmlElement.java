@@ -610,7 +610,11 @@ public class ResXmlElement extends ResXmlNode implements JSONConvert<JSONObject>
         return EmptyIterator.of();
     }
     public Iterator<ResXmlAttribute> getAttributesWithId(int resourceId){
-        return getAttributes(attribute -> attribute.getNameResourceID() == resourceId);
+        ResXmlStartElement startElement = getStartElement();
+        if(startElement != null){
+            return startElement.getAttributesWithId(resourceId);
+        }
+        return EmptyIterator.of();
     }
     public Iterator<ResXmlAttribute> getAttributesWithName(String name){
         return getAttributes(attribute ->
@@ -1486,7 +1490,7 @@ public class ResXmlElement extends ResXmlNode implements JSONConvert<JSONObject>
         return "NULL";
     }
 
-    private static boolean looksNamespace(String uri, String prefix){
+    static boolean looksNamespace(String uri, String prefix){
         return uri.length() != 0 && "xmlns".equals(prefix);
     }
     private static boolean getFeatureSafe(XmlSerializer serializer, String name){
@@ -1496,14 +1500,14 @@ public class ResXmlElement extends ResXmlNode implements JSONConvert<JSONObject>
             return false;
         }
     }
-    private static String splitPrefix(String name){
+    static String splitPrefix(String name){
         int i = name.indexOf(':');
         if(i >= 0){
             return name.substring(0, i);
         }
         return null;
     }
-    private static String splitName(String name){
+    static String splitName(String name){
         int i = name.indexOf(':');
         if(i >= 0){
             return name.substring(i + 1);
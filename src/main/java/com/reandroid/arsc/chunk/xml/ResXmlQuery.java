@@ -0,0 +1,501 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.arsc.chunk.xml;
+
+import com.reandroid.arsc.value.ValueType;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiled path expression evaluated over binary xml chunks through {@link ResXmlStreamParser},
+ * no document tree is built and subtrees which can not contain a match are skipped
+ * without decoding. Supported syntax is a small subset of XPath:
+ * <pre>
+ *   /manifest/application/activity[@0x01010010=true]
+ *   //activity[not(@android:exported)]
+ *   //*[type(@0x010100d0)=REFERENCE][@name!='main']
+ * </pre>
+ * <ul>
+ *   <li><code>/</code> child step, <code>//</code> descendant step, <code>*</code> any tag.
+ *   Tag prefixes are ignored</li>
+ *   <li><code>@0x01010010</code> selects attribute by resource id, <code>@name</code> by its
+ *   name string, prefix is ignored. Use resource ids for obfuscated files</li>
+ *   <li>Values: <code>'text'</code>, <code>true</code>/<code>false</code>, integer
+ *   (decimal or 0x hex), <code>@0x7f010000</code>/<code>@null</code> reference,
+ *   <code>?0x7f010000</code> attribute reference</li>
+ *   <li><code>type(@attr)=NAME</code> tests value type by {@link ValueType} name</li>
+ *   <li><code>=</code>, <code>!=</code> and <code>not(...)</code>, multiple predicates
+ *   must all match</li>
+ * </ul>
+ * A compiled query is immutable and can be shared between threads.
+ * */
+public class ResXmlQuery {
+    private final String expression;
+    private final Step[] steps;
+
+    private ResXmlQuery(String expression, Step[] steps){
+        this.expression = expression;
+        this.steps = steps;
+    }
+
+    public int count(byte[] bytes) throws IOException {
+        return evaluate(bytes, null);
+    }
+    public boolean matches(byte[] bytes) throws IOException {
+        return evaluate(bytes, parser -> false) != 0;
+    }
+    public int evaluate(byte[] bytes, Visitor visitor) throws IOException {
+        ResXmlStreamParser parser = new ResXmlStreamParser();
+        try {
+            parser.setInput(bytes);
+            return evaluate(parser, visitor);
+        } catch (XmlPullParserException exception) {
+            throw toIOException(exception);
+        } finally {
+            parser.close();
+        }
+    }
+    public int evaluate(InputStream inputStream, Visitor visitor) throws IOException {
+        ResXmlStreamParser parser = new ResXmlStreamParser();
+        try {
+            parser.setInput(inputStream, null);
+            return evaluate(parser, visitor);
+        } catch (XmlPullParserException exception) {
+            throw toIOException(exception);
+        } finally {
+            parser.close();
+        }
+    }
+    /**
+     * Evaluates from the current position of the parser (normally START_DOCUMENT) up to
+     * the end of document or until visitor returns false. Returns number of matched elements.
+     * The parser can be reused across documents for batch evaluation.
+     * */
+    public int evaluate(ResXmlStreamParser parser, Visitor visitor) throws XmlPullParserException {
+        Step[] steps = this.steps;
+        int last = steps.length - 1;
+        long[] states = new long[16];
+        states[0] = 1L;
+        int count = 0;
+        int event = parser.next();
+        while (event != XmlPullParser.END_DOCUMENT){
+            if(event != XmlPullParser.START_TAG){
+                event = parser.next();
+                continue;
+            }
+            int depth = parser.getDepth();
+            if(depth >= states.length){
+                long[] update = new long[depth * 2];
+                System.arraycopy(states, 0, update, 0, states.length);
+                states = update;
+            }
+            long parentState = states[depth - 1];
+            long state = 0;
+            boolean matched = false;
+            while (parentState != 0){
+                int i = Long.numberOfTrailingZeros(parentState);
+                parentState &= parentState - 1;
+                Step step = steps[i];
+                if(step.descendant){
+                    state |= 1L << i;
+                }
+                if(step.matches(parser)){
+                    if(i == last){
+                        matched = true;
+                    }else {
+                        state |= 1L << (i + 1);
+                    }
+                }
+            }
+            states[depth] = state;
+            if(matched){
+                count ++;
+                if(visitor != null && !visitor.onMatch(parser)){
+                    break;
+                }
+            }
+            if(state == 0){
+                parser.skipSubTree();
+            }
+            event = parser.next();
+        }
+        return count;
+    }
+    public String getExpression(){
+        return expression;
+    }
+    @Override
+    public String toString(){
+        return expression;
+    }
+
+    /**
+     * Compiles the given expression, throws IllegalArgumentException on syntax errors
+     * */
+    public static ResXmlQuery compile(String expression){
+        if(expression == null){
+            throw new IllegalArgumentException("Null expression");
+        }
+        return new Compiler(expression).compile();
+    }
+    private static IOException toIOException(XmlPullParserException exception){
+        IOException ioException = new IOException(exception.getMessage());
+        ioException.initCause(exception);
+        return ioException;
+    }
+
+    public interface Visitor {
+        /**
+         * Called with parser at START_TAG of the matched element, the parser must not be
+         * advanced. Return false to stop evaluation.
+         * */
+        boolean onMatch(ResXmlStreamParser parser) throws XmlPullParserException;
+    }
+
+    static class Step {
+        final boolean descendant;
+        final String name;
+        final Condition[] conditions;
+
+        Step(boolean descendant, String name, Condition[] conditions){
+            this.descendant = descendant;
+            this.name = name;
+            this.conditions = conditions;
+        }
+        boolean matches(ResXmlStreamParser parser){
+            if(name != null && !name.equals(parser.getName())){
+                return false;
+            }
+            for(Condition condition : conditions){
+                if(!condition.test(parser)){
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+    static class Condition {
+        final int resourceId;
+        final String name;
+        final int operator;
+        final int valueKind;
+        final int typeMask;
+        final int data;
+        final String text;
+        final boolean inverted;
+
+        Condition(int resourceId, String name, int operator, int valueKind,
+                  int typeMask, int data, String text, boolean inverted){
+            this.resourceId = resourceId;
+            this.name = name;
+            this.operator = operator;
+            this.valueKind = valueKind;
+            this.typeMask = typeMask;
+            this.data = data;
+            this.text = text;
+            this.inverted = inverted;
+        }
+        boolean test(ResXmlStreamParser parser){
+            int index = findAttribute(parser);
+            boolean result;
+            if(index < 0){
+                result = false;
+            }else if(operator == OP_EXISTS){
+                result = true;
+            }else {
+                result = equalsValue(parser, index) == (operator == OP_EQUALS);
+            }
+            return result != inverted;
+        }
+        private int findAttribute(ResXmlStreamParser parser){
+            int count = parser.getRawAttributeCount();
+            for(int i = 0; i < count; i++){
+                if(resourceId != 0){
+                    if(resourceId == parser.getRawAttributeNameResource(i)){
+                        return i;
+                    }
+                }else if(name.equals(parser.getRawAttributeName(i))){
+                    return i;
+                }
+            }
+            return -1;
+        }
+        private boolean equalsValue(ResXmlStreamParser parser, int index){
+            int type = parser.getRawAttributeValueType(index);
+            if(type > 0x1f || (typeMask & (1 << type)) == 0){
+                return false;
+            }
+            if(valueKind == VALUE_TYPE){
+                return true;
+            }
+            int value = parser.getRawAttributeValueData(index);
+            if(valueKind == VALUE_STRING){
+                return text.equals(parser.getString(value));
+            }
+            if(valueKind == VALUE_BOOLEAN){
+                return (value != 0) == (data != 0);
+            }
+            return value == data;
+        }
+    }
+
+    static class Compiler {
+        private final String expression;
+        private int position;
+
+        Compiler(String expression){
+            this.expression = expression;
+        }
+        ResXmlQuery compile(){
+            List<Step> steps = new ArrayList<>();
+            skipSpaces();
+            while (position < expression.length()){
+                steps.add(readStep());
+                skipSpaces();
+            }
+            if(steps.isEmpty()){
+                throw error("Empty expression");
+            }
+            if(steps.size() > 63){
+                throw error("Too many steps");
+            }
+            return new ResXmlQuery(expression, steps.toArray(new Step[0]));
+        }
+        private Step readStep(){
+            expect('/');
+            boolean descendant = consume('/');
+            skipSpaces();
+            String name;
+            if(consume('*')){
+                name = null;
+            }else {
+                name = localName(readName());
+            }
+            List<Condition> conditions = new ArrayList<>();
+            skipSpaces();
+            while (consume('[')){
+                conditions.add(readCondition());
+                skipSpaces();
+                expect(']');
+                skipSpaces();
+            }
+            return new Step(descendant, name, conditions.toArray(new Condition[0]));
+        }
+        private Condition readCondition(){
+            skipSpaces();
+            boolean inverted = false;
+            if(consumeWord("not(")){
+                inverted = true;
+                skipSpaces();
+            }
+            boolean typeTest = consumeWord("type(");
+            skipSpaces();
+            expect('@');
+            String attribute = readName();
+            int resourceId = 0;
+            String name = null;
+            if(isHex(attribute)){
+                resourceId = parseHex(attribute);
+            }else {
+                name = localName(attribute);
+            }
+            skipSpaces();
+            if(typeTest){
+                expect(')');
+                skipSpaces();
+            }
+            int operator;
+            if(consumeWord("!=")){
+                operator = OP_NOT_EQUALS;
+            }else if(consume('=')){
+                operator = OP_EQUALS;
+            }else if(typeTest){
+                throw error("Expecting '=' or '!='");
+            }else {
+                operator = OP_EXISTS;
+            }
+            int valueKind = 0;
+            int typeMask = 0;
+            int data = 0;
+            String text = null;
+            if(operator != OP_EXISTS){
+                skipSpaces();
+                if(typeTest){
+                    String typeName = readName();
+                    ValueType valueType = ValueType.fromName(typeName);
+                    if(valueType == null){
+                        throw error("Unknown value type '" + typeName + "'");
+                    }
+                    valueKind = VALUE_TYPE;
+                    typeMask = typeMask(valueType);
+                }else {
+                    char ch = peek();
+                    if(ch == '\'' || ch == '"'){
+                        valueKind = VALUE_STRING;
+                        typeMask = typeMask(ValueType.STRING);
+                        text = readQuoted();
+                    }else if(ch == '@' || ch == '?'){
+                        position ++;
+                        String value = readName();
+                        valueKind = VALUE_DATA;
+                        if(ch == '@'){
+                            typeMask = typeMask(ValueType.REFERENCE, ValueType.DYNAMIC_REFERENCE);
+                        }else {
+                            typeMask = typeMask(ValueType.ATTRIBUTE, ValueType.DYNAMIC_ATTRIBUTE);
+                        }
+                        if("null".equals(value)){
+                            data = 0;
+                        }else if(isHex(value)){
+                            data = parseHex(value);
+                        }else {
+                            throw error("Expecting resource id '" + value + "'");
+                        }
+                    }else {
+                        String value = readName();
+                        if("true".equals(value) || "false".equals(value)){
+                            valueKind = VALUE_BOOLEAN;
+                            typeMask = typeMask(ValueType.BOOLEAN);
+                            data = "true".equals(value) ? 1 : 0;
+                        }else {
+                            valueKind = VALUE_DATA;
+                            typeMask = typeMask(ValueType.DEC, ValueType.HEX);
+                            data = parseInteger(value);
+                        }
+                    }
+                }
+            }
+            if(inverted){
+                skipSpaces();
+                expect(')');
+            }
+            return new Condition(resourceId, name, operator, valueKind,
+                    typeMask, data, text, inverted);
+        }
+        private String readQuoted(){
+            char quote = expression.charAt(position);
+            int start = position + 1;
+            int end = expression.indexOf(quote, start);
+            if(end < 0){
+                throw error("Unterminated string");
+            }
+            position = end + 1;
+            return expression.substring(start, end);
+        }
+        private String readName(){
+            int start = position;
+            int length = expression.length();
+            while (position < length && isNameChar(expression.charAt(position))){
+                position ++;
+            }
+            if(start == position){
+                throw error("Expecting name");
+            }
+            return expression.substring(start, position);
+        }
+        private int parseInteger(String value){
+            try {
+                if(isHex(value)){
+                    return parseHex(value);
+                }
+                if(value.startsWith("-0x")){
+                    return -parseHex(value.substring(1));
+                }
+                return Integer.parseInt(value);
+            } catch (NumberFormatException ignored) {
+                throw error("Invalid value '" + value + "'");
+            }
+        }
+        private int parseHex(String value){
+            try {
+                return (int) Long.parseLong(value.substring(2), 16);
+            } catch (NumberFormatException ignored) {
+                throw error("Invalid hex '" + value + "'");
+            }
+        }
+        private char peek(){
+            if(position < expression.length()){
+                return expression.charAt(position);
+            }
+            return 0;
+        }
+        private boolean consume(char ch){
+            if(peek() == ch){
+                position ++;
+                return true;
+            }
+            return false;
+        }
+        private boolean consumeWord(String word){
+            if(expression.startsWith(word, position)){
+                position += word.length();
+                return true;
+            }
+            return false;
+        }
+        private void expect(char ch){
+            if(!consume(ch)){
+                throw error("Expecting '" + ch + "'");
+            }
+        }
+        private void skipSpaces(){
+            int length = expression.length();
+            while (position < length && expression.charAt(position) == ' '){
+                position ++;
+            }
+        }
+        private IllegalArgumentException error(String message){
+            return new IllegalArgumentException(message + " at " + position
+                    + " of \"" + expression + "\"");
+        }
+        private static boolean isNameChar(char ch){
+            return (ch >= 'a' && ch <= 'z')
+                    || (ch >= 'A' && ch <= 'Z')
+                    || (ch >= '0' && ch <= '9')
+                    || ch == '_' || ch == '-' || ch == '.' || ch == ':';
+        }
+        private static boolean isHex(String value){
+            return value.length() > 2 && value.startsWith("0x");
+        }
+        private static String localName(String name){
+            int i = name.lastIndexOf(':');
+            if(i < 0){
+                return name;
+            }
+            return name.substring(i + 1);
+        }
+        private static int typeMask(ValueType... valueTypes){
+            int mask = 0;
+            for(ValueType valueType : valueTypes){
+                mask |= 1 << (valueType.getByte() & 0x1f);
+            }
+            return mask;
+        }
+    }
+
+    private static final int OP_EXISTS = 0;
+    private static final int OP_EQUALS = 1;
+    private static final int OP_NOT_EQUALS = 2;
+
+    private static final int VALUE_TYPE = 1;
+    private static final int VALUE_STRING = 2;
+    private static final int VALUE_BOOLEAN = 3;
+    private static final int VALUE_DATA = 4;
+}
@@ -151,6 +151,9 @@ public class ResXmlStartElement extends BaseXmlChunk {
         }
     }
     public ResXmlAttribute getAttribute(int resourceId){
+        if(resourceId != 0){
+            return getResXmlAttributeArray().searchByResourceId(resourceId);
+        }
         Iterator<ResXmlAttribute> iterator = iterator();
         while (iterator.hasNext()){
             ResXmlAttribute attribute = iterator.next();
@@ -194,35 +197,13 @@ public class ResXmlStartElement extends BaseXmlChunk {
     }
     // Searches attribute with resource id = 0
     public ResXmlAttribute searchAttributeByName(String name){
-        if(name == null){
-            return null;
-        }
-        Iterator<ResXmlAttribute> iterator = getResXmlAttributeArray().iterator();
-        ResXmlAttribute withIdAttribute = null;
-        while (iterator.hasNext()){
-            ResXmlAttribute attribute = iterator.next();
-            if(attribute.equalsName(name)){
-                if(attribute.getNameResourceID() != 0){
-                    withIdAttribute = attribute;
-                    continue;
-                }
-                return attribute;
-            }
-        }
-        return withIdAttribute;
+        return getResXmlAttributeArray().searchByName(name);
     }
     public ResXmlAttribute searchAttributeByResourceId(int resourceId){
-        if(resourceId == 0){
-            return null;
-        }
-        Iterator<ResXmlAttribute> iterator = iterator();
-        while (iterator.hasNext()){
-            ResXmlAttribute attribute = iterator.next();
-            if(resourceId == attribute.getNameResourceID()){
-                return attribute;
-            }
-        }
-        return null;
+        return getResXmlAttributeArray().searchByResourceId(resourceId);
+    }
+    public Iterator<ResXmlAttribute> getAttributesWithId(int resourceId){
+        return getResXmlAttributeArray().iteratorWithResourceId(resourceId);
     }
     public String getTagName(){
         return getTagName(true);
@@ -355,14 +336,14 @@ public class ResXmlStartElement extends BaseXmlChunk {
     /*
      * Find another way to mark an attribute is class, device actually relies on
      * value of mClassAttributePosition */
-    private static final String ATTRIBUTE_NAME_CLASS="class";
+    static final String ATTRIBUTE_NAME_CLASS="class";
     /*
      * Find another way to mark an attribute is style, device actually relies on
      * value of mStyleAttributePosition */
-    private static final String ATTRIBUTE_NAME_STYLE="style";
+    static final String ATTRIBUTE_NAME_STYLE="style";
     /*
      * Resource id value of attribute 'android:id'
      * instead of relying on hardcoded value, we should find another way to
      * mark an attribute is 'id' */
-    private static final int ATTRIBUTE_RESOURCE_ID_id =0x010100d0;
+    static final int ATTRIBUTE_RESOURCE_ID_id =0x010100d0;
 }
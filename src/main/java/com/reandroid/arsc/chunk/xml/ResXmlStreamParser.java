@@ -0,0 +1,1113 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.arsc.chunk.xml;
+
+import android.content.res.XmlResourceParser;
+import com.reandroid.arsc.chunk.ChunkType;
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.coder.ThreeByteCharsetDecoder;
+import com.reandroid.arsc.coder.ValueCoder;
+import com.reandroid.arsc.coder.XmlSanitizer;
+import com.reandroid.arsc.io.BlockReader;
+import com.reandroid.arsc.model.ResourceEntry;
+import com.reandroid.arsc.value.AttributeDataFormat;
+import com.reandroid.arsc.value.ValueType;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pull parser reading binary xml chunks directly from bytes without building
+ * {@link ResXmlDocument}. Nodes are not materialized, the current node is just an offset
+ * to its chunk and attributes are read from the chunk on demand. Strings are decoded lazily
+ * from the pool and cached per index, thus iterating nodes allocates nothing besides first
+ * time strings. Parsing can be stopped at any point, see also {@link #skipSubTree()}.
+ * <br />
+ * Unlike {@link ResXmlPullParser}, depth and namespace counts follow xml pull parser
+ * conventions: root element is at depth 1 and {@link #getNamespaceCount(int)} is cumulative.
+ * Comments are not reported as events, use {@link #getComment()} on the current node.
+ * */
+public class ResXmlStreamParser implements XmlResourceParser {
+    private PackageBlock mCurrentPackage;
+    private ByteBuffer mBuffer;
+    private int mEnd;
+    private int mNextChunk;
+
+    private boolean mUtf8;
+    private int mStringCount;
+    private int mStringOffsets;
+    private int mStringsStart;
+    private String[] mStringCache;
+    private final CharsetDecoder mUtf8Decoder = StandardCharsets.UTF_8.newDecoder();
+    private final CharsetDecoder mUtf16Decoder = StandardCharsets.UTF_16LE.newDecoder();
+
+    private int mResourceMapStart;
+    private int mResourceMapCount;
+
+    private int mEventType;
+    private int mChunk;
+    private int mExtension;
+    private int mDepth;
+    private boolean mPopDepth;
+
+    private int mAttributeStart;
+    private int mAttributeSize;
+    private int mAttributeCount;
+    private int mIdIndex;
+    private int mClassIndex;
+    private int mStyleIndex;
+
+    private int[] mNamespaceData;
+    private int mNamespaceCount;
+    private int mPendingNamespaces;
+    private int[] mNamespaceEnds;
+    private int[] mNamespaceElementCounts;
+    private int[] mElementExtensions;
+
+    private boolean processNamespaces;
+    private boolean reportNamespaceAttrs;
+    private boolean mIsTagStared;
+
+    public ResXmlStreamParser(PackageBlock packageBlock){
+        this.mCurrentPackage = packageBlock;
+        this.mNamespaceData = new int[8];
+        this.mNamespaceEnds = new int[16];
+        this.mNamespaceElementCounts = new int[16];
+        this.mElementExtensions = new int[16];
+        this.mEventType = END_DOCUMENT;
+    }
+    public ResXmlStreamParser(){
+        this(null);
+    }
+
+    public PackageBlock getCurrentPackage(){
+        return mCurrentPackage;
+    }
+    public void setCurrentPackage(PackageBlock packageBlock){
+        this.mCurrentPackage = packageBlock;
+    }
+    public void setInput(byte[] bytes) throws XmlPullParserException {
+        setInput(ByteBuffer.wrap(bytes));
+    }
+    /**
+     * Parses xml chunk starting at current position of the reader
+     * */
+    public void setInput(BlockReader reader) throws XmlPullParserException {
+        ByteBuffer buffer = ByteBuffer.wrap(reader.getBytes());
+        buffer.position(reader.getPosition());
+        setInput(buffer);
+    }
+    /**
+     * Parses xml chunk starting at current position of the buffer, the buffer content is
+     * not copied thus should not be modified while parsing
+     * */
+    public void setInput(ByteBuffer buffer) throws XmlPullParserException {
+        buffer = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        int limit = buffer.limit();
+        if(limit < 8 || (buffer.getShort(0) & 0xffff) != (ChunkType.XML.ID & 0xffff)){
+            throw new XmlPullParserException("Not a binary xml");
+        }
+        int size = buffer.getInt(4);
+        if(size < 8 || size > limit){
+            size = limit;
+        }
+        resetState();
+        this.mBuffer = buffer;
+        this.mEnd = size;
+        this.mNextChunk = buffer.getShort(2) & 0xffff;
+        readHeaderChunks();
+        this.mEventType = START_DOCUMENT;
+    }
+    public void close(){
+        resetState();
+        this.mBuffer = null;
+        this.mEventType = END_DOCUMENT;
+    }
+    private void resetState(){
+        mEnd = 0;
+        mNextChunk = 0;
+        mUtf8 = false;
+        mStringCount = 0;
+        mStringOffsets = 0;
+        mStringsStart = 0;
+        mStringCache = null;
+        mResourceMapStart = 0;
+        mResourceMapCount = 0;
+        mChunk = 0;
+        mExtension = 0;
+        mDepth = 0;
+        mPopDepth = false;
+        mAttributeCount = 0;
+        mNamespaceCount = 0;
+        mPendingNamespaces = 0;
+        mIsTagStared = false;
+        processNamespaces = true;
+        reportNamespaceAttrs = true;
+    }
+    private void readHeaderChunks(){
+        ByteBuffer buffer = this.mBuffer;
+        int position = mNextChunk;
+        while (position + 8 <= mEnd){
+            int type = buffer.getShort(position) & 0xffff;
+            int size = buffer.getInt(position + 4);
+            if(size < 8){
+                break;
+            }
+            if(type == (ChunkType.STRING.ID & 0xffff)){
+                readStringPool(position);
+            }else if(type == (ChunkType.XML_RESOURCE_MAP.ID & 0xffff)){
+                int headerSize = buffer.getShort(position + 2) & 0xffff;
+                mResourceMapStart = position + headerSize;
+                mResourceMapCount = (size - headerSize) / 4;
+            }else {
+                break;
+            }
+            position += size;
+        }
+        mNextChunk = position;
+    }
+    private void readStringPool(int chunk){
+        ByteBuffer buffer = this.mBuffer;
+        int headerSize = buffer.getShort(chunk + 2) & 0xffff;
+        mStringCount = buffer.getInt(chunk + 8);
+        mUtf8 = (buffer.getInt(chunk + 16) & FLAG_UTF8) != 0;
+        mStringsStart = chunk + buffer.getInt(chunk + 20);
+        mStringOffsets = chunk + headerSize;
+        mStringCache = new String[mStringCount];
+    }
+
+    /**
+     * Moves to the end tag of current start tag without decoding any node in between,
+     * current event must be {@link #START_TAG}
+     * */
+    public void skipSubTree() throws XmlPullParserException {
+        if(mEventType != START_TAG){
+            throw new XmlPullParserException("precondition: START_TAG", this, null);
+        }
+        ByteBuffer buffer = this.mBuffer;
+        int level = 0;
+        int position = mNextChunk;
+        while (position + 8 <= mEnd){
+            int type = buffer.getShort(position) & 0xffff;
+            int size = buffer.getInt(position + 4);
+            if(size < 8){
+                break;
+            }
+            if(type == (ChunkType.XML_START_ELEMENT.ID & 0xffff)){
+                level ++;
+            }else if(type == (ChunkType.XML_END_ELEMENT.ID & 0xffff)){
+                if(level == 0){
+                    mNextChunk = position;
+                    next();
+                    return;
+                }
+                level --;
+            }else if(type == (ChunkType.XML_START_NAMESPACE.ID & 0xffff)){
+                pushNamespace(position + (buffer.getShort(position + 2) & 0xffff));
+            }else if(type == (ChunkType.XML_END_NAMESPACE.ID & 0xffff)){
+                popNamespace();
+            }
+            position += size;
+        }
+        mNextChunk = position;
+        next();
+    }
+    /**
+     * Returns comment of current node, null if none
+     * */
+    public String getComment(){
+        if(mEventType != START_TAG && mEventType != END_TAG && mEventType != TEXT){
+            return null;
+        }
+        return getString(mBuffer.getInt(mChunk + 12));
+    }
+
+    @Override
+    public int next() throws XmlPullParserException {
+        if(mBuffer == null){
+            throw new XmlPullParserException("Input not set");
+        }
+        if(mEventType == END_DOCUMENT){
+            return END_DOCUMENT;
+        }
+        if(mPopDepth){
+            mDepth --;
+            mPopDepth = false;
+        }
+        ByteBuffer buffer = this.mBuffer;
+        int position = mNextChunk;
+        while (position + 8 <= mEnd){
+            int type = buffer.getShort(position) & 0xffff;
+            int headerSize = buffer.getShort(position + 2) & 0xffff;
+            int size = buffer.getInt(position + 4);
+            if(size < 8){
+                break;
+            }
+            int extension = position + headerSize;
+            mNextChunk = position + size;
+            if(type == (ChunkType.XML_START_ELEMENT.ID & 0xffff)){
+                onStartElement(position, extension);
+                return mEventType;
+            }
+            if(type == (ChunkType.XML_END_ELEMENT.ID & 0xffff)){
+                mChunk = position;
+                mExtension = extension;
+                mEventType = END_TAG;
+                mPopDepth = true;
+                return END_TAG;
+            }
+            if(type == (ChunkType.XML_CDATA.ID & 0xffff)){
+                mChunk = position;
+                mExtension = extension;
+                mEventType = TEXT;
+                return TEXT;
+            }
+            if(type == (ChunkType.XML_START_NAMESPACE.ID & 0xffff)){
+                pushNamespace(extension);
+            }else if(type == (ChunkType.XML_END_NAMESPACE.ID & 0xffff)){
+                popNamespace();
+            }
+            position = mNextChunk;
+        }
+        mNextChunk = mEnd;
+        mEventType = END_DOCUMENT;
+        mDepth = 0;
+        return END_DOCUMENT;
+    }
+    private void onStartElement(int chunk, int extension){
+        ByteBuffer buffer = this.mBuffer;
+        mChunk = chunk;
+        mExtension = extension;
+        mAttributeStart = extension + (buffer.getShort(extension + 8) & 0xffff);
+        mAttributeSize = buffer.getShort(extension + 10) & 0xffff;
+        mAttributeCount = buffer.getShort(extension + 12) & 0xffff;
+        mIdIndex = buffer.getShort(extension + 14) & 0xffff;
+        mClassIndex = buffer.getShort(extension + 16) & 0xffff;
+        mStyleIndex = buffer.getShort(extension + 18) & 0xffff;
+        int depth = mDepth + 1;
+        ensureDepthCapacity(depth);
+        mNamespaceEnds[depth] = mNamespaceCount;
+        mNamespaceElementCounts[depth] = mPendingNamespaces;
+        mElementExtensions[depth] = extension;
+        mPendingNamespaces = 0;
+        mDepth = depth;
+        mEventType = START_TAG;
+        mIsTagStared = true;
+    }
+    private void ensureDepthCapacity(int depth){
+        if(depth < mNamespaceEnds.length){
+            return;
+        }
+        int length = mNamespaceEnds.length * 2;
+        int[] ends = new int[length];
+        int[] counts = new int[length];
+        int[] extensions = new int[length];
+        System.arraycopy(mNamespaceEnds, 0, ends, 0, mNamespaceEnds.length);
+        System.arraycopy(mNamespaceElementCounts, 0, counts, 0, mNamespaceElementCounts.length);
+        System.arraycopy(mElementExtensions, 0, extensions, 0, mElementExtensions.length);
+        mNamespaceEnds = ends;
+        mNamespaceElementCounts = counts;
+        mElementExtensions = extensions;
+    }
+    private void pushNamespace(int extension){
+        int index = mNamespaceCount * 2;
+        if(index + 2 > mNamespaceData.length){
+            int[] data = new int[mNamespaceData.length * 2];
+            System.arraycopy(mNamespaceData, 0, data, 0, mNamespaceData.length);
+            mNamespaceData = data;
+        }
+        mNamespaceData[index] = mBuffer.getInt(extension);
+        mNamespaceData[index + 1] = mBuffer.getInt(extension + 4);
+        mNamespaceCount ++;
+        mPendingNamespaces ++;
+    }
+    private void popNamespace(){
+        if(mNamespaceCount > 0){
+            mNamespaceCount --;
+        }
+        if(mPendingNamespaces > 0){
+            mPendingNamespaces --;
+        }
+    }
+    @Override
+    public int nextToken() throws XmlPullParserException, IOException {
+        return next();
+    }
+    @Override
+    public int getEventType() throws XmlPullParserException {
+        return mEventType;
+    }
+    @Override
+    public int getDepth() {
+        return mDepth;
+    }
+    @Override
+    public int getLineNumber() {
+        if(mEventType == START_TAG || mEventType == END_TAG || mEventType == TEXT){
+            return mBuffer.getInt(mChunk + 8);
+        }
+        return 0;
+    }
+    @Override
+    public int getColumnNumber() {
+        return 0;
+    }
+    @Override
+    public String getPositionDescription() {
+        return null;
+    }
+
+    @Override
+    public String getText() {
+        if(mEventType == TEXT){
+            String text = getString(mBuffer.getInt(mExtension));
+            if(text == null){
+                text = "";
+            }
+            return XmlSanitizer.escapeSpecialCharacter(text);
+        }
+        if(mEventType == START_TAG || mEventType == END_TAG){
+            return getName();
+        }
+        return null;
+    }
+    String getRawText(){
+        if(mEventType != TEXT){
+            return null;
+        }
+        return getString(mBuffer.getInt(mExtension));
+    }
+    @Override
+    public char[] getTextCharacters(int[] holderForStartAndLength) {
+        String text = getText();
+        if (text == null) {
+            holderForStartAndLength[0] = -1;
+            holderForStartAndLength[1] = -1;
+            return null;
+        }
+        char[] result = text.toCharArray();
+        holderForStartAndLength[0] = 0;
+        holderForStartAndLength[1] = result.length;
+        return result;
+    }
+    @Override
+    public boolean isWhitespace() throws XmlPullParserException {
+        String text = getText();
+        if(text == null){
+            return true;
+        }
+        return text.trim().length() == 0;
+    }
+    @Override
+    public String getNamespace() {
+        int extension = getTagExtension();
+        if(extension < 0){
+            return null;
+        }
+        return getString(mBuffer.getInt(extension));
+    }
+    @Override
+    public String getName() {
+        int extension = getTagExtension();
+        if(extension < 0){
+            return null;
+        }
+        return getString(mBuffer.getInt(extension + 4));
+    }
+    @Override
+    public String getPrefix() {
+        int extension = getTagExtension();
+        if(extension < 0){
+            return null;
+        }
+        return findPrefix(mBuffer.getInt(extension));
+    }
+    /**
+     * Returns extension offset of the current start element chunk. End element chunks
+     * may not carry namespace (e.g. written as -1 by ResXmlDocument), thus end tags
+     * report namespace and name of their start tag.
+     * */
+    private int getTagExtension(){
+        if(mEventType == START_TAG){
+            return mExtension;
+        }
+        if(mEventType == END_TAG && mDepth > 0){
+            return mElementExtensions[mDepth];
+        }
+        return -1;
+    }
+    @Override
+    public boolean isEmptyElementTag() throws XmlPullParserException {
+        if(mEventType != START_TAG){
+            return true;
+        }
+        if(mAttributeCount != 0){
+            return false;
+        }
+        int next = mNextChunk;
+        return next + 2 <= mEnd
+                && (mBuffer.getShort(next) & 0xffff) == (ChunkType.XML_END_ELEMENT.ID & 0xffff);
+    }
+
+    @Override
+    public int getNamespaceCount(int depth) throws XmlPullParserException {
+        if(isCountNamespacesAsAttribute()){
+            return 0;
+        }
+        if(depth > mDepth){
+            throw new IllegalArgumentException("Depth " + depth + " > current " + mDepth);
+        }
+        if(depth <= 0){
+            return 0;
+        }
+        return mNamespaceEnds[depth];
+    }
+    @Override
+    public String getNamespacePrefix(int pos) throws XmlPullParserException {
+        return getString(mNamespaceData[pos * 2]);
+    }
+    @Override
+    public String getNamespaceUri(int pos) throws XmlPullParserException {
+        return getString(mNamespaceData[pos * 2 + 1]);
+    }
+    @Override
+    public String getNamespace(String prefix) {
+        int[] data = this.mNamespaceData;
+        for(int i = mNamespaceCount - 1; i >= 0; i--){
+            if(prefix.equals(getString(data[i * 2]))){
+                return getString(data[i * 2 + 1]);
+            }
+        }
+        return null;
+    }
+    private String findPrefix(int uriReference){
+        if(uriReference == -1){
+            return null;
+        }
+        int[] data = this.mNamespaceData;
+        for(int i = mNamespaceCount - 1; i >= 0; i--){
+            if(data[i * 2 + 1] == uriReference){
+                return getString(data[i * 2]);
+            }
+        }
+        String uri = getString(uriReference);
+        if(uri == null){
+            return null;
+        }
+        for(int i = mNamespaceCount - 1; i >= 0; i--){
+            if(uri.equals(getString(data[i * 2 + 1]))){
+                return getString(data[i * 2]);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int getAttributeCount() {
+        if(mEventType != START_TAG){
+            return -1;
+        }
+        int count = mAttributeCount;
+        if(isCountNamespacesAsAttribute()){
+            count += getElementNamespaceCount();
+        }
+        return count;
+    }
+    @Override
+    public String getAttributeNamespace(int index) {
+        if(processNamespaces){
+            return null;
+        }
+        int offset = getAttributeOffset(index);
+        if(offset < 0){
+            return null;
+        }
+        return getString(mBuffer.getInt(offset));
+    }
+    @Override
+    public String getAttributePrefix(int index) {
+        if(processNamespaces){
+            return null;
+        }
+        int offset = getAttributeOffset(index);
+        if(offset < 0){
+            return null;
+        }
+        return findPrefix(mBuffer.getInt(offset));
+    }
+    @Override
+    public String getAttributeName(int index) {
+        if(isCountNamespacesAsAttribute()){
+            int nsCount = getElementNamespaceCount();
+            if(index < nsCount){
+                return "xmlns:" + getString(mNamespaceData[getElementNamespaceIndex(index) * 2]);
+            }
+        }
+        int offset = getAttributeOffset(index);
+        if(offset < 0){
+            return null;
+        }
+        return decodeAttributeName(offset, processNamespaces);
+    }
+    @Override
+    public String getAttributeValue(int index) {
+        if(isCountNamespacesAsAttribute()){
+            int nsCount = getElementNamespaceCount();
+            if(index < nsCount){
+                return getString(mNamespaceData[getElementNamespaceIndex(index) * 2 + 1]);
+            }
+        }
+        int offset = getAttributeOffset(index);
+        if(offset < 0){
+            return null;
+        }
+        return decodeAttributeValue(offset);
+    }
+    @Override
+    public String getAttributeValue(String namespace, String name) {
+        int offset = findAttribute(namespace, name);
+        if(offset < 0){
+            return null;
+        }
+        return decodeAttributeValue(offset);
+    }
+    @Override
+    public String getAttributeType(int index) {
+        return "CDATA";
+    }
+    @Override
+    public boolean isAttributeDefault(int index) {
+        return false;
+    }
+    @Override
+    public int getAttributeNameResource(int index) {
+        int offset = getAttributeOffset(index);
+        if(offset < 0){
+            return 0;
+        }
+        return getNameResourceId(offset);
+    }
+    /**
+     * Returns {@link ValueType} byte of the attribute at index
+     * */
+    public int getAttributeValueType(int index){
+        int offset = getAttributeOffset(index);
+        if(offset < 0){
+            return 0;
+        }
+        return mBuffer.get(offset + 15) & 0xff;
+    }
+    /**
+     * Returns raw data of the attribute at index
+     * */
+    public int getAttributeValueData(int index){
+        int offset = getAttributeOffset(index);
+        if(offset < 0){
+            return 0;
+        }
+        return mBuffer.getInt(offset + 16);
+    }
+
+    int getRawAttributeCount(){
+        if(mEventType != START_TAG){
+            return 0;
+        }
+        return mAttributeCount;
+    }
+    int getRawAttributeNameResource(int index){
+        return getNameResourceId(mAttributeStart + index * mAttributeSize);
+    }
+    String getRawAttributeName(int index){
+        return getString(mBuffer.getInt(mAttributeStart + index * mAttributeSize + 4));
+    }
+    int getRawAttributeValueType(int index){
+        return mBuffer.get(mAttributeStart + index * mAttributeSize + 15) & 0xff;
+    }
+    int getRawAttributeValueData(int index){
+        return mBuffer.getInt(mAttributeStart + index * mAttributeSize + 16);
+    }
+    int getAttributeNamespaceReference(int index){
+        int offset = getAttributeOffset(index);
+        if(offset < 0){
+            return -1;
+        }
+        return mBuffer.getInt(offset);
+    }
+    int getNamespaceUriReference(int pos){
+        return mNamespaceData[pos * 2 + 1];
+    }
+    String getAttributeRawString(int index){
+        int offset = getAttributeOffset(index);
+        if(offset < 0){
+            return null;
+        }
+        return getString(mBuffer.getInt(offset + 16));
+    }
+    ResourceEntry resolveAttributeName(int index){
+        int offset = getAttributeOffset(index);
+        if(offset < 0){
+            return null;
+        }
+        return resolve(getNameResourceId(offset));
+    }
+
+    @Override
+    public int getAttributeListValue(String namespace, String attribute, String[] options, int defaultValue) {
+        return getListValue(findAttribute(namespace, attribute), options, defaultValue);
+    }
+    @Override
+    public boolean getAttributeBooleanValue(String namespace, String attribute, boolean defaultValue) {
+        return getBooleanValue(findAttribute(namespace, attribute), defaultValue);
+    }
+    @Override
+    public int getAttributeResourceValue(String namespace, String attribute, int defaultValue) {
+        return getResourceValue(findAttribute(namespace, attribute), defaultValue);
+    }
+    @Override
+    public int getAttributeIntValue(String namespace, String attribute, int defaultValue) {
+        int offset = findAttribute(namespace, attribute);
+        if(offset < 0){
+            return defaultValue;
+        }
+        ValueType valueType = getValueType(offset);
+        if(valueType == ValueType.DEC || valueType == ValueType.HEX){
+            return mBuffer.getInt(offset + 16);
+        }
+        return defaultValue;
+    }
+    @Override
+    public int getAttributeUnsignedIntValue(String namespace, String attribute, int defaultValue) {
+        int offset = findAttribute(namespace, attribute);
+        if(offset < 0 || getValueType(offset) != ValueType.DEC){
+            return defaultValue;
+        }
+        return mBuffer.getInt(offset + 16);
+    }
+    @Override
+    public float getAttributeFloatValue(String namespace, String attribute, float defaultValue) {
+        return getFloatValue(findAttribute(namespace, attribute), defaultValue);
+    }
+    @Override
+    public int getAttributeListValue(int index, String[] options, int defaultValue) {
+        return getListValue(getAttributeOffset(index), options, defaultValue);
+    }
+    @Override
+    public boolean getAttributeBooleanValue(int index, boolean defaultValue) {
+        return getBooleanValue(getAttributeOffset(index), defaultValue);
+    }
+    @Override
+    public int getAttributeResourceValue(int index, int defaultValue) {
+        return getResourceValue(getAttributeOffset(index), defaultValue);
+    }
+    @Override
+    public int getAttributeIntValue(int index, int defaultValue) {
+        int offset = getAttributeOffset(index);
+        if(offset < 0){
+            return defaultValue;
+        }
+        return mBuffer.getInt(offset + 16);
+    }
+    @Override
+    public int getAttributeUnsignedIntValue(int index, int defaultValue) {
+        return getAttributeIntValue(index, defaultValue);
+    }
+    @Override
+    public float getAttributeFloatValue(int index, float defaultValue) {
+        return getFloatValue(getAttributeOffset(index), defaultValue);
+    }
+    private int getListValue(int offset, String[] options, int defaultValue){
+        if(offset < 0){
+            return defaultValue;
+        }
+        String value = decodeAttributeValue(offset);
+        for(int i = 0; i < options.length; i++){
+            if(options[i].equals(value)){
+                return i;
+            }
+        }
+        return defaultValue;
+    }
+    private boolean getBooleanValue(int offset, boolean defaultValue){
+        if(offset < 0 || getValueType(offset) != ValueType.BOOLEAN){
+            return defaultValue;
+        }
+        return mBuffer.getInt(offset + 16) != 0;
+    }
+    private int getResourceValue(int offset, int defaultValue){
+        if(offset < 0){
+            return defaultValue;
+        }
+        ValueType valueType = getValueType(offset);
+        if(valueType == ValueType.ATTRIBUTE
+                || valueType == ValueType.REFERENCE
+                || valueType == ValueType.DYNAMIC_ATTRIBUTE
+                || valueType == ValueType.DYNAMIC_REFERENCE){
+            return mBuffer.getInt(offset + 16);
+        }
+        return defaultValue;
+    }
+    private float getFloatValue(int offset, float defaultValue){
+        if(offset < 0 || getValueType(offset) != ValueType.FLOAT){
+            return defaultValue;
+        }
+        return Float.intBitsToFloat(mBuffer.getInt(offset + 16));
+    }
+
+    @Override
+    public String getIdAttribute() {
+        return getSpecialAttributeName(mIdIndex);
+    }
+    @Override
+    public String getClassAttribute() {
+        return getSpecialAttributeName(mClassIndex);
+    }
+    @Override
+    public int getIdAttributeResourceValue(int defaultValue) {
+        int offset = getSpecialAttributeOffset(mIdIndex);
+        if(offset < 0){
+            return defaultValue;
+        }
+        return getNameResourceId(offset);
+    }
+    @Override
+    public int getStyleAttribute() {
+        int offset = getSpecialAttributeOffset(mStyleIndex);
+        if(offset < 0){
+            return 0;
+        }
+        return getNameResourceId(offset);
+    }
+    private String getSpecialAttributeName(int index){
+        int offset = getSpecialAttributeOffset(index);
+        if(offset < 0){
+            return null;
+        }
+        return getString(mBuffer.getInt(offset + 4));
+    }
+    private int getSpecialAttributeOffset(int index){
+        if(mEventType != START_TAG || index == 0 || index > mAttributeCount){
+            return -1;
+        }
+        return mAttributeStart + (index - 1) * mAttributeSize;
+    }
+
+    private int getAttributeOffset(int index){
+        if(mEventType != START_TAG){
+            return -1;
+        }
+        if(isCountNamespacesAsAttribute()){
+            index = index - getElementNamespaceCount();
+        }
+        if(index < 0 || index >= mAttributeCount){
+            return -1;
+        }
+        return mAttributeStart + index * mAttributeSize;
+    }
+    private int findAttribute(String namespace, String name){
+        if(mEventType != START_TAG){
+            return -1;
+        }
+        ByteBuffer buffer = this.mBuffer;
+        int count = mAttributeCount;
+        for(int i = 0; i < count; i++){
+            int offset = mAttributeStart + i * mAttributeSize;
+            if(!equalsString(name, buffer.getInt(offset + 4))){
+                continue;
+            }
+            if(equalsString(namespace, buffer.getInt(offset))){
+                return offset;
+            }
+        }
+        return -1;
+    }
+    private boolean equalsString(String text, int reference){
+        String str = getString(reference);
+        if(text == null){
+            return str == null;
+        }
+        return text.equals(str);
+    }
+    private int getElementNamespaceCount(){
+        if(mEventType != START_TAG){
+            return 0;
+        }
+        return mNamespaceElementCounts[mDepth];
+    }
+    private int getElementNamespaceIndex(int index){
+        int depth = mDepth;
+        return mNamespaceEnds[depth] - mNamespaceElementCounts[depth] + index;
+    }
+    private int getNameResourceId(int offset){
+        int reference = mBuffer.getInt(offset + 4);
+        if(reference < 0 || reference >= mResourceMapCount){
+            return 0;
+        }
+        return mBuffer.getInt(mResourceMapStart + reference * 4);
+    }
+    private ValueType getValueType(int offset){
+        return ValueType.valueOf(mBuffer.get(offset + 15));
+    }
+    private String decodeAttributeName(int offset, boolean includePrefix){
+        int resourceId = getNameResourceId(offset);
+        if(resourceId == 0){
+            return getString(mBuffer.getInt(offset + 4));
+        }
+        ResourceEntry resourceEntry = resolve(resourceId);
+        String name;
+        if(resourceEntry == null || !resourceEntry.isDeclared()){
+            name = ValueCoder.decodeUnknownNameId(resourceId);
+        }else {
+            name = resourceEntry.getName();
+        }
+        if(includePrefix && name != null){
+            String prefix = findPrefix(mBuffer.getInt(offset));
+            if(prefix != null){
+                name = prefix + ":" + name;
+            }
+        }
+        return name;
+    }
+    private String decodeAttributeValue(int offset){
+        ValueType valueType = getValueType(offset);
+        if(valueType == null){
+            return null;
+        }
+        int data = mBuffer.getInt(offset + 16);
+        if(valueType == ValueType.STRING){
+            return XmlSanitizer.escapeSpecialCharacter(getString(data));
+        }
+        if(AttributeDataFormat.INTEGER.contains(valueType)){
+            ResourceEntry attr = resolve(getNameResourceId(offset));
+            if(attr != null){
+                String value = attr.decodeAttributeData(data);
+                if(value != null){
+                    return value;
+                }
+            }
+        }
+        if(valueType.isReference()){
+            PackageBlock packageBlock = getCurrentPackage();
+            if(packageBlock != null && packageBlock.getTableBlock() != null){
+                return ValueCoder.decodeReference(packageBlock, valueType, data);
+            }
+            if(data == 0){
+                return valueType == ValueType.ATTRIBUTE ? "?null" : "@null";
+            }
+            return ValueCoder.decodeUnknownResourceId(valueType == ValueType.REFERENCE, data);
+        }
+        return ValueCoder.decode(valueType, data);
+    }
+    private ResourceEntry resolve(int resourceId){
+        PackageBlock packageBlock = getCurrentPackage();
+        if(resourceId == 0 || packageBlock == null){
+            return null;
+        }
+        TableBlock tableBlock = packageBlock.getTableBlock();
+        if(tableBlock == null){
+            return null;
+        }
+        return tableBlock.getResource(packageBlock, resourceId);
+    }
+
+    /**
+     * Returns string of the pool at index, decoded on first access
+     * */
+    public String getString(int index){
+        if(index < 0 || index >= mStringCount){
+            return null;
+        }
+        String str = mStringCache[index];
+        if(str == null){
+            str = decodeString(index);
+            mStringCache[index] = str;
+        }
+        return str;
+    }
+    public int getStringCount(){
+        return mStringCount;
+    }
+    private String decodeString(int index){
+        ByteBuffer buffer = this.mBuffer;
+        int position = mStringsStart + buffer.getInt(mStringOffsets + index * 4);
+        int start;
+        int length;
+        if(mUtf8){
+            position += (buffer.get(position) & 0x80) != 0 ? 2 : 1;
+            int value = buffer.get(position) & 0xff;
+            position ++;
+            if((value & 0x80) != 0){
+                value = ((value & 0x7f) << 8) | (buffer.get(position) & 0xff);
+                position ++;
+            }
+            start = position;
+            length = value;
+        }else {
+            int value = buffer.getShort(position) & 0xffff;
+            position += 2;
+            if((value & 0x8000) != 0){
+                value = ((value & 0x7fff) << 16) | (buffer.getShort(position) & 0xffff);
+                position += 2;
+            }
+            start = position;
+            length = value * 2;
+        }
+        if(length == 0){
+            return "";
+        }
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(start + length);
+        slice.position(start);
+        try {
+            CharsetDecoder decoder = mUtf8 ? mUtf8Decoder : mUtf16Decoder;
+            CharBuffer charBuffer = decoder.decode(slice);
+            return charBuffer.toString();
+        } catch (CharacterCodingException ex) {
+            slice.position(start);
+            if(!mUtf8){
+                return StandardCharsets.UTF_16LE.decode(slice).toString();
+            }
+            try {
+                return ThreeByteCharsetDecoder.INSTANCE.decode(slice).toString();
+            } catch (CharacterCodingException exception) {
+                slice.position(start);
+                return StandardCharsets.UTF_8.decode(slice).toString();
+            }
+        }
+    }
+
+    @Override
+    public void setFeature(String name, boolean state) throws XmlPullParserException {
+        boolean changed;
+        if(FEATURE_PROCESS_NAMESPACES.equals(name)) {
+            changed = processNamespaces != state;
+            processNamespaces = state;
+        }else if(FEATURE_REPORT_NAMESPACE_ATTRIBUTES.equals(name)) {
+            changed = reportNamespaceAttrs != state;
+            reportNamespaceAttrs = state;
+        }else {
+            throw new XmlPullParserException("Unsupported feature: " + name);
+        }
+        if(changed && mIsTagStared){
+            throw new XmlPullParserException("Feature changed during parsing: "
+                    + name + ", state=" + state);
+        }
+    }
+    @Override
+    public boolean getFeature(String name) {
+        if(FEATURE_PROCESS_NAMESPACES.equals(name)) {
+            return processNamespaces;
+        }else if(FEATURE_REPORT_NAMESPACE_ATTRIBUTES.equals(name)) {
+            return reportNamespaceAttrs;
+        }
+        return false;
+    }
+    private boolean isCountNamespacesAsAttribute(){
+        return processNamespaces & reportNamespaceAttrs;
+    }
+    @Override
+    public void setProperty(String name, Object value) throws XmlPullParserException {
+    }
+    @Override
+    public Object getProperty(String name) {
+        return null;
+    }
+    @Override
+    public void setInput(Reader in) throws XmlPullParserException {
+        throw new XmlPullParserException("Can't parse binary xml from reader");
+    }
+    @Override
+    public void setInput(InputStream inputStream, String inputEncoding) throws XmlPullParserException {
+        try {
+            setInput(readFully(inputStream));
+        } catch (IOException exception) {
+            XmlPullParserException pullParserException = new XmlPullParserException(exception.getMessage());
+            pullParserException.initCause(exception);
+            throw pullParserException;
+        }
+    }
+    @Override
+    public String getInputEncoding() {
+        return "UTF-8";
+    }
+    @Override
+    public void defineEntityReplacementText(String entityName, String replacementText) throws XmlPullParserException {
+    }
+    @Override
+    public void require(int type, String namespace, String name) throws XmlPullParserException, IOException {
+        if (type != this.getEventType()
+                || (namespace != null && !namespace.equals(getNamespace()))
+                || (name != null && !name.equals(getName()))) {
+            throw new XmlPullParserException(
+                    "expected: " + TYPES[type] + " {" + namespace + "}" + name, this, null);
+        }
+    }
+    @Override
+    public String nextText() throws XmlPullParserException, IOException {
+        if (getEventType() != START_TAG) {
+            throw new XmlPullParserException("precondition: START_TAG", this, null);
+        }
+        int event = next();
+        if(event == TEXT){
+            String text = getText();
+            event = next();
+            if(event != END_TAG){
+                throw new XmlPullParserException("END_TAG expected", this, null);
+            }
+            return text;
+        }
+        if(event == END_TAG){
+            return "";
+        }
+        throw new XmlPullParserException("parser must be on START_TAG or TEXT to read text", this, null);
+    }
+    @Override
+    public int nextTag() throws XmlPullParserException, IOException {
+        int event = next();
+        if(event == TEXT && isWhitespace()){
+            event = next();
+        }
+        if (event != START_TAG && event != END_TAG) {
+            throw new XmlPullParserException("expected start or end tag", this, null);
+        }
+        return event;
+    }
+
+    static byte[] readFully(InputStream inputStream) throws IOException {
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) > 0){
+                outputStream.write(buffer, 0, read);
+            }
+            return outputStream.toByteArray();
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    private static final int FLAG_UTF8 = 1 << 8;
+}
@@ -186,7 +186,7 @@ public class ResXmlTextNode extends ResXmlNode {
         return "line = " + getLineNumber() + ", \"" + getText() + "\"";
     }
 
-    private static String decodeEntityRef(String entityRef) {
+    static String decodeEntityRef(String entityRef) {
         if(entityRef == null){
             return "";
         }
@@ -208,7 +208,7 @@ public class ResXmlTextNode extends ResXmlNode {
         return event == XmlPullParser.TEXT
                 || event == XmlPullParser.ENTITY_REF;
     }
-    private static boolean isIndent(String text){
+    static boolean isIndent(String text){
         if(text.length() == 0){
             return true;
         }
@@ -0,0 +1,281 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.arsc.chunk.xml;
+
+import com.android.org.kxml2.io.KXmlSerializer;
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.coder.XmlSanitizer;
+import com.reandroid.arsc.io.BlockReader;
+import com.reandroid.arsc.model.ResourceEntry;
+import com.reandroid.arsc.value.ValueType;
+import com.reandroid.utils.io.IOUtil;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes binary xml bytes to text xml in a single pass, events of {@link ResXmlStreamParser}
+ * are written directly to serializer without building {@link ResXmlDocument} or
+ * {@link com.reandroid.xml.XMLDocument}. The output is the same as
+ * {@link ResXmlDocument#serialize(org.xmlpull.v1.XmlSerializer)}. Files where
+ * {@link ResXmlDocument#autoSetAttributeNamespaces()} would fix a namespace (e.g. stripped
+ * namespaces) are found by a quick pre-scan and decoded through {@link ResXmlDocument}.
+ * <br />
+ * Parser, serializer and their buffers are reused between calls, thus an instance
+ * is not thread safe.
+ * */
+public class ResXmlTranscoder {
+    private final ResXmlStreamParser parser;
+    private final KXmlSerializer serializer;
+    private boolean[] mIndents;
+    private boolean[] mIndentChanges;
+
+    public ResXmlTranscoder(PackageBlock packageBlock){
+        this.parser = new ResXmlStreamParser(packageBlock);
+        this.serializer = new KXmlSerializer();
+        this.mIndents = new boolean[16];
+        this.mIndentChanges = new boolean[16];
+    }
+    public ResXmlTranscoder(){
+        this(null);
+    }
+
+    public PackageBlock getPackageBlock(){
+        return parser.getCurrentPackage();
+    }
+    public void setPackageBlock(PackageBlock packageBlock){
+        parser.setCurrentPackage(packageBlock);
+    }
+    public void transcode(InputStream inputStream, File file) throws IOException {
+        File dir = file.getParentFile();
+        if(dir != null && !dir.exists()){
+            dir.mkdirs();
+        }
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8);
+        try {
+            transcode(inputStream, writer);
+        }finally {
+            IOUtil.close(writer);
+        }
+    }
+    public void transcode(InputStream inputStream, Writer writer) throws IOException {
+        transcode(ResXmlStreamParser.readFully(inputStream), writer);
+    }
+    public void transcode(byte[] bytes, Writer writer) throws IOException {
+        transcode(ByteBuffer.wrap(bytes), writer);
+    }
+    /**
+     * Writes xml chunk starting at current position of the buffer, the writer is flushed
+     * but not closed
+     * */
+    public void transcode(ByteBuffer buffer, Writer writer) throws IOException {
+        boolean streamable;
+        try {
+            parser.setInput(buffer);
+            streamable = hasResolvedNamespaces();
+            parser.setInput(buffer);
+        } catch (XmlPullParserException exception) {
+            parser.close();
+            throw toIOException(exception);
+        }
+        if(streamable){
+            transcode(writer);
+        }else {
+            parser.close();
+            transcodeDocument(buffer, writer);
+        }
+    }
+    public String transcode(byte[] bytes) throws IOException {
+        StringWriter writer = new StringWriter();
+        transcode(bytes, writer);
+        return writer.toString();
+    }
+    private void transcodeDocument(ByteBuffer buffer, Writer writer) throws IOException {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        ResXmlDocument document = new ResXmlDocument();
+        document.setPackageBlock(getPackageBlock());
+        document.readBytes(new BlockReader(bytes));
+        KXmlSerializer serializer = this.serializer;
+        try {
+            serializer.setOutput(writer);
+            document.serialize(serializer);
+        } finally {
+            serializer.setOutput((Writer) null);
+        }
+    }
+    /**
+     * Scans all start tags and returns false if any attribute namespace differs from what
+     * {@link ResXmlAttribute#autoSetNamespace()} sets, i.e. the document would be changed
+     * before serializing
+     * */
+    private boolean hasResolvedNamespaces() throws XmlPullParserException, IOException {
+        ResXmlStreamParser parser = this.parser;
+        parser.setFeature(XmlPullParser.FEATURE_PROCESS_NAMESPACES, false);
+        int event = parser.next();
+        while (event != XmlPullParser.END_DOCUMENT){
+            if(event == XmlPullParser.START_TAG){
+                int count = parser.getAttributeCount();
+                for(int i = 0; i < count; i++){
+                    if(!isResolvedNamespace(i)){
+                        return false;
+                    }
+                }
+            }
+            event = parser.next();
+        }
+        return true;
+    }
+    private boolean isResolvedNamespace(int index) throws XmlPullParserException {
+        ResXmlStreamParser parser = this.parser;
+        int reference = parser.getAttributeNamespaceReference(index);
+        if(parser.getAttributeNameResource(index) == 0){
+            return reference == -1;
+        }
+        ResourceEntry nameEntry = parser.resolveAttributeName(index);
+        if(nameEntry == null){
+            return true;
+        }
+        PackageBlock packageBlock = nameEntry.getPackageBlock();
+        String uri = packageBlock.getUri();
+        String prefix = packageBlock.getPrefix();
+        for(int i = parser.getNamespaceCount(parser.getDepth()) - 1; i >= 0; i--){
+            if(uri.equals(parser.getNamespaceUri(i))
+                    && prefix.equals(parser.getNamespacePrefix(i))){
+                return reference == parser.getNamespaceUriReference(i);
+            }
+        }
+        return false;
+    }
+    private void transcode(Writer writer) throws IOException {
+        ResXmlStreamParser parser = this.parser;
+        KXmlSerializer serializer = this.serializer;
+        try {
+            parser.setFeature(XmlPullParser.FEATURE_PROCESS_NAMESPACES, false);
+            serializer.setOutput(writer);
+            ResXmlElement.setIndent(serializer, true);
+            serializer.startDocument("utf-8", null);
+            int event = parser.next();
+            while (event != XmlPullParser.END_DOCUMENT){
+                if(event == XmlPullParser.START_TAG){
+                    onStartTag();
+                }else if(event == XmlPullParser.TEXT){
+                    onText();
+                }else if(event == XmlPullParser.END_TAG){
+                    onEndTag();
+                }
+                event = parser.next();
+            }
+            serializer.endDocument();
+        } catch (XmlPullParserException exception) {
+            throw toIOException(exception);
+        } finally {
+            parser.close();
+            serializer.setOutput((Writer) null);
+        }
+    }
+    private void onStartTag() throws IOException, XmlPullParserException {
+        ResXmlStreamParser parser = this.parser;
+        KXmlSerializer serializer = this.serializer;
+        int depth = parser.getDepth();
+        int end = parser.getNamespaceCount(depth);
+        for(int i = parser.getNamespaceCount(depth - 1); i < end; i++){
+            serializer.setPrefix(parser.getNamespacePrefix(i), parser.getNamespaceUri(i));
+        }
+        int count = parser.getAttributeCount();
+        String comment = parser.getComment();
+        if(comment != null){
+            serializer.comment(comment);
+        }
+        boolean indent = serializer.getFeature(FEATURE_INDENT_OUTPUT);
+        ResXmlElement.setIndent(serializer, indent);
+        ensureDepth(depth);
+        mIndents[depth] = indent;
+        mIndentChanges[depth] = indent;
+        serializer.startTag(parser.getNamespace(), parser.getName());
+        for(int i = 0; i < count; i++){
+            writeAttribute(i);
+        }
+    }
+    private void writeAttribute(int index) throws IOException {
+        ResXmlStreamParser parser = this.parser;
+        int resourceId = parser.getAttributeNameResource(index);
+        ResourceEntry nameEntry = null;
+        String uri;
+        if(resourceId == 0){
+            uri = null;
+        }else {
+            nameEntry = parser.resolveAttributeName(index);
+            if(nameEntry != null){
+                uri = nameEntry.getPackageBlock().getUri();
+            }else {
+                uri = parser.getAttributeNamespace(index);
+            }
+        }
+        String value;
+        if(parser.getAttributeValueType(index) == (ValueType.STRING.getByte() & 0xff)){
+            value = XmlSanitizer.escapeSpecialCharacter(parser.getAttributeRawString(index));
+            if(nameEntry == null){
+                value = XmlSanitizer.escapeDecodedValue(value);
+            }
+        }else {
+            value = parser.getAttributeValue(index);
+        }
+        serializer.attribute(uri, parser.getAttributeName(index), value);
+    }
+    private void onText() throws IOException {
+        int depth = parser.getDepth();
+        if(mIndentChanges[depth]){
+            mIndentChanges[depth] = false;
+            ResXmlElement.setIndent(serializer, false);
+        }
+        String text = parser.getRawText();
+        if(text != null){
+            serializer.text(text);
+        }
+    }
+    private void onEndTag() throws IOException {
+        ResXmlStreamParser parser = this.parser;
+        serializer.endTag(parser.getNamespace(), parser.getName());
+        int depth = parser.getDepth();
+        if(mIndents[depth] != mIndentChanges[depth]){
+            ResXmlElement.setIndent(serializer, true);
+        }
+    }
+    private void ensureDepth(int depth){
+        if(depth < mIndents.length){
+            return;
+        }
+        int length = depth * 2;
+        boolean[] indents = new boolean[length];
+        boolean[] changes = new boolean[length];
+        System.arraycopy(mIndents, 0, indents, 0, mIndents.length);
+        System.arraycopy(mIndentChanges, 0, changes, 0, mIndentChanges.length);
+        mIndents = indents;
+        mIndentChanges = changes;
+    }
+
+    private static IOException toIOException(XmlPullParserException exception){
+        IOException ioException = new IOException(exception.getMessage());
+        ioException.initCause(exception);
+        return ioException;
+    }
+
+    private static final String FEATURE_INDENT_OUTPUT = "http://xmlpull.org/v1/doc/features.html#indent-output";
+}
@@ -34,8 +34,10 @@ import org.xmlpull.v1.XmlSerializer;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.function.Predicate;
 
@@ -207,6 +209,33 @@ public class XmlCoder {
             encode(parser, typeBlock);
         }
         public void encode(XmlPullParser parser, TypeBlock typeBlock) throws IOException, XmlPullParserException {
+            startResources(parser);
+            while (XMLUtil.ensureStartTag(parser) == XmlPullParser.START_TAG){
+                XMLElement element = XMLElement.parseElement(parser);
+                encodeEntry(element, typeBlock);
+            }
+            IOUtil.close(parser);
+        }
+        /**
+         * Parses all entry elements of values xml without touching any table block,
+         * thus it is safe to call concurrently. The result is encoded by
+         * {@link #encodeEntries(List, TypeBlock)}
+         * */
+        public List<XMLElement> parseEntries(XmlPullParser parser) throws IOException, XmlPullParserException {
+            startResources(parser);
+            List<XMLElement> results = new ArrayList<>();
+            while (XMLUtil.ensureStartTag(parser) == XmlPullParser.START_TAG){
+                results.add(XMLElement.parseElement(parser));
+            }
+            IOUtil.close(parser);
+            return results;
+        }
+        public void encodeEntries(List<XMLElement> entryElements, TypeBlock typeBlock) throws IOException {
+            for(XMLElement element : entryElements){
+                encodeEntry(element, typeBlock);
+            }
+        }
+        private void startResources(XmlPullParser parser) throws IOException, XmlPullParserException {
             int event = parser.getEventType();
             boolean documentStarted = false;
             if(event == XmlPullParser.START_DOCUMENT){
@@ -223,11 +252,6 @@ public class XmlCoder {
             }else if(documentStarted){
                 throw new XmlEncodeException("Expecting <resources> tag but found: " + parser.getName());
             }
-            while (XMLUtil.ensureStartTag(parser) == XmlPullParser.START_TAG){
-                XMLElement element = XMLElement.parseElement(parser);
-                encodeEntry(element, typeBlock);
-            }
-            IOUtil.close(parser);
         }
         public void encodeEntry(XMLElement entryElement, TypeBlock typeBlock) throws IOException{
             Entry entry = typeBlock.getOrCreateDefinedEntry(
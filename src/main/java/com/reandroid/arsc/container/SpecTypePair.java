@@ -34,6 +34,8 @@ import com.reandroid.arsc.value.Entry;
 import com.reandroid.arsc.value.ResConfig;
 import com.reandroid.json.JSONConvert;
 import com.reandroid.json.JSONObject;
+import com.reandroid.json.JSONReader;
+import com.reandroid.json.JSONWriter;
 import com.reandroid.utils.collection.MergingIterator;
 import org.xmlpull.v1.XmlSerializer;
 
@@ -47,6 +49,9 @@ public class SpecTypePair extends BlockContainer<Block>
     private final Block[] mChildes;
     private final SpecBlock mSpecBlock;
     private final TypeBlockArray mTypeBlockArray;
+    private Map<String, Integer> mNameIndex;
+    private Map<Integer, String> mIndexedNames;
+    private TypeBlock[] mNameIndexedTypes;
 
     public SpecTypePair(SpecBlock specBlock, TypeBlockArray typeBlockArray){
         this.mSpecBlock = specBlock;
@@ -185,6 +190,10 @@ public class SpecTypePair extends BlockContainer<Block>
             typeBlock.linkSpecStringsInternal(specStringPool);
         }
     }
+    public void buildIndexes(){
+        getNameIndex();
+        getTypeBlockArray().buildIndexes();
+    }
     public void destroy(){
         getSpecBlock().destroy();
         getTypeBlockArray().destroy();
@@ -211,6 +220,13 @@ public class SpecTypePair extends BlockContainer<Block>
         return result;
     }
     public Entry getAnyEntry(String name){
+        int entryId = getEntryIdByName(name);
+        if(entryId >= 0){
+            Entry entry = getAnyEntry((short) entryId);
+            if(entry != null && name.equals(entry.getName())){
+                return entry;
+            }
+        }
         TypeBlock[] types = getTypeBlockArray().getChildes();
         for(int i = 0; i < types.length; i++){
             TypeBlock typeBlock = types[i];
@@ -227,6 +243,102 @@ public class SpecTypePair extends BlockContainer<Block>
     public Entry getEntry(ResConfig resConfig, String entryName){
         return getTypeBlockArray().getEntry(resConfig, entryName);
     }
+    /**
+     * Returns id of the entry named by the given name using a lazily built name index,
+     * returns ENTRY_ID_UNKNOWN if the name is not indexed or ENTRY_ID_AMBIGUOUS if the
+     * name is used by more than one entry id. The indexed id is verified to have an entry
+     * of the same name, else the index is rebuilt.
+     * */
+    public int getEntryIdByName(String name){
+        if(name == null){
+            return ENTRY_ID_UNKNOWN;
+        }
+        Integer entryId = getNameIndex().get(name);
+        if(entryId != null && entryId >= 0 && !hasEntryName(entryId, name)){
+            // renamed out of the tracked paths
+            this.mNameIndex = null;
+            entryId = getNameIndex().get(name);
+        }
+        if(entryId == null){
+            return ENTRY_ID_UNKNOWN;
+        }
+        return entryId;
+    }
+    private boolean hasEntryName(int entryId, String name){
+        for(TypeBlock typeBlock : getTypeBlockArray().getChildes()){
+            if(typeBlock == null){
+                continue;
+            }
+            Entry entry = typeBlock.getEntry((short) entryId);
+            if(entry != null && name.equals(entry.getName())){
+                return true;
+            }
+        }
+        return false;
+    }
+    public void onEntryNameChanged(Entry entry){
+        Map<String, Integer> nameIndex = this.mNameIndex;
+        if(nameIndex == null){
+            return;
+        }
+        if(mNameIndexedTypes != getTypeBlockArray().getChildes()){
+            this.mNameIndex = null;
+            return;
+        }
+        int entryId = entry.getId();
+        String name = entry.getName();
+        String oldName;
+        if(name == null){
+            oldName = mIndexedNames.remove(entryId);
+        }else {
+            oldName = mIndexedNames.put(entryId, name);
+        }
+        if(oldName != null && !oldName.equals(name)){
+            Integer exist = nameIndex.get(oldName);
+            if(exist != null && exist == entryId){
+                nameIndex.remove(oldName);
+            }
+        }
+        addToNameIndex(nameIndex, name, entryId);
+    }
+    private Map<String, Integer> getNameIndex(){
+        Map<String, Integer> nameIndex = this.mNameIndex;
+        TypeBlock[] types = getTypeBlockArray().getChildes();
+        if(nameIndex != null && mNameIndexedTypes == types){
+            return nameIndex;
+        }
+        nameIndex = new HashMap<>();
+        Map<Integer, String> indexedNames = new HashMap<>();
+        for(TypeBlock typeBlock : types){
+            if(typeBlock == null){
+                continue;
+            }
+            for(Entry entry : typeBlock.getEntryArray().getChildes()){
+                if(entry == null){
+                    continue;
+                }
+                String name = entry.getName();
+                if(name != null){
+                    int entryId = entry.getId();
+                    addToNameIndex(nameIndex, name, entryId);
+                    indexedNames.put(entryId, name);
+                }
+            }
+        }
+        this.mIndexedNames = indexedNames;
+        this.mNameIndex = nameIndex;
+        this.mNameIndexedTypes = types;
+        return nameIndex;
+    }
+    private static void addToNameIndex(Map<String, Integer> nameIndex, String name, int entryId){
+        if(name == null){
+            return;
+        }
+        Integer exist = nameIndex.putIfAbsent(name, entryId);
+        if(exist != null && exist != entryId){
+            nameIndex.put(name, ENTRY_ID_AMBIGUOUS);
+        }
+    }
     public void sortTypes(){
         getTypeBlockArray().sort();
     }
@@ -425,6 +537,27 @@ public class SpecTypePair extends BlockContainer<Block>
         getSpecBlock().fromJson(json.getJSONObject(SpecBlock.NAME_spec));
         getTypeBlockArray().fromJson(json.optJSONArray(NAME_types));
     }
+    public void fromJson(JSONReader reader) {
+        reader.beginObject();
+        fromJsonMembers(reader);
+        reader.endObject();
+    }
+    /**
+     * Reads members of json object, the reader should be positioned after the
+     * beginning of the object. Types are read one by one.
+     * */
+    public void fromJsonMembers(JSONReader reader) {
+        while (reader.hasNext()){
+            String name = reader.nextName();
+            if(SpecBlock.NAME_spec.equals(name)){
+                getSpecBlock().fromJson(reader.readJSONObject());
+            }else if(NAME_types.equals(name) && reader.peek() == JSONReader.Token.BEGIN_ARRAY){
+                getTypeBlockArray().fromJson(reader);
+            }else {
+                reader.skipValue();
+            }
+        }
+    }
     public JSONObject toJson(boolean specOnly) {
         JSONObject jsonObject=new JSONObject();
         jsonObject.put(SpecBlock.NAME_spec, getSpecBlock().toJson());
@@ -433,6 +566,13 @@ public class SpecTypePair extends BlockContainer<Block>
         }
         return jsonObject;
     }
+    public void writeJson(JSONWriter writer) {
+        writer.object();
+        writer.key(SpecBlock.NAME_spec).value(getSpecBlock().toJson());
+        writer.key(NAME_types);
+        getTypeBlockArray().writeJson(writer);
+        writer.endObject();
+    }
     public void merge(SpecTypePair typePair){
         if(typePair==null||typePair==this){
             return;
@@ -466,4 +606,7 @@ public class SpecTypePair extends BlockContainer<Block>
 
     public static final String NAME_types = "types";
     public static final String NAME_sparse_types = "sparse_types";
+
+    public static final int ENTRY_ID_UNKNOWN = -1;
+    public static final int ENTRY_ID_AMBIGUOUS = -2;
 }
@@ -36,6 +36,9 @@ public abstract class BlockItem extends Block {
         return mBytes;
     }
     void setBytesInternal(byte[] bts){
+        setBytesInternal(bts, true);
+    }
+    void setBytesInternal(byte[] bts, boolean notify){
         if(bts==null){
             bts=new byte[0];
         }
@@ -43,7 +46,9 @@ public abstract class BlockItem extends Block {
             return;
         }
         mBytes=bts;
-        onBytesChanged();
+        if(notify){
+            onBytesChanged();
+        }
     }
     final void setBytesLength(int length){
         setBytesLength(length, true);
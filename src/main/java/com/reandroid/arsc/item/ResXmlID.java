@@ -15,6 +15,8 @@
  */
 package com.reandroid.arsc.item;
 
+import com.reandroid.arsc.array.ResXmlIDArray;
+import com.reandroid.arsc.base.Block;
 import com.reandroid.arsc.chunk.xml.ResXmlDocument;
 import com.reandroid.arsc.pool.ResXmlStringPool;
 import com.reandroid.utils.HexUtil;
@@ -54,6 +56,17 @@ public class ResXmlID extends IntegerItem {
         }
     }
     @Override
+    public void set(int val){
+        if(val == get()){
+            return;
+        }
+        super.set(val);
+        Block parent = getParent();
+        if(parent instanceof ResXmlIDArray){
+            ((ResXmlIDArray) parent).onIdChangedInternal();
+        }
+    }
+    @Override
     public void onIndexChanged(int oldIndex, int newIndex){
         //TODO: We have to ignore this to avoid conflict with ResXmlIDMap.removeSafely
     }
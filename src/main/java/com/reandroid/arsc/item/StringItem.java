@@ -41,12 +41,13 @@ import java.util.function.Predicate;
 public class StringItem extends BlockItem implements JSONConvert<JSONObject>, Comparable<StringItem> {
     private String mCache;
     private boolean mUtf8;
-    private final Set<ReferenceItem> mReferencedList;
+    // null, single ReferenceItem, ReferenceItem[] up to MAX_ARRAY_REFERENCES or Set<ReferenceItem>
+    private Object mReferences;
+    private int mReferencesCount;
     private StyleItem mStyleToRemove;
     public StringItem(boolean utf8) {
         super(0);
         this.mUtf8=utf8;
-        this.mReferencedList = new HashSet<>();
     }
     public<T extends Block> Iterator<T> getUsers(Class<T> parentClass){
         return getUsers(parentClass, null);
@@ -72,21 +73,155 @@ public class StringItem extends BlockItem implements JSONConvert<JSONObject>, Co
     }
 
     public boolean removeReference(ReferenceItem ref){
-        return mReferencedList.remove(ref);
+        if(removeReferenceInternal(ref)){
+            notifyStringChanged();
+            return true;
+        }
+        return false;
+    }
+    private boolean removeReferenceInternal(ReferenceItem ref){
+        Object references = mReferences;
+        if(ref == null || references == null){
+            return false;
+        }
+        if(references instanceof ReferenceItem){
+            if(!references.equals(ref)){
+                return false;
+            }
+            mReferences = null;
+            return true;
+        }
+        if(references instanceof ReferenceItem[]){
+            return removeFromArray((ReferenceItem[]) references, ref);
+        }
+        Set<ReferenceItem> referenceSet = asSet(references);
+        if(!referenceSet.remove(ref)){
+            return false;
+        }
+        if(referenceSet.size() <= MAX_ARRAY_REFERENCES / 2){
+            shrinkToArray(referenceSet);
+        }
+        return true;
+    }
+    private boolean removeFromArray(ReferenceItem[] referenceItems, ReferenceItem ref){
+        int count = mReferencesCount;
+        for(int i = 0; i < count; i++){
+            if(!referenceItems[i].equals(ref)){
+                continue;
+            }
+            count --;
+            if(i < count){
+                System.arraycopy(referenceItems, i + 1, referenceItems, i, count - i);
+            }
+            referenceItems[count] = null;
+            mReferencesCount = count;
+            if(count == 1){
+                mReferences = referenceItems[0];
+            }else if(count == 0){
+                mReferences = null;
+            }
+            return true;
+        }
+        return false;
+    }
+    private void shrinkToArray(Set<ReferenceItem> referenceSet){
+        int count = referenceSet.size();
+        if(count == 0){
+            mReferences = null;
+            mReferencesCount = 0;
+            return;
+        }
+        if(count == 1){
+            mReferences = referenceSet.iterator().next();
+            mReferencesCount = 0;
+            return;
+        }
+        ReferenceItem[] referenceItems = new ReferenceItem[MAX_ARRAY_REFERENCES];
+        referenceSet.toArray(referenceItems);
+        mReferences = referenceItems;
+        mReferencesCount = count;
     }
     public boolean removeAllReference(Collection<ReferenceItem> referenceItems){
-        return mReferencedList.removeAll(referenceItems);
+        boolean result = false;
+        for(ReferenceItem ref : referenceItems){
+            if(removeReferenceInternal(ref)){
+                result = true;
+            }
+        }
+        if(result){
+            notifyStringChanged();
+        }
+        return result;
     }
     public void removeAllReference(){
-        mReferencedList.clear();
+        if(mReferences == null){
+            return;
+        }
+        mReferences = null;
+        mReferencesCount = 0;
+        notifyStringChanged();
     }
     public boolean hasReference(){
         ensureStringLinkUnlocked();
-        return mReferencedList.size() > 0;
+        return mReferences != null;
     }
+    /**
+     * Returns a live view of references, changes made through the view are the same
+     * as calling {@link #addReference(ReferenceItem)} or {@link #removeReference(ReferenceItem)}
+     * */
     public Collection<ReferenceItem> getReferencedList(){
         ensureStringLinkUnlocked();
-        return mReferencedList;
+        return new AbstractCollection<ReferenceItem>() {
+            @Override
+            public Iterator<ReferenceItem> iterator() {
+                return new ReferencesIterator();
+            }
+            @Override
+            public int size() {
+                return referencesCount();
+            }
+            @Override
+            public boolean add(ReferenceItem referenceItem) {
+                if(referenceItem == null){
+                    throw new NullPointerException();
+                }
+                if(addReferenceInternal(referenceItem)){
+                    notifyStringChanged();
+                    return true;
+                }
+                return false;
+            }
+            @Override
+            public boolean remove(Object obj) {
+                return obj instanceof ReferenceItem && removeReference((ReferenceItem) obj);
+            }
+            @Override
+            public void clear() {
+                removeAllReference();
+            }
+        };
+    }
+    private int referencesCount(){
+        Object references = mReferences;
+        if(references == null){
+            return 0;
+        }
+        if(references instanceof ReferenceItem){
+            return 1;
+        }
+        if(references instanceof ReferenceItem[]){
+            return mReferencesCount;
+        }
+        return asSet(references).size();
+    }
+    private void notifyStringChanged(){
+        Block parent = getParent();
+        if(parent != null){
+            parent = parent.getParent();
+        }
+        if(parent instanceof StringPool){
+            ((StringPool<?>) parent).onStringChangedInternal();
+        }
     }
     void ensureStringLinkUnlocked(){
         StringPool<?> stringPool = getParentInstance(StringPool.class);
@@ -95,35 +230,107 @@ public class StringItem extends BlockItem implements JSONConvert<JSONObject>, Co
         }
     }
     public void addReference(ReferenceItem ref){
-        if(ref!=null){
-            mReferencedList.add(ref);
+        if(addReferenceInternal(ref)){
+            notifyStringChanged();
         }
     }
-    public void addReferenceIfAbsent(ReferenceItem ref){
-        if(ref!=null){
-            mReferencedList.add(ref);
+    private boolean addReferenceInternal(ReferenceItem ref){
+        if(ref == null){
+            return false;
+        }
+        Object references = mReferences;
+        if(references == null){
+            mReferences = ref;
+            return true;
+        }
+        if(references instanceof ReferenceItem){
+            if(references.equals(ref)){
+                return false;
+            }
+            ReferenceItem[] referenceItems = new ReferenceItem[4];
+            referenceItems[0] = (ReferenceItem) references;
+            referenceItems[1] = ref;
+            mReferences = referenceItems;
+            mReferencesCount = 2;
+            return true;
+        }
+        if(references instanceof ReferenceItem[]){
+            return addToArray((ReferenceItem[]) references, ref);
         }
+        return asSet(references).add(ref);
+    }
+    private boolean addToArray(ReferenceItem[] referenceItems, ReferenceItem ref){
+        int count = mReferencesCount;
+        for(int i = 0; i < count; i++){
+            if(referenceItems[i].equals(ref)){
+                return false;
+            }
+        }
+        if(count == referenceItems.length){
+            if(count >= MAX_ARRAY_REFERENCES){
+                Set<ReferenceItem> referenceSet = new HashSet<>(count * 2);
+                referenceSet.addAll(Arrays.asList(referenceItems));
+                referenceSet.add(ref);
+                mReferences = referenceSet;
+                mReferencesCount = 0;
+                return true;
+            }
+            referenceItems = Arrays.copyOf(referenceItems, count * 2);
+            mReferences = referenceItems;
+        }
+        referenceItems[count] = ref;
+        mReferencesCount = count + 1;
+        return true;
+    }
+    /**
+     * Same as {@link #addReference(ReferenceItem)}, references are never duplicated
+     * */
+    @Deprecated
+    public void addReferenceIfAbsent(ReferenceItem ref){
+        addReference(ref);
     }
     public void addReference(Collection<ReferenceItem> refList){
         if(refList == null){
             return;
         }
+        boolean added = false;
         for(ReferenceItem ref:refList){
-            if(ref != null){
-                this.mReferencedList.add(ref);
+            if(addReferenceInternal(ref)){
+                added = true;
             }
         }
+        if(added){
+            notifyStringChanged();
+        }
     }
     private void reUpdateReferences(int newIndex){
-        ReferenceItem[] referenceItems = mReferencedList.toArray(new ReferenceItem[0]);
+        Object references = mReferences;
+        if(references == null){
+            return;
+        }
+        if(references instanceof ReferenceItem){
+            ((ReferenceItem) references).set(newIndex);
+            return;
+        }
+        ReferenceItem[] referenceItems;
+        if(references instanceof ReferenceItem[]){
+            referenceItems = Arrays.copyOf((ReferenceItem[]) references, mReferencesCount);
+        }else {
+            referenceItems = asSet(references).toArray(new ReferenceItem[0]);
+        }
         for(ReferenceItem ref:referenceItems){
             ref.set(newIndex);
         }
     }
+    @SuppressWarnings("unchecked")
+    private static Set<ReferenceItem> asSet(Object references){
+        return (Set<ReferenceItem>) references;
+    }
     public void onPreRemoveInternal(){
         mStyleToRemove = getStyle();
     }
     public void onRemoved(){
+        notifyStringChanged();
         setParent(null);
         StyleItem styleItem = mStyleToRemove;
         if(styleItem != null){
@@ -133,6 +340,7 @@ public class StringItem extends BlockItem implements JSONConvert<JSONObject>, Co
     @Override
     public void onIndexChanged(int oldIndex, int newIndex){
         reUpdateReferences(newIndex);
+        notifyStringChanged();
     }
     public void serializeText(XmlSerializer serializer) throws IOException {
         String text = get();
@@ -198,6 +406,19 @@ public class StringItem extends BlockItem implements JSONConvert<JSONObject>, Co
         byte[] bts=encodeString(str);
         setBytesInternal(bts);
     }
+    /**
+     * Sets bytes encoded by the same encoding of this item, if str is not null it is taken
+     * as decoded value and decoding is skipped
+     * */
+    public void setEncodedInternal(byte[] encoded, String str){
+        if(str == null){
+            setBytesInternal(encoded);
+            return;
+        }
+        setBytesInternal(encoded, false);
+        mCache = str;
+        notifyStringChanged();
+    }
 
     public boolean isUtf8(){
         return mUtf8;
@@ -213,6 +434,7 @@ public class StringItem extends BlockItem implements JSONConvert<JSONObject>, Co
     protected void onBytesChanged() {
         // To save cpu/memory usage, better to decode once only when bytes changed
         mCache=decodeString();
+        notifyStringChanged();
     }
     @Override
     public void onReadBytes(BlockReader reader) throws IOException {
@@ -372,7 +594,7 @@ public class StringItem extends BlockItem implements JSONConvert<JSONObject>, Co
         }
         StringPool<?> stringPool = getParentInstance(StringPool.class);
         if(stringPool != null && !stringPool.isStringLinkLocked()){
-            return getIndex() + ": USED BY=" + mReferencedList.size() + "{" + xml + "}";
+            return getIndex() + ": USED BY=" + referencesCount() + "{" + xml + "}";
         }
         return getIndex() + ":" + xml;
     }
@@ -512,10 +734,71 @@ public class StringItem extends BlockItem implements JSONConvert<JSONObject>, Co
         return result;
     }
 
+    private class ReferencesIterator implements Iterator<ReferenceItem> {
+        private final Iterator<ReferenceItem> setIterator;
+        private int index;
+        private ReferenceItem current;
+
+        ReferencesIterator(){
+            Object references = mReferences;
+            if(references instanceof Set){
+                setIterator = asSet(references).iterator();
+            }else {
+                setIterator = null;
+            }
+        }
+        @Override
+        public boolean hasNext() {
+            if(setIterator != null){
+                return setIterator.hasNext();
+            }
+            return index < referencesCount();
+        }
+        @Override
+        public ReferenceItem next() {
+            if(setIterator != null){
+                current = setIterator.next();
+                return current;
+            }
+            if(!hasNext()){
+                throw new NoSuchElementException();
+            }
+            Object references = mReferences;
+            if(references instanceof ReferenceItem){
+                current = (ReferenceItem) references;
+            }else {
+                current = ((ReferenceItem[]) references)[index];
+            }
+            index ++;
+            return current;
+        }
+        @Override
+        public void remove() {
+            ReferenceItem ref = current;
+            if(ref == null){
+                throw new IllegalStateException();
+            }
+            current = null;
+            if(setIterator != null){
+                // the set is kept while iterating, shrinks on next removeReference
+                setIterator.remove();
+                if(asSet(mReferences).isEmpty()){
+                    mReferences = null;
+                }
+                notifyStringChanged();
+                return;
+            }
+            removeReference(ref);
+            index --;
+        }
+    }
+
     private static final CharsetDecoder UTF16LE_DECODER = StandardCharsets.UTF_16LE.newDecoder();
     private static final CharsetDecoder UTF8_DECODER = StandardCharsets.UTF_8.newDecoder();
     private static final CharsetDecoder DECODER_3B = ThreeByteCharsetDecoder.INSTANCE;
 
+    private static final int MAX_ARRAY_REFERENCES = 16;
+
     public static final String NAME_string="string";
     public static final String NAME_style="style";
 }
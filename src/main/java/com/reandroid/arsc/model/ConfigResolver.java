@@ -0,0 +1,154 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.arsc.model;
+
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.chunk.TypeBlock;
+import com.reandroid.arsc.container.SpecTypePair;
+import com.reandroid.arsc.value.Entry;
+import com.reandroid.arsc.value.ResConfig;
+import com.reandroid.arsc.value.ResConfigMatcher;
+import com.reandroid.arsc.value.ResValue;
+import com.reandroid.arsc.value.ValueType;
+
+import java.util.*;
+
+/**
+ * Resolves entries the way android framework picks them for one device configuration.
+ * For each {@link SpecTypePair} the configs matching the device are ranked once from best
+ * to worst (see {@link ResConfigMatcher}), thus resolving an entry only walks the ranking
+ * until the first type having the entry instead of comparing every config per lookup.
+ * <br />
+ * A ranking is rebuilt when the number of types changes, call {@link #clear()} after
+ * editing configs of existing types.
+ * */
+public class ConfigResolver {
+    private final TableBlock tableBlock;
+    private final ResConfigMatcher matcher;
+    private final Map<SpecTypePair, Ranking> mRankings;
+
+    public ConfigResolver(TableBlock tableBlock, ResConfig deviceConfig){
+        this.tableBlock = tableBlock;
+        this.matcher = new ResConfigMatcher(deviceConfig);
+        this.mRankings = new IdentityHashMap<>();
+    }
+
+    public ResConfig getDeviceConfig(){
+        return matcher.getRequested();
+    }
+    /**
+     * Returns the entry android would pick for the device, null if there is none
+     * */
+    public Entry resolve(int resourceId){
+        ResourceEntry resourceEntry = tableBlock.getResource(resourceId);
+        if(resourceEntry == null){
+            return null;
+        }
+        int id = resourceEntry.getResourceId();
+        SpecTypePair specTypePair = resourceEntry.getPackageBlock()
+                .getSpecTypePair((id >> 16) & 0xff);
+        if(specTypePair == null){
+            return null;
+        }
+        return resolve(specTypePair, id & 0xffff);
+    }
+    public Entry resolve(SpecTypePair specTypePair, int entryId){
+        for(TypeBlock typeBlock : getRanking(specTypePair)){
+            Entry entry = typeBlock.getEntry(entryId);
+            if(entry != null && !entry.isNull()){
+                return entry;
+            }
+        }
+        return null;
+    }
+    /**
+     * Same as {@link #resolve(int)} but follows references, returns the last entry
+     * of the chain or null if the chain is broken or circular
+     * */
+    public Entry resolveValue(int resourceId){
+        Set<Integer> visited = null;
+        Entry entry = resolve(resourceId);
+        while (entry != null && !entry.isComplex()){
+            ResValue resValue = entry.getResValue();
+            if(resValue == null || resValue.getValueType() != ValueType.REFERENCE){
+                break;
+            }
+            int reference = resValue.getData();
+            if(visited == null){
+                visited = new HashSet<>();
+                visited.add(resourceId);
+            }
+            if(!visited.add(reference)){
+                return null;
+            }
+            entry = resolve(reference);
+        }
+        return entry;
+    }
+    /**
+     * Returns types of the given spec matching the device, best first
+     * */
+    public List<TypeBlock> listMatchingTypes(SpecTypePair specTypePair){
+        return Collections.unmodifiableList(Arrays.asList(getRanking(specTypePair)));
+    }
+    public void clear(){
+        synchronized (mRankings){
+            mRankings.clear();
+        }
+    }
+    private TypeBlock[] getRanking(SpecTypePair specTypePair){
+        int count = specTypePair.countTypeBlocks();
+        synchronized (mRankings){
+            Ranking ranking = mRankings.get(specTypePair);
+            if(ranking == null || ranking.typeCount != count){
+                ranking = new Ranking(count, rank(specTypePair));
+                mRankings.put(specTypePair, ranking);
+            }
+            return ranking.typeBlocks;
+        }
+    }
+    private TypeBlock[] rank(SpecTypePair specTypePair){
+        List<TypeBlock> typeBlockList = new ArrayList<>();
+        Iterator<TypeBlock> iterator = specTypePair.getTypeBlocks();
+        while (iterator.hasNext()){
+            typeBlockList.add(iterator.next());
+        }
+        int size = typeBlockList.size();
+        ResConfig[] resConfigs = new ResConfig[size];
+        for(int i = 0; i < size; i++){
+            resConfigs[i] = typeBlockList.get(i).getResConfig();
+        }
+        int[] indexes = matcher.rank(resConfigs);
+        TypeBlock[] results = new TypeBlock[indexes.length];
+        for(int i = 0; i < indexes.length; i++){
+            results[i] = typeBlockList.get(indexes[i]);
+        }
+        return results;
+    }
+    @Override
+    public String toString() {
+        return "ConfigResolver{" + getDeviceConfig() + "}";
+    }
+
+    static class Ranking {
+        final int typeCount;
+        final TypeBlock[] typeBlocks;
+        Ranking(int typeCount, TypeBlock[] typeBlocks){
+            this.typeCount = typeCount;
+            this.typeBlocks = typeBlocks;
+        }
+    }
+}
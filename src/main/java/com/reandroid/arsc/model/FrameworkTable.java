@@ -40,10 +40,43 @@ public class FrameworkTable extends TableBlock {
     private int mainPackageId;
     private boolean mOptimized;
     private boolean mOptimizeChecked;
+    private volatile boolean mReadOnly;
     public FrameworkTable(){
         super();
     }
 
+    /**
+     * Computes all lazily initialized values and indexes (see {@link #buildIndexes()}) and
+     * marks this table as read-only, then it is safe to share across threads and modules.
+     * Changes to framework properties are rejected and {@link #destroy()} is ignored
+     * afterwards.
+     * */
+    public void setReadOnly(){
+        if(mReadOnly){
+            return;
+        }
+        synchronized (this){
+            if(mReadOnly){
+                return;
+            }
+            isOptimized();
+            getFrameworkName();
+            getVersionCode();
+            getMainPackageId();
+            buildIndexes();
+            mReadOnly = true;
+        }
+    }
+    @Override
+    public boolean isReadOnly(){
+        return mReadOnly;
+    }
+    private void checkWritable(){
+        if(mReadOnly){
+            throw new IllegalStateException("Read-only framework: " + this);
+        }
+    }
+
     public boolean isAndroid(){
         return "android".equals(getFrameworkName())
                 && getMainPackageId() == 0x01;
@@ -60,8 +93,16 @@ public class FrameworkTable extends TableBlock {
         return mainPackageId;
     }
 
+    @Override
+    public void addFramework(TableBlock tableBlock){
+        checkWritable();
+        super.addFramework(tableBlock);
+    }
     @Override
     public void destroy(){
+        if(mReadOnly){
+            return;
+        }
         this.frameworkName = null;
         this.versionCode = 0;
         this.mainPackageId = 0;
@@ -80,6 +121,7 @@ public class FrameworkTable extends TableBlock {
         return versionCode;
     }
     public void setVersionCode(int value){
+        checkWritable();
         versionCode = value;
         if(isOptimized()){
             writeVersionCode(value);
@@ -101,12 +143,14 @@ public class FrameworkTable extends TableBlock {
         return frameworkName;
     }
     public void setFrameworkName(String value){
+        checkWritable();
         frameworkName = value;
         if(isOptimized()){
             writeProperty(PROP_NAME, value);
         }
     }
     public void optimize(String name, int version){
+        checkWritable();
         mOptimizeChecked = true;
         mOptimized = false;
         ensureTypeBlockNonNullEntries();
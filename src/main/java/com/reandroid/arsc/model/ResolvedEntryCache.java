@@ -0,0 +1,249 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.arsc.model;
+
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.chunk.TypeBlock;
+import com.reandroid.arsc.container.SpecTypePair;
+import com.reandroid.arsc.value.Entry;
+import com.reandroid.arsc.value.ResConfig;
+import com.reandroid.arsc.value.ResConfigKey;
+import com.reandroid.arsc.value.ResValue;
+import com.reandroid.arsc.value.ValueType;
+
+import java.util.*;
+
+/**
+ * LRU cache of best resolved entry per (resource id, config), the best entry is the first
+ * of {@link TableBlock#resolveReferenceWithConfig(int, ResConfig)}. Configs are keyed by
+ * their interned {@link ResConfigKey}. The cache is cleared whenever the table is refreshed
+ * and on edits of entries, values or type configs (see {@link TableBlock#onEntryChangedInternal()}).
+ * */
+public class ResolvedEntryCache {
+    private final TableBlock tableBlock;
+    private final Map<Key, Entry> mCache;
+    private int maxSize;
+
+    public ResolvedEntryCache(TableBlock tableBlock, int maxSize){
+        this.tableBlock = tableBlock;
+        this.mCache = new LinkedHashMap<>(64, 0.75f, true);
+        this.maxSize = maxSize;
+    }
+
+    public Entry resolve(int resourceId, ResConfig resConfig){
+        Key key = new Key(resourceId, resConfig.getKey());
+        Entry entry = get(key);
+        if(entry != null){
+            return unwrapNull(entry);
+        }
+        entry = resolveUncached(resourceId, resConfig);
+        put(key, entry);
+        return entry;
+    }
+    /**
+     * Resolves all the given ids for one config, the returned array is aligned with
+     * the ids. Entries of uncached ids are collected type by type, iterating each
+     * {@link TypeBlock} once for all ids of the same type, only ids pointing to
+     * other references fall back to full reference resolution.
+     * */
+    public Entry[] resolveAll(int[] resourceIds, ResConfig resConfig){
+        int length = resourceIds.length;
+        Entry[] results = new Entry[length];
+        Key[] keys = new Key[length];
+        ResConfigKey configKey = resConfig.getKey();
+        Map<SpecTypePair, List<Pending>> pendingMap = new LinkedHashMap<>();
+        for(int i = 0; i < length; i++){
+            int resourceId = resourceIds[i];
+            Key key = new Key(resourceId, configKey);
+            keys[i] = key;
+            Entry entry = get(key);
+            if(entry != null){
+                results[i] = unwrapNull(entry);
+                continue;
+            }
+            ResourceEntry resourceEntry = tableBlock.getResource(resourceId);
+            if(resourceEntry == null){
+                put(key, null);
+                continue;
+            }
+            int id = resourceEntry.getResourceId();
+            PackageBlock packageBlock = resourceEntry.getPackageBlock();
+            SpecTypePair specTypePair = packageBlock.getSpecTypePair((id >> 16) & 0xff);
+            if(specTypePair == null){
+                put(key, null);
+                continue;
+            }
+            List<Pending> pendingList = pendingMap.get(specTypePair);
+            if(pendingList == null){
+                pendingList = new ArrayList<>();
+                pendingMap.put(specTypePair, pendingList);
+            }
+            pendingList.add(new Pending(i, id & 0xffff));
+        }
+        for(Map.Entry<SpecTypePair, List<Pending>> mapEntry : pendingMap.entrySet()){
+            List<Pending> pendingList = mapEntry.getValue();
+            Iterator<TypeBlock> iterator = mapEntry.getKey().getTypeBlocks();
+            while (iterator.hasNext()){
+                TypeBlock typeBlock = iterator.next();
+                boolean matches = typeBlock.getResConfig().isEqualOrMoreSpecificThan(resConfig);
+                boolean exact = matches && typeBlock.getResConfig().equals(resConfig);
+                for(Pending pending : pendingList){
+                    pending.add(typeBlock.getEntry(pending.entryId), matches, exact);
+                }
+            }
+            for(Pending pending : pendingList){
+                int index = pending.index;
+                Entry entry;
+                if(pending.hasReference){
+                    entry = resolveUncached(resourceIds[index], resConfig);
+                }else {
+                    entry = pending.getBest();
+                }
+                results[index] = entry;
+                put(keys[index], entry);
+            }
+        }
+        return results;
+    }
+    public void clear(){
+        synchronized (mCache){
+            mCache.clear();
+        }
+    }
+    public int size(){
+        synchronized (mCache){
+            return mCache.size();
+        }
+    }
+    public int getMaxSize() {
+        return maxSize;
+    }
+    public void setMaxSize(int maxSize) {
+        synchronized (mCache){
+            this.maxSize = maxSize;
+            trimToSize();
+        }
+    }
+    private Entry resolveUncached(int resourceId, ResConfig resConfig){
+        List<Entry> entryList = tableBlock.resolveReferenceWithConfig(resourceId, resConfig);
+        if(entryList.size() == 0){
+            return null;
+        }
+        return entryList.get(0);
+    }
+    private Entry get(Key key){
+        synchronized (mCache){
+            return mCache.get(key);
+        }
+    }
+    private void put(Key key, Entry entry){
+        if(entry == null){
+            entry = NULL_ENTRY;
+        }
+        synchronized (mCache){
+            mCache.put(key, entry);
+            trimToSize();
+        }
+    }
+    private void trimToSize(){
+        Map<Key, Entry> cache = this.mCache;
+        int size = cache.size();
+        if(size <= maxSize){
+            return;
+        }
+        Iterator<Key> iterator = cache.keySet().iterator();
+        while (size > maxSize && iterator.hasNext()){
+            iterator.next();
+            iterator.remove();
+            size--;
+        }
+    }
+
+    private static boolean isReference(Entry entry){
+        ResValue resValue = entry.getResValue();
+        return resValue != null && resValue.getValueType() == ValueType.REFERENCE;
+    }
+    private static Entry unwrapNull(Entry entry){
+        if(entry == NULL_ENTRY){
+            return null;
+        }
+        return entry;
+    }
+
+    static class Pending {
+        final int index;
+        final int entryId;
+        boolean hasReference;
+        private Entry first;
+        private Entry exact;
+        Pending(int index, int entryId){
+            this.index = index;
+            this.entryId = entryId;
+        }
+        void add(Entry entry, boolean matches, boolean exact){
+            if(entry == null || entry.isNull() || hasReference){
+                return;
+            }
+            if(!entry.isComplex() && isReference(entry)){
+                hasReference = true;
+                return;
+            }
+            if(!matches){
+                return;
+            }
+            if(this.first == null){
+                this.first = entry;
+            }
+            if(exact && this.exact == null){
+                this.exact = entry;
+            }
+        }
+        Entry getBest(){
+            if(exact != null){
+                return exact;
+            }
+            return first;
+        }
+    }
+    static class Key {
+        final int resourceId;
+        final ResConfigKey configKey;
+        private final int hash;
+        Key(int resourceId, ResConfigKey configKey){
+            this.resourceId = resourceId;
+            this.configKey = configKey;
+            this.hash = 31 * resourceId + configKey.hashCode();
+        }
+        @Override
+        public boolean equals(Object obj) {
+            if(obj == this){
+                return true;
+            }
+            if(!(obj instanceof Key)){
+                return false;
+            }
+            Key key = (Key) obj;
+            return resourceId == key.resourceId && configKey.equals(key.configKey);
+        }
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final Entry NULL_ENTRY = new Entry();
+}
@@ -53,6 +53,14 @@ public class ResXmlStringPool extends StringPool<ResXmlString> {
         }
     }
     @Override
+    int getCompactKeepCount(){
+        ResXmlIDMap idMap = getResXmlIDMap();
+        if(idMap != null){
+            return idMap.countId();
+        }
+        return super.getCompactKeepCount();
+    }
+    @Override
     StringArray<ResXmlString> newInstance(OffsetArray offsets, IntegerItem itemCount, IntegerItem itemStart, boolean is_utf8) {
         return new ResXmlStringArray(offsets, itemCount, itemStart, is_utf8);
     }
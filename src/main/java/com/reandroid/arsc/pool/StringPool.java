@@ -26,6 +26,7 @@ import com.reandroid.arsc.header.StringPoolHeader;
 import com.reandroid.arsc.io.BlockLoad;
 import com.reandroid.arsc.io.BlockReader;
 import com.reandroid.arsc.item.*;
+import com.reandroid.arsc.pool.builder.StringPoolBuilder;
 import com.reandroid.json.JSONArray;
 import com.reandroid.json.JSONConvert;
 import com.reandroid.utils.CompareUtil;
@@ -42,6 +43,7 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
 
     private final Map<String, StringGroup<T>> mUniqueMap;
     private boolean stringLinkLocked;
+    private int mModificationCount;
 
     StringPool(boolean is_utf8, boolean stringLinkLocked){
         super(new StringPoolHeader(), 4);
@@ -86,6 +88,16 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
     public boolean isStringLinkLocked(){
         return stringLinkLocked;
     }
+    /**
+     * Returns a counter incremented whenever a string value, position or references
+     * change, caches built from this pool can compare it to detect edits
+     * */
+    public int getModificationCount(){
+        return mModificationCount;
+    }
+    public void onStringChangedInternal(){
+        mModificationCount ++;
+    }
     public void ensureStringLinkUnlockedInternal(){
         if(!stringLinkLocked){
             return;
@@ -142,17 +154,9 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
         insertStringList(sortedList);
     }
     private void insertStringList(List<String> stringList){
-        StringArray<T> stringsArray = getStringsArray();
-        int initialSize=stringsArray.childesCount();
-        stringsArray.ensureSize(initialSize + stringList.size());
-        int size=stringsArray.childesCount();
-        int j=0;
-        for (int i=initialSize;i<size;i++){
-            T item=stringsArray.get(i);
-            item.set(stringList.get(j));
-            j++;
-        }
-        refreshUniqueIdMap();
+        StringPoolBuilder builder = new StringPoolBuilder(isUtf8(), stringList.size());
+        builder.addAll(stringList);
+        builder.appendTo(this);
     }
     public Map<String, T> insertStrings(List<String> stringList){
         Map<String, T> results=new HashMap<>();
@@ -232,6 +236,29 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
     public List<T> removeUnusedStrings(){
         return getStringsArray().removeUnusedStrings();
     }
+    /**
+     * Merges duplicate strings, removes unused strings and refreshes unique map, same as
+     * {@link #clearDuplicates()} followed by {@link #removeUnusedStrings()} but references are
+     * updated in bulk. Styled strings are removed when unused but never merged.
+     * Returns number of removed strings.
+     * */
+    public int compact(){
+        return compact(true);
+    }
+    /**
+     * Same as {@link #compact()}, if mergeDuplicates is false only unused strings are removed
+     * */
+    public int compact(boolean mergeDuplicates){
+        ensureStringLinkUnlockedInternal();
+        int result = getStringsArray().compact(getCompactKeepCount(), countStyles(), mergeDuplicates);
+        if(result != 0){
+            refreshUniqueIdMap();
+        }
+        return result;
+    }
+    int getCompactKeepCount(){
+        return 0;
+    }
     public List<T> listUnusedStrings(){
         return getStringsArray().listUnusedStrings();
     }
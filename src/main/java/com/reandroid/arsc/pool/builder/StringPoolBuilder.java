@@ -0,0 +1,336 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.arsc.pool.builder;
+
+import com.reandroid.arsc.array.StringArray;
+import com.reandroid.arsc.item.StringItem;
+import com.reandroid.arsc.pool.StringPool;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Collects unique strings and encodes them into one growable buffer as they are added,
+ * the hash of each string is kept next to its index thus lookups do not touch other
+ * strings. {@link #appendTo(StringPool)} then creates all string items in one pass
+ * without encoding or decoding again.
+ * <br />
+ * The encoding is the same as {@link StringItem#set(String)} of utf8 or utf16 items.
+ * */
+public class StringPoolBuilder {
+    private final boolean mUtf8;
+    private String[] mStrings;
+    private int[] mHashes;
+    private int[] mOffsets;
+    private boolean[] mMalformed;
+    private int mCount;
+    private int[] mTable;
+    private byte[] mBuffer;
+    private int mBufferLength;
+
+    public StringPoolBuilder(boolean utf8, int initialCapacity){
+        this.mUtf8 = utf8;
+        if(initialCapacity < 16){
+            initialCapacity = 16;
+        }
+        this.mStrings = new String[initialCapacity];
+        this.mHashes = new int[initialCapacity];
+        this.mOffsets = new int[initialCapacity + 1];
+        this.mMalformed = new boolean[initialCapacity];
+        this.mTable = new int[tableSizeFor(initialCapacity)];
+        this.mBuffer = new byte[initialCapacity * 16];
+    }
+    public StringPoolBuilder(boolean utf8){
+        this(utf8, 256);
+    }
+
+    public boolean isUtf8(){
+        return mUtf8;
+    }
+    public int size(){
+        return mCount;
+    }
+    public String get(int index){
+        return mStrings[index];
+    }
+    /**
+     * Returns number of bytes the string at index occupies in string pool, including
+     * length header and null terminator
+     * */
+    public int getEncodedLength(int index){
+        return mOffsets[index + 1] - mOffsets[index];
+    }
+    public int indexOf(String str){
+        if(str == null){
+            str = "";
+        }
+        int hash = str.hashCode();
+        int[] table = this.mTable;
+        int mask = table.length - 1;
+        int slot = spread(hash) & mask;
+        while (true){
+            int entry = table[slot];
+            if(entry == 0){
+                return -1;
+            }
+            int index = entry - 1;
+            if(mHashes[index] == hash && str.equals(mStrings[index])){
+                return index;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+    /**
+     * Adds the string if absent and returns its index, null is taken as empty string
+     * */
+    public int add(String str){
+        if(str == null){
+            str = "";
+        }
+        int hash = str.hashCode();
+        int[] table = this.mTable;
+        int mask = table.length - 1;
+        int slot = spread(hash) & mask;
+        while (true){
+            int entry = table[slot];
+            if(entry == 0){
+                break;
+            }
+            int index = entry - 1;
+            if(mHashes[index] == hash && str.equals(mStrings[index])){
+                return index;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int index = mCount;
+        ensureCapacity(index + 1);
+        mStrings[index] = str;
+        mHashes[index] = hash;
+        if(mUtf8){
+            mMalformed[index] = encodeUtf8(str);
+        }else {
+            mMalformed[index] = encodeUtf16(str);
+        }
+        mOffsets[index + 1] = mBufferLength;
+        mCount = index + 1;
+        if(mTable.length < mCount * 2){
+            rehash();
+        }else {
+            mTable[slot] = index + 1;
+        }
+        return index;
+    }
+    public void addAll(Collection<String> stringList){
+        for(String str : stringList){
+            add(str);
+        }
+    }
+    /**
+     * Appends all strings at the end of string pool in the order added, string at index i
+     * of this builder becomes string at (returned start index + i) of the pool.
+     * The pool must have the same encoding.
+     * */
+    public<T extends StringItem> int appendTo(StringPool<T> stringPool){
+        if(stringPool.isUtf8() != isUtf8()){
+            throw new IllegalArgumentException("Different string pool encoding, utf8 = "
+                    + stringPool.isUtf8());
+        }
+        StringArray<T> stringsArray = stringPool.getStringsArray();
+        int count = this.mCount;
+        int start = stringsArray.appendNew(count);
+        if(count == 0){
+            return start;
+        }
+        byte[] buffer = this.mBuffer;
+        int[] offsets = this.mOffsets;
+        for(int i = 0; i < count; i++){
+            T item = stringsArray.get(start + i);
+            byte[] encoded = Arrays.copyOfRange(buffer, offsets[i], offsets[i + 1]);
+            String str = null;
+            if(!mMalformed[i]){
+                str = mStrings[i];
+            }
+            item.setEncodedInternal(encoded, str);
+        }
+        stringPool.refreshUniqueIdMap();
+        return start;
+    }
+    public void clear(){
+        Arrays.fill(mStrings, 0, mCount, null);
+        Arrays.fill(mTable, 0);
+        mCount = 0;
+        mBufferLength = 0;
+    }
+
+    /**
+     * Writes the same bytes as StringItem.encodeUtf8ToBytes, returns true if the string
+     * has unpaired surrogates or its lengths overflow the length header, i.e. decoding
+     * the bytes does not give back the same string
+     * */
+    private boolean encodeUtf8(String str){
+        int length = str.length();
+        int byteLength = 0;
+        boolean malformed = false;
+        for(int i = 0; i < length; i++){
+            char ch = str.charAt(i);
+            if(ch < 0x80){
+                byteLength += 1;
+            }else if(ch < 0x800){
+                byteLength += 2;
+            }else if(!Character.isSurrogate(ch)){
+                byteLength += 3;
+            }else if(isSurrogatePair(str, i)){
+                byteLength += 4;
+                i++;
+            }else {
+                byteLength += 1;
+                malformed = true;
+            }
+        }
+        ensureBuffer(byteLength + 5);
+        byte[] buffer = this.mBuffer;
+        int position = mBufferLength;
+        if((byteLength & 0xff80) != 0){
+            buffer[position++] = (byte) (((length >> 8) & 0xff) | 0x80);
+            buffer[position++] = (byte) length;
+            buffer[position++] = (byte) (((byteLength >> 8) & 0xff) | 0x80);
+            buffer[position++] = (byte) byteLength;
+        }else {
+            buffer[position++] = (byte) length;
+            buffer[position++] = (byte) byteLength;
+        }
+        for(int i = 0; i < length; i++){
+            char ch = str.charAt(i);
+            if(ch < 0x80){
+                buffer[position++] = (byte) ch;
+            }else if(ch < 0x800){
+                buffer[position++] = (byte) (0xc0 | (ch >> 6));
+                buffer[position++] = (byte) (0x80 | (ch & 0x3f));
+            }else if(!Character.isSurrogate(ch)){
+                buffer[position++] = (byte) (0xe0 | (ch >> 12));
+                buffer[position++] = (byte) (0x80 | ((ch >> 6) & 0x3f));
+                buffer[position++] = (byte) (0x80 | (ch & 0x3f));
+            }else if(isSurrogatePair(str, i)){
+                int codePoint = Character.toCodePoint(ch, str.charAt(i + 1));
+                buffer[position++] = (byte) (0xf0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3f));
+                i++;
+            }else {
+                buffer[position++] = (byte) '?';
+            }
+        }
+        buffer[position++] = 0;
+        mBufferLength = position;
+        return malformed || length > 0x7fff || byteLength > 0x7fff;
+    }
+    /**
+     * Writes the same bytes as StringItem.encodeUtf16ToBytes, returns true if the string
+     * has unpaired surrogates
+     * */
+    private boolean encodeUtf16(String str){
+        int length = str.length();
+        ensureBuffer(length * 2 + 6);
+        byte[] buffer = this.mBuffer;
+        int position = mBufferLength;
+        if((length & 0xffff8000) != 0){
+            int low = length & 0xff;
+            int high = (length - low) & 0xff00;
+            int rem = length - low - high;
+            buffer[position++] = (byte) (rem & 0xff);
+            buffer[position++] = (byte) (((rem & 0xff00) >> 8) | 0x80);
+            buffer[position++] = (byte) low;
+            buffer[position++] = (byte) (high >> 8);
+        }else {
+            buffer[position++] = (byte) length;
+            buffer[position++] = (byte) (length >> 8);
+        }
+        boolean malformed = false;
+        for(int i = 0; i < length; i++){
+            char ch = str.charAt(i);
+            if(Character.isSurrogate(ch)){
+                if(isSurrogatePair(str, i)){
+                    char low = str.charAt(i + 1);
+                    buffer[position++] = (byte) ch;
+                    buffer[position++] = (byte) (ch >> 8);
+                    buffer[position++] = (byte) low;
+                    buffer[position++] = (byte) (low >> 8);
+                    i++;
+                    continue;
+                }
+                malformed = true;
+                ch = '\uFFFD';
+            }
+            buffer[position++] = (byte) ch;
+            buffer[position++] = (byte) (ch >> 8);
+        }
+        buffer[position++] = 0;
+        buffer[position++] = 0;
+        mBufferLength = position;
+        return malformed;
+    }
+    private void ensureCapacity(int capacity){
+        if(capacity <= mStrings.length){
+            return;
+        }
+        int length = mStrings.length * 2;
+        mStrings = Arrays.copyOf(mStrings, length);
+        mHashes = Arrays.copyOf(mHashes, length);
+        mOffsets = Arrays.copyOf(mOffsets, length + 1);
+        mMalformed = Arrays.copyOf(mMalformed, length);
+    }
+    private void ensureBuffer(int amount){
+        int required = mBufferLength + amount;
+        if(required <= mBuffer.length){
+            return;
+        }
+        int length = mBuffer.length * 2;
+        if(length < required){
+            length = required;
+        }
+        mBuffer = Arrays.copyOf(mBuffer, length);
+    }
+    private void rehash(){
+        int[] table = new int[mTable.length * 2];
+        int mask = table.length - 1;
+        int count = this.mCount;
+        int[] hashes = this.mHashes;
+        for(int i = 0; i < count; i++){
+            int slot = spread(hashes[i]) & mask;
+            while (table[slot] != 0){
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+        mTable = table;
+    }
+    private static boolean isSurrogatePair(String str, int index){
+        return Character.isHighSurrogate(str.charAt(index))
+                && index + 1 < str.length()
+                && Character.isLowSurrogate(str.charAt(index + 1));
+    }
+    private static int spread(int hash){
+        return hash ^ (hash >>> 16);
+    }
+    private static int tableSizeFor(int capacity){
+        int size = 16;
+        while (size < capacity * 2){
+            size = size << 1;
+        }
+        return size;
+    }
+}
@@ -88,7 +88,9 @@ public class StringPoolMerger implements Comparator<String> {
     }
     private void mergeNonStyledStrings(TableStringPool destination){
         List<String> nonStyledStrings=getNonStyledStrings();
-        destination.insertStrings(nonStyledStrings);
+        StringPoolBuilder builder = new StringPoolBuilder(destination.isUtf8(), nonStyledStrings.size());
+        builder.addAll(nonStyledStrings);
+        builder.appendTo(destination);
         mMergedStrings=nonStyledStrings.size();
     }
     private List<TableString> getStyledStrings(){
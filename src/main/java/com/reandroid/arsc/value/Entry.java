@@ -21,6 +21,7 @@ import com.reandroid.arsc.base.Block;
 import com.reandroid.arsc.base.BlockCounter;
 import com.reandroid.arsc.chunk.PackageBlock;
 import com.reandroid.arsc.chunk.SpecBlock;
+import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.chunk.TypeBlock;
 import com.reandroid.arsc.container.SpecTypePair;
 import com.reandroid.arsc.io.BlockReader;
@@ -312,6 +313,7 @@ public class Entry extends Block implements JSONConvert<JSONObject> {
         nullReference.set(specString.getIndex());
         specString.addReference(nullReference);
         this.mNullSpecReference = nullReference;
+        onSpecReferenceChanged();
     }
     private void unlinkNullSpecString(){
         IntegerItem nullReference = this.mNullSpecReference;
@@ -325,6 +327,13 @@ public class Entry extends Block implements JSONConvert<JSONObject> {
         nullReference.setParent(null);
         nullReference.setIndex(-1);
         this.mNullSpecReference = null;
+        onSpecReferenceChanged();
+    }
+    void onSpecReferenceChanged(){
+        SpecTypePair specTypePair = getParent(SpecTypePair.class);
+        if(specTypePair != null){
+            specTypePair.onEntryNameChanged(this);
+        }
     }
     private SpecStringPool getSpecStringPool(){
         PackageBlock packageBlock = getPackageBlock();
@@ -475,7 +484,7 @@ public class Entry extends Block implements JSONConvert<JSONObject> {
     @Override
     public void onReadBytes(BlockReader reader) throws IOException {
         TableEntry<?, ?> tableEntry = createTableEntry(reader);
-        setTableEntry(tableEntry);
+        setTableEntryInternal(tableEntry);
         tableEntry.readBytes(reader);
     }
 
@@ -489,6 +498,16 @@ public class Entry extends Block implements JSONConvert<JSONObject> {
         if(tableEntry == this.mTableEntry){
             return;
         }
+        setTableEntryInternal(tableEntry);
+        onEntryChanged();
+    }
+    void onEntryChanged(){
+        TableBlock tableBlock = getParentInstance(TableBlock.class);
+        if(tableBlock != null){
+            tableBlock.onEntryChangedInternal();
+        }
+    }
+    private void setTableEntryInternal(TableEntry<?, ?> tableEntry){
         onTableEntryRemoved();
         if(tableEntry==null){
             return;
@@ -15,50 +15,70 @@
  */
 package com.reandroid.arsc.value;
 
-import com.reandroid.arsc.item.ByteArray;
+import com.reandroid.arsc.array.TypeBlockArray;
 import com.reandroid.json.JSONConvert;
 import com.reandroid.json.JSONObject;
 import com.reandroid.utils.HexUtil;
 
-import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class ResConfig extends ResConfigBase implements JSONConvert<JSONObject>,
         Comparable<ResConfig> {
     private String mQualifiers;
-    private int mQualifiersStamp;
+    private ResConfigKey mQualifiersKey;
 
     public ResConfig(){
         this(SIZE_64);
     }
     private ResConfig(int size){
         super(size);
-        this.mQualifiersStamp = 0;
     }
     public boolean isEqualOrMoreSpecificThan(ResConfig resConfig){
         if(resConfig == null){
             return false;
         }
-        if(resConfig == this || resConfig.isDefault()){
+        if(resConfig == this){
             return true;
         }
-        byte[] bytes = ByteArray.trimTrailZeros(this.getValueBytes());
-        byte[] otherBytes = ByteArray.trimTrailZeros(resConfig.getValueBytes());
-        int max = otherBytes.length;
-        if(max > bytes.length){
-            return false;
+        return getKey().isEqualOrMoreSpecificThan(resConfig.getKey());
+    }
+    /**
+     * Returns interned immutable value of this config, it is recomputed only after
+     * this config is modified
+     * */
+    public ResConfigKey getKey(){
+        return getValuesKey();
+    }
+    /**
+     * Returns true if this config can be used on the device described by settings,
+     * same as android ResTable_config::match
+     * */
+    public boolean match(ResConfig settings){
+        return new ResConfigMatcher(settings).match(this);
+    }
+    /**
+     * Returns true if this config is a better match than other for requested (device) config,
+     * both are assumed to {@link #match(ResConfig)} requested. Same as android
+     * ResTable_config::isBetterThan
+     * */
+    public boolean isBetterThan(ResConfig other, ResConfig requested){
+        if(requested == null){
+            return isMoreSpecificThan(other);
         }
-        for(int i = 0; i<max; i++){
-            byte other = otherBytes[i];
-            if(other == 0){
-                continue;
-            }
-            if(bytes[i] != other){
-                return false;
-            }
+        return new ResConfigMatcher(requested).isBetterThan(this, other);
+    }
+    public boolean isMoreSpecificThan(ResConfig other){
+        return ResConfigMatcher.isMoreSpecificThan(this, other);
+    }
+    @Override
+    void onValuesChanged(){
+        TypeBlockArray typeBlockArray = getParent(TypeBlockArray.class);
+        if(typeBlockArray != null){
+            typeBlockArray.onResConfigChanged();
         }
-        return true;
     }
     public void copyFrom(ResConfig resConfig){
         if(resConfig == this || resConfig == null){
@@ -70,9 +90,17 @@ public class ResConfig extends ResConfigBase implements JSONConvert<JSONObject>,
      * returns null if parsing is ok, else returns unknown qualifiers
      * */
     public String[] parseQualifiers(String qualifiers){
-        QualifierParser parser = new QualifierParser(this, qualifiers);
-        parser.parse();
-        return parser.getErrors();
+        if(!isDefault()){
+            QualifierParser parser = new QualifierParser(this, qualifiers);
+            parser.parse();
+            return parser.getErrors();
+        }
+        QualifiersCache.Parsed parsed = QualifiersCache.parse(qualifiers);
+        if(getConfigSize() < parsed.configSize){
+            setConfigSize(parsed.configSize);
+        }
+        setValuesKey(parsed.key);
+        return parsed.getErrors();
     }
 
     public char[] getLanguageChars(){
@@ -324,16 +352,18 @@ public class ResConfig extends ResConfigBase implements JSONConvert<JSONObject>,
     /*** END OF SET/GET VALUES ***/
 
     public String getQualifiers(){
-        int hash = this.hashCode();
-        if(mQualifiers == null || mQualifiersStamp!=hash){
-            mQualifiers = new QualifierBuilder(this).build();
-            mQualifiersStamp = hash;
+        ResConfigKey key = getKey();
+        String qualifiers = this.mQualifiers;
+        if(qualifiers == null || mQualifiersKey != key){
+            qualifiers = QualifiersCache.getQualifiers(this, key);
+            this.mQualifiers = qualifiers;
+            this.mQualifiersKey = key;
         }
-        return mQualifiers;
+        return qualifiers;
     }
 
     public boolean isEqualQualifiers(String qualifiers){
-        return this.equals(parse(qualifiers));
+        return getKey() == QualifiersCache.parse(qualifiers).key;
     }
     public boolean isDefault(){
         return isNullBytes(getValueBytes());
@@ -467,8 +497,7 @@ public class ResConfig extends ResConfigBase implements JSONConvert<JSONObject>,
     }
     @Override
     public int hashCode(){
-        byte[] bts = ByteArray.trimTrailZeros(getValueBytes());
-        return Arrays.hashCode(bts);
+        return getKey().hashCode();
     }
     @Override
     public boolean equals(Object obj){
@@ -480,9 +509,7 @@ public class ResConfig extends ResConfigBase implements JSONConvert<JSONObject>,
         }
         if(obj instanceof ResConfig){
             ResConfig other = (ResConfig)obj;
-            byte[] bts1 = getValueBytes();
-            byte[] bts2 = other.getValueBytes();
-            return ByteArray.equalsIgnoreTrailZero(bts1, bts2);
+            return getKey() == other.getKey();
         }
         return false;
     }
@@ -1152,6 +1179,70 @@ public class ResConfig extends ResConfigBase implements JSONConvert<JSONObject>,
         }
     }
 
+    /**
+     * Bounded caches of parsed qualifiers to config value and config value to qualifiers,
+     * both are cleared once they grow beyond MAX_SIZE.
+     * */
+    static class QualifiersCache{
+        private static final Map<String, Parsed> PARSED = new ConcurrentHashMap<>();
+        private static final Map<ResConfigKey, String> QUALIFIERS = new ConcurrentHashMap<>();
+        private static final int MAX_SIZE = 2048;
+
+        static Parsed parse(String qualifiers){
+            if(qualifiers == null){
+                qualifiers = "";
+            }
+            Parsed parsed = PARSED.get(qualifiers);
+            if(parsed != null){
+                return parsed;
+            }
+            // smallest config, thus the parser grows it only to the needed size
+            ResConfig resConfig = new ResConfig(SIZE_16);
+            QualifierParser parser = new QualifierParser(resConfig, qualifiers);
+            parser.parse();
+            parsed = new Parsed(resConfig.getKey(), resConfig.getConfigSize(), parser.getErrors());
+            if(PARSED.size() >= MAX_SIZE){
+                PARSED.clear();
+            }
+            PARSED.put(qualifiers, parsed);
+            return parsed;
+        }
+        static String getQualifiers(ResConfig resConfig, ResConfigKey key){
+            String qualifiers = QUALIFIERS.get(key);
+            if(qualifiers != null){
+                return qualifiers;
+            }
+            qualifiers = new QualifierBuilder(resConfig).build();
+            if(QUALIFIERS.size() >= MAX_SIZE){
+                QUALIFIERS.clear();
+            }
+            QUALIFIERS.put(key, qualifiers);
+            return qualifiers;
+        }
+        static void clear(){
+            PARSED.clear();
+            QUALIFIERS.clear();
+        }
+
+        static class Parsed{
+            final ResConfigKey key;
+            final int configSize;
+            private final String[] errors;
+            Parsed(ResConfigKey key, int configSize, String[] errors){
+                this.key = key;
+                this.configSize = configSize;
+                this.errors = errors;
+            }
+            String[] getErrors(){
+                String[] errors = this.errors;
+                if(errors == null){
+                    return null;
+                }
+                return errors.clone();
+            }
+        }
+    }
+
     static class QualifierBuilder{
         private final ResConfig mConfig;
         private StringBuilder mBuilder;
@@ -84,14 +84,24 @@ class ResConfigBase extends FixedBlockContainer
 
     void resetValueBytes(){
         mValuesContainer.fill((byte) 0);
+        mValuesContainer.onValueChanged();
     }
     void setValueBytes(byte[] bytes){
         setConfigSize(bytes.length + 4);
         mValuesContainer.putByteArray(0, bytes);
+        mValuesContainer.onValueChanged();
     }
     byte[] getValueBytes(){
         return mValuesContainer.getBytes();
     }
+    ResConfigKey getValuesKey(){
+        return mValuesContainer.getKey();
+    }
+    void setValuesKey(ResConfigKey key){
+        mValuesContainer.setKey(key);
+    }
+    void onValuesChanged(){
+    }
     /////////////////////////////////////////
 
     public void setMcc(int  value){
@@ -0,0 +1,187 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.arsc.value;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Immutable canonical value of {@link ResConfig}, the config bytes (excluding trailing zeros)
+ * are packed into longs and the hash is computed once. Keys are interned, thus two configs
+ * are equal if and only if their keys are the same instance. The intern table holds keys
+ * weakly, keys no longer referenced by any config are reclaimed.
+ * */
+public final class ResConfigKey {
+    private final long[] words;
+    private final int hash;
+
+    private ResConfigKey(long[] words, int hash){
+        this.words = words;
+        this.hash = hash;
+    }
+
+    public int getWordCount(){
+        return words.length;
+    }
+    public long getWord(int index){
+        if(index >= words.length){
+            return 0;
+        }
+        return words[index];
+    }
+    public boolean isDefault(){
+        return words.length == 0;
+    }
+    /**
+     * Same as {@link ResConfig#isEqualOrMoreSpecificThan(ResConfig)}, every non-zero
+     * byte of other must be equal on this
+     * */
+    public boolean isEqualOrMoreSpecificThan(ResConfigKey other){
+        if(other == this){
+            return true;
+        }
+        long[] otherWords = other.words;
+        int length = otherWords.length;
+        if(length > words.length){
+            return false;
+        }
+        for(int i = 0; i < length; i++){
+            long otherWord = otherWords[i];
+            if(otherWord == 0){
+                continue;
+            }
+            if((words[i] & nonZeroBytesMask(otherWord)) != otherWord){
+                return false;
+            }
+        }
+        return true;
+    }
+    @Override
+    public boolean equals(Object obj) {
+        if(obj == this){
+            return true;
+        }
+        if(!(obj instanceof ResConfigKey)){
+            return false;
+        }
+        ResConfigKey other = (ResConfigKey) obj;
+        if(hash != other.hash){
+            return false;
+        }
+        long[] otherWords = other.words;
+        int length = words.length;
+        if(length != otherWords.length){
+            return false;
+        }
+        for(int i = 0; i < length; i++){
+            if(words[i] != otherWords[i]){
+                return false;
+            }
+        }
+        return true;
+    }
+    /**
+     * Same as hash of trimmed config bytes, thus equals to previous {@link ResConfig#hashCode()}
+     * */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("ResConfigKey{");
+        for(int i = 0; i < words.length; i++){
+            if(i != 0){
+                builder.append(',');
+            }
+            builder.append(Long.toHexString(words[i]));
+        }
+        builder.append('}');
+        return builder.toString();
+    }
+
+    byte[] toByteArray(){
+        long[] words = this.words;
+        int length = words.length * 8;
+        if(length != 0){
+            long last = words[words.length - 1];
+            while ((last >>> (((length - 1) & 7) << 3) & 0xff) == 0){
+                length --;
+            }
+        }
+        byte[] bytes = new byte[length];
+        for(int i = 0; i < length; i++){
+            bytes[i] = (byte) (words[i >> 3] >>> ((i & 7) << 3));
+        }
+        return bytes;
+    }
+
+    static ResConfigKey intern(byte[] bytes){
+        int length = trimmedLength(bytes);
+        if(length == 0){
+            return DEFAULT;
+        }
+        long[] words = new long[(length + 7) / 8];
+        int hash = 1;
+        for(int i = 0; i < length; i++){
+            int value = bytes[i];
+            hash = 31 * hash + value;
+            words[i >> 3] |= (value & 0xffL) << ((i & 7) << 3);
+        }
+        ResConfigKey key = new ResConfigKey(words, hash);
+        Map<ResConfigKey, WeakReference<ResConfigKey>> interned = INTERNED;
+        synchronized (interned){
+            WeakReference<ResConfigKey> reference = interned.get(key);
+            if(reference != null){
+                ResConfigKey exist = reference.get();
+                if(exist != null){
+                    return exist;
+                }
+            }
+            interned.put(key, new WeakReference<>(key));
+        }
+        return key;
+    }
+    public static int internedCount(){
+        synchronized (INTERNED){
+            return INTERNED.size();
+        }
+    }
+    private static int trimmedLength(byte[] bytes){
+        if(bytes == null){
+            return 0;
+        }
+        int length = bytes.length;
+        while (length > 0 && bytes[length - 1] == 0){
+            length --;
+        }
+        return length;
+    }
+    private static long nonZeroBytesMask(long word){
+        long mask = 0;
+        for(int shift = 0; shift < 64; shift += 8){
+            if(((word >>> shift) & 0xff) != 0){
+                mask |= 0xffL << shift;
+            }
+        }
+        return mask;
+    }
+
+    private static final Map<ResConfigKey, WeakReference<ResConfigKey>> INTERNED = new WeakHashMap<>();
+    private static final ResConfigKey DEFAULT = new ResConfigKey(new long[0], 1);
+}
@@ -0,0 +1,665 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.arsc.value;
+
+/**
+ * Configuration matching as of android ResTable_config (match, isBetterThan and
+ * isMoreSpecificThan) for one requested (device) configuration.
+ * <br />
+ * Differences from framework: scripts are never computed from language and region
+ * (no locale data), thus regions must match whenever a script is missing; and among
+ * two different regions the requested one is preferred, then the one without region.
+ * */
+public class ResConfigMatcher {
+    private final ResConfig requestedConfig;
+    private final Fields requested;
+
+    public ResConfigMatcher(ResConfig requested){
+        ResConfig copy = new ResConfig();
+        copy.copyFrom(requested);
+        this.requestedConfig = copy;
+        this.requested = new Fields(copy);
+    }
+
+    public ResConfig getRequested() {
+        return requestedConfig;
+    }
+    public boolean match(ResConfig resConfig){
+        return match(new Fields(resConfig), requested);
+    }
+    public boolean isBetterThan(ResConfig resConfig, ResConfig other){
+        return isBetterThan(new Fields(resConfig), new Fields(other), requested);
+    }
+    /**
+     * Picks best of the given configs in the same way as framework does, configs which
+     * do not match are ignored. Returns index of the best or -1 if none matches
+     * */
+    public int findBest(ResConfig[] resConfigs){
+        Fields best = null;
+        int result = -1;
+        for(int i = 0; i < resConfigs.length; i++){
+            ResConfig resConfig = resConfigs[i];
+            if(resConfig == null){
+                continue;
+            }
+            Fields fields = new Fields(resConfig);
+            if(!match(fields, requested)){
+                continue;
+            }
+            if(best == null || isBetterThan(fields, best, requested)){
+                best = fields;
+                result = i;
+            }
+        }
+        return result;
+    }
+    /**
+     * Returns indexes of matching configs ordered from best to worst, each position
+     * is the best among the remaining configs.
+     * */
+    public int[] rank(ResConfig[] resConfigs){
+        int length = resConfigs.length;
+        Fields[] candidates = new Fields[length];
+        int count = 0;
+        for(int i = 0; i < length; i++){
+            ResConfig resConfig = resConfigs[i];
+            if(resConfig == null){
+                continue;
+            }
+            Fields fields = new Fields(resConfig);
+            if(match(fields, requested)){
+                fields.index = i;
+                candidates[count] = fields;
+                count ++;
+            }
+        }
+        int[] results = new int[count];
+        for(int i = 0; i < count; i++){
+            int best = i;
+            for(int j = i + 1; j < count; j++){
+                if(isBetterThan(candidates[j], candidates[best], requested)){
+                    best = j;
+                }
+            }
+            Fields fields = candidates[best];
+            candidates[best] = candidates[i];
+            candidates[i] = fields;
+            results[i] = fields.index;
+        }
+        return results;
+    }
+    @Override
+    public String toString() {
+        return "ResConfigMatcher{" + requestedConfig + "}";
+    }
+
+    public static boolean isMoreSpecificThan(ResConfig resConfig, ResConfig other){
+        return isMoreSpecificThan(new Fields(resConfig), new Fields(other));
+    }
+
+    static boolean match(Fields config, Fields settings){
+        if(config.mcc != 0 && config.mcc != settings.mcc){
+            return false;
+        }
+        if(config.mnc != 0 && config.mnc != settings.mnc){
+            return false;
+        }
+        if(config.hasLocale()){
+            if(!langsAreEquivalent(config.language, settings.language)){
+                return false;
+            }
+            if(settings.localeScript == 0 || config.localeScript == 0){
+                if(config.region != 0 && config.region != settings.region){
+                    return false;
+                }
+            }else if(config.localeScript != settings.localeScript){
+                return false;
+            }
+        }
+        int layoutDir = config.screenLayout & MASK_LAYOUTDIR;
+        if(layoutDir != 0 && layoutDir != (settings.screenLayout & MASK_LAYOUTDIR)){
+            return false;
+        }
+        int screenSize = config.screenLayout & MASK_SCREENSIZE;
+        if(screenSize != 0 && screenSize > (settings.screenLayout & MASK_SCREENSIZE)){
+            return false;
+        }
+        int screenLong = config.screenLayout & MASK_SCREENLONG;
+        if(screenLong != 0 && screenLong != (settings.screenLayout & MASK_SCREENLONG)){
+            return false;
+        }
+        int uiModeType = config.uiMode & MASK_UI_MODE_TYPE;
+        if(uiModeType != 0 && uiModeType != (settings.uiMode & MASK_UI_MODE_TYPE)){
+            return false;
+        }
+        int uiModeNight = config.uiMode & MASK_UI_MODE_NIGHT;
+        if(uiModeNight != 0 && uiModeNight != (settings.uiMode & MASK_UI_MODE_NIGHT)){
+            return false;
+        }
+        if(config.smallestScreenWidthDp != 0
+                && config.smallestScreenWidthDp > settings.smallestScreenWidthDp){
+            return false;
+        }
+        int screenRound = config.screenLayout2 & MASK_SCREENROUND;
+        if(screenRound != 0 && screenRound != (settings.screenLayout2 & MASK_SCREENROUND)){
+            return false;
+        }
+        int hdr = config.colorMode & MASK_HDR;
+        if(hdr != 0 && hdr != (settings.colorMode & MASK_HDR)){
+            return false;
+        }
+        int wideColorGamut = config.colorMode & MASK_WIDE_COLOR_GAMUT;
+        if(wideColorGamut != 0 && wideColorGamut != (settings.colorMode & MASK_WIDE_COLOR_GAMUT)){
+            return false;
+        }
+        if(config.screenWidthDp != 0 && config.screenWidthDp > settings.screenWidthDp){
+            return false;
+        }
+        if(config.screenHeightDp != 0 && config.screenHeightDp > settings.screenHeightDp){
+            return false;
+        }
+        if(config.orientation != 0 && config.orientation != settings.orientation){
+            return false;
+        }
+        // density always matches, it can be scaled
+        if(config.touchscreen != 0 && config.touchscreen != settings.touchscreen){
+            return false;
+        }
+        int keysHidden = config.inputFlags & MASK_KEYSHIDDEN;
+        int setKeysHidden = settings.inputFlags & MASK_KEYSHIDDEN;
+        if(keysHidden != 0 && keysHidden != setKeysHidden){
+            // keys hidden "no" also matches "soft"
+            if(keysHidden != KEYSHIDDEN_NO || setKeysHidden != KEYSHIDDEN_SOFT){
+                return false;
+            }
+        }
+        int navHidden = config.inputFlags & MASK_NAVHIDDEN;
+        if(navHidden != 0 && navHidden != (settings.inputFlags & MASK_NAVHIDDEN)){
+            return false;
+        }
+        if(config.keyboard != 0 && config.keyboard != settings.keyboard){
+            return false;
+        }
+        if(config.navigation != 0 && config.navigation != settings.navigation){
+            return false;
+        }
+        if(config.screenWidth != 0 && config.screenWidth > settings.screenWidth){
+            return false;
+        }
+        if(config.screenHeight != 0 && config.screenHeight > settings.screenHeight){
+            return false;
+        }
+        if(config.sdkVersion != 0 && config.sdkVersion > settings.sdkVersion){
+            return false;
+        }
+        return config.minorVersion == 0 || config.minorVersion == settings.minorVersion;
+    }
+    static boolean isBetterThan(Fields config, Fields o, Fields requested){
+        if(requested == null){
+            return isMoreSpecificThan(config, o);
+        }
+        if(config.mcc != o.mcc && requested.mcc != 0){
+            return config.mcc != 0;
+        }
+        if(config.mnc != o.mnc && requested.mnc != 0){
+            return config.mnc != 0;
+        }
+        if(isLocaleBetterThan(config, o, requested)){
+            return true;
+        }
+        if(isLocaleBetterThan(o, config, requested)){
+            return false;
+        }
+        int screenLayout = config.screenLayout;
+        int oScreenLayout = o.screenLayout;
+        if(((screenLayout ^ oScreenLayout) & MASK_LAYOUTDIR) != 0
+                && (requested.screenLayout & MASK_LAYOUTDIR) != 0){
+            return (screenLayout & MASK_LAYOUTDIR) > (oScreenLayout & MASK_LAYOUTDIR);
+        }
+        if(config.smallestScreenWidthDp != o.smallestScreenWidthDp){
+            // larger than requested are already filtered, thus the largest is closest
+            return config.smallestScreenWidthDp > o.smallestScreenWidthDp;
+        }
+        if(config.screenWidthDp != o.screenWidthDp || config.screenHeightDp != o.screenHeightDp){
+            int myDelta = 0;
+            int otherDelta = 0;
+            if(requested.screenWidthDp != 0){
+                myDelta += requested.screenWidthDp - config.screenWidthDp;
+                otherDelta += requested.screenWidthDp - o.screenWidthDp;
+            }
+            if(requested.screenHeightDp != 0){
+                myDelta += requested.screenHeightDp - config.screenHeightDp;
+                otherDelta += requested.screenHeightDp - o.screenHeightDp;
+            }
+            if(myDelta != otherDelta){
+                return myDelta < otherDelta;
+            }
+        }
+        if(((screenLayout ^ oScreenLayout) & MASK_SCREENSIZE) != 0
+                && (requested.screenLayout & MASK_SCREENSIZE) != 0){
+            int mySL = screenLayout & MASK_SCREENSIZE;
+            int oSL = oScreenLayout & MASK_SCREENSIZE;
+            int fixedMySL = mySL;
+            int fixedOSL = oSL;
+            // undefined is the same as normal, when requested is at least normal
+            if((requested.screenLayout & MASK_SCREENSIZE) >= SCREENSIZE_NORMAL){
+                if(fixedMySL == 0){
+                    fixedMySL = SCREENSIZE_NORMAL;
+                }
+                if(fixedOSL == 0){
+                    fixedOSL = SCREENSIZE_NORMAL;
+                }
+            }
+            if(fixedMySL == fixedOSL){
+                return mySL != 0;
+            }
+            return fixedMySL > fixedOSL;
+        }
+        if(((screenLayout ^ oScreenLayout) & MASK_SCREENLONG) != 0
+                && (requested.screenLayout & MASK_SCREENLONG) != 0){
+            return (screenLayout & MASK_SCREENLONG) != 0;
+        }
+        if(((config.screenLayout2 ^ o.screenLayout2) & MASK_SCREENROUND) != 0
+                && (requested.screenLayout2 & MASK_SCREENROUND) != 0){
+            return (config.screenLayout2 & MASK_SCREENROUND) != 0;
+        }
+        if(((config.colorMode ^ o.colorMode) & MASK_WIDE_COLOR_GAMUT) != 0
+                && (requested.colorMode & MASK_WIDE_COLOR_GAMUT) != 0){
+            return (config.colorMode & MASK_WIDE_COLOR_GAMUT) != 0;
+        }
+        if(((config.colorMode ^ o.colorMode) & MASK_HDR) != 0
+                && (requested.colorMode & MASK_HDR) != 0){
+            return (config.colorMode & MASK_HDR) != 0;
+        }
+        if(config.orientation != o.orientation && requested.orientation != 0){
+            return config.orientation != 0;
+        }
+        if(((config.uiMode ^ o.uiMode) & MASK_UI_MODE_TYPE) != 0
+                && (requested.uiMode & MASK_UI_MODE_TYPE) != 0){
+            return (config.uiMode & MASK_UI_MODE_TYPE) != 0;
+        }
+        if(((config.uiMode ^ o.uiMode) & MASK_UI_MODE_NIGHT) != 0
+                && (requested.uiMode & MASK_UI_MODE_NIGHT) != 0){
+            return (config.uiMode & MASK_UI_MODE_NIGHT) != 0;
+        }
+        if(config.density != o.density){
+            return isDensityBetterThan(config.density, o.density, requested.density);
+        }
+        if(config.touchscreen != o.touchscreen && requested.touchscreen != 0){
+            return config.touchscreen != 0;
+        }
+        int keysHidden = config.inputFlags & MASK_KEYSHIDDEN;
+        int oKeysHidden = o.inputFlags & MASK_KEYSHIDDEN;
+        if(keysHidden != oKeysHidden){
+            int reqKeysHidden = requested.inputFlags & MASK_KEYSHIDDEN;
+            if(reqKeysHidden != 0){
+                if(keysHidden == 0){
+                    return false;
+                }
+                if(oKeysHidden == 0){
+                    return true;
+                }
+                // exact match is more specific than "no" matching "soft"
+                if(reqKeysHidden == keysHidden){
+                    return true;
+                }
+                if(reqKeysHidden == oKeysHidden){
+                    return false;
+                }
+            }
+        }
+        int navHidden = config.inputFlags & MASK_NAVHIDDEN;
+        int oNavHidden = o.inputFlags & MASK_NAVHIDDEN;
+        if(navHidden != oNavHidden && (requested.inputFlags & MASK_NAVHIDDEN) != 0){
+            if(navHidden == 0){
+                return false;
+            }
+            if(oNavHidden == 0){
+                return true;
+            }
+        }
+        if(config.keyboard != o.keyboard && requested.keyboard != 0){
+            return config.keyboard != 0;
+        }
+        if(config.navigation != o.navigation && requested.navigation != 0){
+            return config.navigation != 0;
+        }
+        if(config.screenWidth != o.screenWidth || config.screenHeight != o.screenHeight){
+            int myDelta = 0;
+            int otherDelta = 0;
+            if(requested.screenWidth != 0){
+                myDelta += requested.screenWidth - config.screenWidth;
+                otherDelta += requested.screenWidth - o.screenWidth;
+            }
+            if(requested.screenHeight != 0){
+                myDelta += requested.screenHeight - config.screenHeight;
+                otherDelta += requested.screenHeight - o.screenHeight;
+            }
+            if(myDelta != otherDelta){
+                return myDelta < otherDelta;
+            }
+        }
+        if(config.sdkVersion != o.sdkVersion && requested.sdkVersion != 0){
+            return config.sdkVersion > o.sdkVersion;
+        }
+        if(config.minorVersion != o.minorVersion && requested.minorVersion != 0){
+            return config.minorVersion != 0;
+        }
+        return false;
+    }
+    private static boolean isDensityBetterThan(int density, int oDensity, int requestedDensity){
+        int thisDensity = density != 0 ? density : DENSITY_MEDIUM;
+        int otherDensity = oDensity != 0 ? oDensity : DENSITY_MEDIUM;
+        // any density is preferred over scaling
+        if(thisDensity == DENSITY_ANY){
+            return true;
+        }
+        if(otherDensity == DENSITY_ANY){
+            return false;
+        }
+        if(requestedDensity == 0 || requestedDensity == DENSITY_ANY){
+            requestedDensity = DENSITY_MEDIUM;
+        }
+        int h = thisDensity;
+        int l = otherDensity;
+        boolean imBigger = true;
+        if(l > h){
+            h = otherDensity;
+            l = thisDensity;
+            imBigger = false;
+        }
+        if(requestedDensity >= h){
+            return imBigger;
+        }
+        if(l >= requestedDensity){
+            return !imBigger;
+        }
+        // scaling down is 2x better than up
+        if(((2 * l) - requestedDensity) * h > requestedDensity * requestedDensity){
+            return !imBigger;
+        }
+        return imBigger;
+    }
+    private static boolean isLocaleBetterThan(Fields config, Fields o, Fields requested){
+        if(!requested.hasLocale()){
+            return false;
+        }
+        if(!config.hasLocale() && !o.hasLocale()){
+            return false;
+        }
+        if(!langsAreEquivalent(config.language, o.language)){
+            // one of them is empty and the other matches requested language
+            return config.language != 0;
+        }
+        int regionComparison = compareRegions(config.region, o.region, requested.region);
+        if(regionComparison != 0){
+            return regionComparison > 0;
+        }
+        boolean localeMatches = config.localeVariant == requested.localeVariant;
+        boolean otherMatches = o.localeVariant == requested.localeVariant;
+        if(localeMatches != otherMatches){
+            return localeMatches;
+        }
+        // equivalent languages, identical is better
+        return config.language == requested.language && o.language != requested.language;
+    }
+    private static int compareRegions(int region, int oRegion, int requestedRegion){
+        if(region == oRegion){
+            return 0;
+        }
+        if(region == requestedRegion){
+            return 1;
+        }
+        if(oRegion == requestedRegion){
+            return -1;
+        }
+        if(region == 0){
+            return 1;
+        }
+        if(oRegion == 0){
+            return -1;
+        }
+        return 0;
+    }
+    /**
+     * Same as android ResTable_config::isMoreSpecificThan, a field decides only when it
+     * is set on exactly one side
+     * */
+    static boolean isMoreSpecificThan(Fields config, Fields o){
+        Boolean result = moreSpecific(config.mcc, o.mcc);
+        if(result != null){
+            return result;
+        }
+        result = moreSpecific(config.mnc, o.mnc);
+        if(result != null){
+            return result;
+        }
+        result = moreSpecific(config.language, o.language);
+        if(result != null){
+            return result;
+        }
+        result = moreSpecific(config.region, o.region);
+        if(result != null){
+            return result;
+        }
+        int localeDiff = config.getLocaleImportance() - o.getLocaleImportance();
+        if(localeDiff != 0){
+            return localeDiff > 0;
+        }
+        result = moreSpecificMask(config.screenLayout, o.screenLayout, MASK_LAYOUTDIR);
+        if(result != null){
+            return result;
+        }
+        result = moreSpecific(config.smallestScreenWidthDp, o.smallestScreenWidthDp);
+        if(result != null){
+            return result;
+        }
+        result = moreSpecific(config.screenWidthDp, o.screenWidthDp);
+        if(result != null){
+            return result;
+        }
+        result = moreSpecific(config.screenHeightDp, o.screenHeightDp);
+        if(result != null){
+            return result;
+        }
+        result = moreSpecificMask(config.screenLayout, o.screenLayout, MASK_SCREENSIZE);
+        if(result != null){
+            return result;
+        }
+        result = moreSpecificMask(config.screenLayout, o.screenLayout, MASK_SCREENLONG);
+        if(result != null){
+            return result;
+        }
+        result = moreSpecificMask(config.screenLayout2, o.screenLayout2, MASK_SCREENROUND);
+        if(result != null){
+            return result;
+        }
+        result = moreSpecificMask(config.colorMode, o.colorMode, MASK_HDR);
+        if(result != null){
+            return result;
+        }
+        result = moreSpecificMask(config.colorMode, o.colorMode, MASK_WIDE_COLOR_GAMUT);
+        if(result != null){
+            return result;
+        }
+        result = moreSpecific(config.orientation, o.orientation);
+        if(result != null){
+            return result;
+        }
+        result = moreSpecificMask(config.uiMode, o.uiMode, MASK_UI_MODE_TYPE);
+        if(result != null){
+            return result;
+        }
+        result = moreSpecificMask(config.uiMode, o.uiMode, MASK_UI_MODE_NIGHT);
+        if(result != null){
+            return result;
+        }
+        // density is never more specific, default equals medium
+        result = moreSpecific(config.touchscreen, o.touchscreen);
+        if(result != null){
+            return result;
+        }
+        result = moreSpecificMask(config.inputFlags, o.inputFlags, MASK_KEYSHIDDEN);
+        if(result != null){
+            return result;
+        }
+        result = moreSpecificMask(config.inputFlags, o.inputFlags, MASK_NAVHIDDEN);
+        if(result != null){
+            return result;
+        }
+        result = moreSpecific(config.keyboard, o.keyboard);
+        if(result != null){
+            return result;
+        }
+        result = moreSpecific(config.navigation, o.navigation);
+        if(result != null){
+            return result;
+        }
+        result = moreSpecific(config.screenWidth, o.screenWidth);
+        if(result != null){
+            return result;
+        }
+        result = moreSpecific(config.screenHeight, o.screenHeight);
+        if(result != null){
+            return result;
+        }
+        result = moreSpecific(config.sdkVersion, o.sdkVersion);
+        if(result != null){
+            return result;
+        }
+        result = moreSpecific(config.minorVersion, o.minorVersion);
+        if(result != null){
+            return result;
+        }
+        return false;
+    }
+    private static Boolean moreSpecific(int value, int oValue){
+        if(value == oValue || (value != 0 && oValue != 0)){
+            return null;
+        }
+        return value != 0;
+    }
+    private static Boolean moreSpecificMask(int value, int oValue, int mask){
+        return moreSpecific(value & mask, oValue & mask);
+    }
+    private static boolean langsAreEquivalent(int language, int oLanguage){
+        return language == oLanguage
+                || (language == LANGUAGE_TL && oLanguage == LANGUAGE_FIL)
+                || (language == LANGUAGE_FIL && oLanguage == LANGUAGE_TL);
+    }
+
+    static class Fields {
+        final int mcc;
+        final int mnc;
+        final int language;
+        final int region;
+        final int orientation;
+        final int touchscreen;
+        final int density;
+        final int keyboard;
+        final int navigation;
+        final int inputFlags;
+        final int screenWidth;
+        final int screenHeight;
+        final int sdkVersion;
+        final int minorVersion;
+        final int screenLayout;
+        final int uiMode;
+        final int smallestScreenWidthDp;
+        final int screenWidthDp;
+        final int screenHeightDp;
+        final int localeScript;
+        final long localeVariant;
+        final int screenLayout2;
+        final int colorMode;
+        int index;
+
+        Fields(ResConfig resConfig){
+            this.mcc = resConfig.getMcc();
+            this.mnc = resConfig.getMnc();
+            this.language = toInt(resConfig.getLanguageBytes());
+            this.region = toInt(resConfig.getRegionBytes());
+            this.orientation = resConfig.getOrientationValue();
+            this.touchscreen = resConfig.getTouchscreenValue();
+            this.density = resConfig.getDensityValue();
+            this.keyboard = resConfig.getKeyboardValue();
+            this.navigation = resConfig.getNavigationValue();
+            this.inputFlags = resConfig.getInputFlagsValue();
+            this.screenWidth = resConfig.getScreenWidth();
+            this.screenHeight = resConfig.getScreenHeight();
+            this.sdkVersion = resConfig.getSdkVersion();
+            this.minorVersion = resConfig.getMinorVersion();
+            this.screenLayout = resConfig.getScreenLayout();
+            this.uiMode = resConfig.getUiMode();
+            this.smallestScreenWidthDp = resConfig.getSmallestScreenWidthDp();
+            this.screenWidthDp = resConfig.getScreenWidthDp();
+            this.screenHeightDp = resConfig.getScreenHeightDp();
+            this.localeScript = toInt(resConfig.getLocaleScriptBytes());
+            this.localeVariant = toLong(resConfig.getLocaleVariantBytes());
+            this.screenLayout2 = resConfig.getScreenLayout2();
+            this.colorMode = resConfig.getColorMode();
+        }
+        boolean hasLocale(){
+            return language != 0 || region != 0
+                    || localeScript != 0 || localeVariant != 0;
+        }
+        int getLocaleImportance(){
+            return (localeVariant != 0 ? 4 : 0) + (localeScript != 0 ? 2 : 0);
+        }
+
+        private static int toInt(byte[] bytes){
+            int result = 0;
+            if(bytes == null){
+                return result;
+            }
+            for(byte b : bytes){
+                result = (result << 8) | (b & 0xff);
+            }
+            return result;
+        }
+        private static long toLong(byte[] bytes){
+            long result = 0;
+            if(bytes == null){
+                return result;
+            }
+            for(byte b : bytes){
+                result = (result << 8) | (b & 0xff);
+            }
+            return result;
+        }
+    }
+
+    private static final int MASK_LAYOUTDIR = 0xc0;
+    private static final int MASK_SCREENSIZE = 0x0f;
+    private static final int MASK_SCREENLONG = 0x30;
+    private static final int MASK_UI_MODE_TYPE = 0x0f;
+    private static final int MASK_UI_MODE_NIGHT = 0x30;
+    private static final int MASK_SCREENROUND = 0x03;
+    private static final int MASK_WIDE_COLOR_GAMUT = 0x03;
+    private static final int MASK_HDR = 0x0c;
+    private static final int MASK_KEYSHIDDEN = 0x03;
+    private static final int MASK_NAVHIDDEN = 0x0c;
+
+    private static final int KEYSHIDDEN_NO = 1;
+    private static final int KEYSHIDDEN_SOFT = 3;
+    private static final int SCREENSIZE_NORMAL = 2;
+    private static final int DENSITY_MEDIUM = 160;
+    private static final int DENSITY_ANY = 0xfffe;
+
+    private static final int LANGUAGE_TL = ('t' << 8) | 'l';
+    // packed three letter language "fil"
+    private static final int LANGUAGE_FIL = 0xad05;
+}
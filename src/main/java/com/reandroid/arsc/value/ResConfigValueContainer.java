@@ -15,17 +15,34 @@
  */
 package com.reandroid.arsc.value;
 
+import com.reandroid.arsc.base.Block;
 import com.reandroid.arsc.item.ByteArray;
 import com.reandroid.arsc.item.IntegerItem;
 
 class ResConfigValueContainer extends ByteArray {
     private final IntegerItem configSize;
+    private ResConfigKey mKey;
 
     ResConfigValueContainer(int bytesSize, IntegerItem configSize){
         super(bytesSize);
         this.configSize = configSize;
     }
 
+    ResConfigKey getKey(){
+        ResConfigKey key = this.mKey;
+        if(key == null){
+            key = ResConfigKey.intern(getBytesInternal());
+            this.mKey = key;
+        }
+        return key;
+    }
+    void setKey(ResConfigKey key){
+        fill((byte) 0);
+        putByteArray(0, key.toByteArray());
+        this.mKey = key;
+        notifyParent();
+    }
+
     int getByteValue(int offset){
         return getValue(offset, 1);
     }
@@ -94,6 +111,7 @@ class ResConfigValueContainer extends ByteArray {
         if(sizeChanged){
             onSizeChanged();
         }
+        onValueChanged();
     }
     private void setValue(int offset, int dataSize, int value){
         int size = size();
@@ -145,11 +163,25 @@ class ResConfigValueContainer extends ByteArray {
         putInteger(offset, value);
         return true;
     }
+    @Override
+    protected void onBytesChanged(){
+        onKeyChanged();
+    }
     void onSizeChanged(){
-
+        onKeyChanged();
     }
     void onValueChanged(){
-
+        onKeyChanged();
+    }
+    private void onKeyChanged(){
+        this.mKey = null;
+        notifyParent();
+    }
+    private void notifyParent(){
+        Block parent = getParent();
+        if(parent instanceof ResConfigBase){
+            ((ResConfigBase) parent).onValuesChanged();
+        }
     }
     private static int getNearestValueSize(int valueSize){
         return ResConfigBase.nearestSize(valueSize + 4) - 4;
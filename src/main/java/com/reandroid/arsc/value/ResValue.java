@@ -26,6 +26,13 @@ public class ResValue extends ValueItem  {
         return getParent(Entry.class);
     }
 
+    @Override
+    protected void onDataChanged(){
+        Entry entry = getEntry();
+        if(entry != null){
+            entry.onEntryChanged();
+        }
+    }
     @Override
     public PackageBlock getParentChunk(){
         Entry entry = getEntry();
@@ -87,6 +87,7 @@ public class ValueHeader extends BlockItem implements JSONConvert<JSONObject> {
         unLinkStringReference();
         putInteger(getBytesInternal(), OFFSET_SPEC_REFERENCE, key);
         linkStringReference();
+        onKeyChanged();
     }
     public void setKey(StringItem stringItem){
         if(ignoreUpdateKey(stringItem)){
@@ -99,6 +100,13 @@ public class ValueHeader extends BlockItem implements JSONConvert<JSONObject> {
         }
         putInteger(getBytesInternal(), OFFSET_SPEC_REFERENCE, key);
         linkStringReference(stringItem);
+        onKeyChanged();
+    }
+    private void onKeyChanged(){
+        Entry entry = getParentInstance(Entry.class);
+        if(entry != null){
+            entry.onSpecReferenceChanged();
+        }
     }
     private boolean ignoreUpdateKey(StringItem stringItem){
         int key = getKey();
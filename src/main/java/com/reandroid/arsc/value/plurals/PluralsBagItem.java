@@ -22,8 +22,6 @@ import com.reandroid.utils.HexUtil;
 import com.reandroid.arsc.value.*;
 import com.reandroid.arsc.value.bag.BagItem;
 
-import java.util.List;
-
 public class PluralsBagItem extends BagItem {
     private PluralsBagItem(ResValueMap bagItem) {
         super(bagItem);
@@ -68,10 +66,7 @@ public class PluralsBagItem extends BagItem {
                 Entry stringRes = null;
                 if (resConfig != null) {
                     TableBlock tableBlock = entry.getPackageBlock().getTableBlock();
-                    List<Entry> resolvedList = tableBlock.resolveReferenceWithConfig(getValue(), resConfig);
-                    if (resolvedList.size() > 0) {
-                        stringRes = resolvedList.get(0);
-                    }
+                    stringRes = tableBlock.resolveBestEntry(getValue(), resConfig);
                 }
 
                 if (stringRes == null) {
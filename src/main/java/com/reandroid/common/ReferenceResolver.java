@@ -23,26 +23,60 @@ import com.reandroid.arsc.value.ResValue;
 import com.reandroid.arsc.value.ValueType;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
+/**
+ * Resolves reference chains to value entries. Each call keeps its own state thus
+ * instances are safe to use from multiple threads. Resolved chains could optionally
+ * be memoized per reference id, see {@link #setMemoize(boolean)}.
+ * */
 public class ReferenceResolver{
     private final TableBlock entryStore;
-    private final List<Entry> results;
-    private final Set<Integer> resolvedIds;
-    private int limit;
+    private volatile Map<Integer, Entry[]> mMemo;
     public ReferenceResolver(TableBlock entryStore){
         this.entryStore = entryStore;
-        this.results = new ArrayList<>();
-        this.resolvedIds = new HashSet<>();
-        this.limit = -1;
+    }
+    /**
+     * When enabled, unfiltered results are remembered per reference id until
+     * {@link #clearMemo()} is called, thus it should be enabled on tables which
+     * are not modified meanwhile.
+     * */
+    public void setMemoize(boolean memoize){
+        if(memoize == isMemoize()){
+            return;
+        }
+        if(memoize){
+            this.mMemo = new ConcurrentHashMap<>();
+        }else {
+            this.mMemo = null;
+        }
+    }
+    public boolean isMemoize(){
+        return mMemo != null;
+    }
+    public void clearMemo(){
+        Map<Integer, Entry[]> memo = this.mMemo;
+        if(memo != null){
+            memo.clear();
+        }
     }
     public Entry resolve(int referenceId){
         return resolve(referenceId, null);
     }
-    public synchronized Entry resolve(int referenceId, Predicate<Entry> filter){
-        resolveReference(referenceId, filter);
-        List<Entry> results = new ArrayList<>(this.results);
-        reset();
+    public Entry resolve(int referenceId, Predicate<Entry> filter){
+        Map<Integer, Entry[]> memo = this.mMemo;
+        if(memo != null){
+            for(Entry entry : resolveMemo(memo, referenceId)){
+                if(filter == null || filter.test(entry)){
+                    return entry;
+                }
+            }
+            return null;
+        }
+        Resolution resolution = new Resolution(filter, 1);
+        resolution.resolveReference(referenceId);
+        List<Entry> results = resolution.results;
         if(results.size() > 0){
             return results.get(0);
         }
@@ -58,62 +92,100 @@ public class ReferenceResolver{
     public List<Entry> resolveAll(int referenceId){
         return resolveAll(referenceId, (Predicate<Entry>)null);
     }
-    public synchronized List<Entry> resolveAll(int referenceId, Predicate<Entry> filter){
-        resolveReference(referenceId, filter);
-        List<Entry> results = new ArrayList<>(this.results);
-        reset();
-        return results;
+    public List<Entry> resolveAll(int referenceId, Predicate<Entry> filter){
+        Map<Integer, Entry[]> memo = this.mMemo;
+        if(memo != null){
+            Entry[] entries = resolveMemo(memo, referenceId);
+            List<Entry> results = new ArrayList<>(entries.length);
+            for(Entry entry : entries){
+                if(filter == null || filter.test(entry)){
+                    results.add(entry);
+                }
+            }
+            return results;
+        }
+        Resolution resolution = new Resolution(filter, 0);
+        resolution.resolveReference(referenceId);
+        return resolution.results;
     }
-    private void resolveReference(int referenceId, Predicate<Entry> filter){
-        if(referenceId == 0 || isFinished() || this.resolvedIds.contains(referenceId)){
-            return;
+    private Entry[] resolveMemo(Map<Integer, Entry[]> memo, int referenceId){
+        Entry[] entries = memo.get(referenceId);
+        if(entries == null){
+            Resolution resolution = new Resolution(null, 0);
+            resolution.resolveReference(referenceId);
+            entries = resolution.results.toArray(new Entry[0]);
+            memo.put(referenceId, entries);
         }
-        this.resolvedIds.add(referenceId);
-        List<Entry> entryList = listNonNullEntries(referenceId);
-        List<Entry> results = this.results;
-        for(Entry entry:entryList){
-            if(isFinished()){
+        return entries;
+    }
+
+    private class Resolution {
+        private final Predicate<Entry> filter;
+        private final int limit;
+        final List<Entry> results;
+        private int[] resolvedIds;
+        private int resolvedCount;
+
+        Resolution(Predicate<Entry> filter, int limit){
+            this.filter = filter;
+            this.limit = limit;
+            this.results = new ArrayList<>();
+            this.resolvedIds = new int[4];
+        }
+        void resolveReference(int referenceId){
+            if(referenceId == 0 || isFinished() || !addResolvedId(referenceId)){
                 return;
             }
-            if(results.contains(entry)){
-                continue;
-            }
-            if(entry.isComplex()){
-                addResult(filter, entry);
-                continue;
+            ResourceEntry resourceEntry = entryStore.getResource(referenceId);
+            if(resourceEntry == null){
+                return;
             }
-            ResValue resValue = entry.getResValue();
-            if(resValue.getValueType() != ValueType.REFERENCE){
-                addResult(filter, entry);
-                continue;
+            List<Entry> results = this.results;
+            Iterator<Entry> iterator = resourceEntry.iterator(true);
+            while (iterator.hasNext()){
+                Entry entry = iterator.next();
+                if(isFinished()){
+                    return;
+                }
+                if(results.contains(entry)){
+                    continue;
+                }
+                if(entry.isComplex()){
+                    addResult(entry);
+                    continue;
+                }
+                ResValue resValue = entry.getResValue();
+                if(resValue.getValueType() != ValueType.REFERENCE){
+                    addResult(entry);
+                    continue;
+                }
+                resolveReference(resValue.getData());
             }
-            resolveReference(resValue.getData(), filter);
         }
-    }
-    private void reset(){
-        this.results.clear();
-        this.resolvedIds.clear();
-        this.limit = -1;
-    }
-    private boolean isFinished(){
-        return this.limit >= this.results.size();
-    }
-    private void addResult(Predicate<Entry> filter, Entry entry){
-        if(filter == null || filter.test(entry)){
-            this.results.add(entry);
+        private boolean addResolvedId(int referenceId){
+            int[] resolvedIds = this.resolvedIds;
+            int count = this.resolvedCount;
+            for(int i = 0; i < count; i++){
+                if(resolvedIds[i] == referenceId){
+                    return false;
+                }
+            }
+            if(count == resolvedIds.length){
+                resolvedIds = Arrays.copyOf(resolvedIds, count * 2);
+                this.resolvedIds = resolvedIds;
+            }
+            resolvedIds[count] = referenceId;
+            this.resolvedCount = count + 1;
+            return true;
         }
-    }
-    private List<Entry> listNonNullEntries(int resourceId){
-        List<Entry> results = new ArrayList<>();
-        ResourceEntry resourceEntry = this.entryStore.getResource(resourceId);
-        if(resourceEntry == null){
-            return results;
+        private boolean isFinished(){
+            return limit > 0 && results.size() >= limit;
         }
-        Iterator<Entry> itr = resourceEntry.iterator(true);
-        while (itr.hasNext()){
-            results.add(itr.next());
+        private void addResult(Entry entry){
+            if(filter == null || filter.test(entry)){
+                results.add(entry);
+            }
         }
-        return results;
     }
 
     public static class ConfigFilter implements Predicate<Entry>, Comparator<Entry>{
@@ -0,0 +1,321 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.json;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pull style json reader on top of {@link JSONTokener}, reads one token at a time
+ * thus the caller decides which parts to materialize as {@link JSONObject}
+ * or {@link JSONArray} via {@link #readJSONObject()} and {@link #readJSONArray()}.
+ * */
+public class JSONReader implements Closeable {
+    private final Reader reader;
+    private final JSONTokener tokener;
+    private int[] stack;
+    private int stackSize;
+    private Token peeked;
+    private String peekedName;
+    private Object peekedValue;
+
+    public JSONReader(Reader reader){
+        this.reader = reader;
+        this.tokener = new JSONTokener(reader);
+        this.stack = new int[32];
+        this.stack[0] = SCOPE_EMPTY_DOCUMENT;
+        this.stackSize = 1;
+    }
+    public JSONReader(InputStream inputStream){
+        this(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+    public JSONReader(File file) throws IOException {
+        this(new FileInputStream(file));
+    }
+
+    public Token peek() throws JSONException {
+        Token token = this.peeked;
+        if(token != null){
+            return token;
+        }
+        token = doPeek();
+        this.peeked = token;
+        return token;
+    }
+    public boolean hasNext() throws JSONException {
+        Token token = peek();
+        return token != Token.END_OBJECT
+                && token != Token.END_ARRAY
+                && token != Token.END_DOCUMENT;
+    }
+    public void beginObject() throws JSONException {
+        expect(Token.BEGIN_OBJECT);
+        push(SCOPE_EMPTY_OBJECT);
+    }
+    public void endObject() throws JSONException {
+        expect(Token.END_OBJECT);
+        stackSize--;
+    }
+    public void beginArray() throws JSONException {
+        expect(Token.BEGIN_ARRAY);
+        push(SCOPE_EMPTY_ARRAY);
+    }
+    public void endArray() throws JSONException {
+        expect(Token.END_ARRAY);
+        stackSize--;
+    }
+    public String nextName() throws JSONException {
+        expect(Token.NAME);
+        String name = this.peekedName;
+        this.peekedName = null;
+        return name;
+    }
+    /**
+     * Returns name of next member without consuming it, null if next token is not a name
+     * */
+    public String peekName() throws JSONException {
+        if(peek() != Token.NAME){
+            return null;
+        }
+        return this.peekedName;
+    }
+    /**
+     * Returns next primitive value as it would be stored on JSONObject,
+     * i.e String, Boolean, Number or {@link JSONObject#NULL}
+     * */
+    public Object nextValue() throws JSONException {
+        expect(Token.VALUE);
+        Object value = this.peekedValue;
+        this.peekedValue = null;
+        return value;
+    }
+    public String nextString() throws JSONException {
+        Object value = nextValue();
+        if(value == JSONObject.NULL){
+            return null;
+        }
+        return value.toString();
+    }
+    public int nextInt() throws JSONException {
+        Object value = nextValue();
+        if(value instanceof Number){
+            return ((Number) value).intValue();
+        }
+        try {
+            return Integer.parseInt(value.toString());
+        } catch (NumberFormatException ex) {
+            throw tokener.syntaxError("Expecting int but found: " + value);
+        }
+    }
+    public boolean nextBoolean() throws JSONException {
+        Object value = nextValue();
+        if(value instanceof Boolean){
+            return (Boolean) value;
+        }
+        if("true".equalsIgnoreCase(value.toString())){
+            return true;
+        }
+        if("false".equalsIgnoreCase(value.toString())){
+            return false;
+        }
+        throw tokener.syntaxError("Expecting boolean but found: " + value);
+    }
+    public JSONObject readJSONObject() throws JSONException {
+        if(peek() == Token.VALUE){
+            nextNull();
+            return null;
+        }
+        expect(Token.BEGIN_OBJECT);
+        tokener.back();
+        return new JSONObject(tokener);
+    }
+    public JSONArray readJSONArray() throws JSONException {
+        if(peek() == Token.VALUE){
+            nextNull();
+            return null;
+        }
+        expect(Token.BEGIN_ARRAY);
+        tokener.back();
+        return new JSONArray(tokener);
+    }
+    /**
+     * Reads the whole next value, could be JSONObject, JSONArray or primitive
+     * */
+    public Object readValue() throws JSONException {
+        Token token = peek();
+        if(token == Token.BEGIN_OBJECT){
+            return readJSONObject();
+        }
+        if(token == Token.BEGIN_ARRAY){
+            return readJSONArray();
+        }
+        return nextValue();
+    }
+    public void skipValue() throws JSONException {
+        Token token = peek();
+        if(token == Token.BEGIN_OBJECT){
+            beginObject();
+            while (hasNext()){
+                nextName();
+                skipValue();
+            }
+            endObject();
+        }else if(token == Token.BEGIN_ARRAY){
+            beginArray();
+            while (hasNext()){
+                skipValue();
+            }
+            endArray();
+        }else {
+            nextValue();
+        }
+    }
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + tokener.toString();
+    }
+
+    private void nextNull() throws JSONException {
+        Object value = nextValue();
+        if(value != JSONObject.NULL){
+            throw tokener.syntaxError("Expecting object or array but found: " + value);
+        }
+    }
+    private void expect(Token token) throws JSONException {
+        Token current = peek();
+        if(current != token){
+            throw tokener.syntaxError("Expecting " + token + " but found " + current);
+        }
+        this.peeked = null;
+    }
+    private void push(int scope){
+        int[] stack = this.stack;
+        if(stackSize == stack.length){
+            int[] update = new int[stackSize * 2];
+            System.arraycopy(stack, 0, update, 0, stackSize);
+            this.stack = update;
+            stack = update;
+        }
+        stack[stackSize] = scope;
+        stackSize++;
+    }
+    private Token doPeek() throws JSONException {
+        JSONTokener tokener = this.tokener;
+        int[] stack = this.stack;
+        int top = stackSize - 1;
+        int scope = stack[top];
+        char c;
+        switch (scope){
+            case SCOPE_EMPTY_ARRAY:
+                stack[top] = SCOPE_NONEMPTY_ARRAY;
+                c = tokener.nextClean();
+                if(c == ']'){
+                    return Token.END_ARRAY;
+                }
+                tokener.back();
+                return peekValue();
+            case SCOPE_NONEMPTY_ARRAY:
+                c = tokener.nextClean();
+                if(c == ']'){
+                    return Token.END_ARRAY;
+                }
+                if(c != ','){
+                    throw tokener.syntaxError("Expected a ',' or ']'");
+                }
+                c = tokener.nextClean();
+                tokener.back();
+                if(c == ']'){
+                    // trailing comma, accepted same as JSONArray
+                    tokener.nextClean();
+                    return Token.END_ARRAY;
+                }
+                return peekValue();
+            case SCOPE_EMPTY_OBJECT:
+            case SCOPE_NONEMPTY_OBJECT:
+                c = tokener.nextClean();
+                if(scope == SCOPE_NONEMPTY_OBJECT){
+                    if(c == '}'){
+                        return Token.END_OBJECT;
+                    }
+                    if(c != ',' && c != ';'){
+                        throw tokener.syntaxError("Expected a ',' or '}'");
+                    }
+                    c = tokener.nextClean();
+                }
+                if(c == '}'){
+                    return Token.END_OBJECT;
+                }
+                if(c == 0){
+                    throw tokener.syntaxError("A JSONObject text must end with '}'");
+                }
+                tokener.back();
+                peekedName = tokener.nextValue().toString();
+                if(tokener.nextClean() != ':'){
+                    throw tokener.syntaxError("Expected a ':' after a key");
+                }
+                stack[top] = SCOPE_DANGLING_NAME;
+                return Token.NAME;
+            case SCOPE_DANGLING_NAME:
+                stack[top] = SCOPE_NONEMPTY_OBJECT;
+                return peekValue();
+            case SCOPE_EMPTY_DOCUMENT:
+                stack[top] = SCOPE_NONEMPTY_DOCUMENT;
+                c = tokener.nextClean();
+                if(c == 0){
+                    return Token.END_DOCUMENT;
+                }
+                tokener.back();
+                return peekValue();
+            default:
+                return Token.END_DOCUMENT;
+        }
+    }
+    private Token peekValue() throws JSONException {
+        JSONTokener tokener = this.tokener;
+        char c = tokener.nextClean();
+        if(c == '{'){
+            return Token.BEGIN_OBJECT;
+        }
+        if(c == '['){
+            return Token.BEGIN_ARRAY;
+        }
+        tokener.back();
+        peekedValue = tokener.nextValue();
+        return Token.VALUE;
+    }
+
+    public enum Token {
+        BEGIN_OBJECT,
+        END_OBJECT,
+        BEGIN_ARRAY,
+        END_ARRAY,
+        NAME,
+        VALUE,
+        END_DOCUMENT
+    }
+
+    private static final int SCOPE_EMPTY_DOCUMENT = 0;
+    private static final int SCOPE_NONEMPTY_DOCUMENT = 1;
+    private static final int SCOPE_EMPTY_ARRAY = 2;
+    private static final int SCOPE_NONEMPTY_ARRAY = 3;
+    private static final int SCOPE_EMPTY_OBJECT = 4;
+    private static final int SCOPE_NONEMPTY_OBJECT = 5;
+    private static final int SCOPE_DANGLING_NAME = 6;
+}
@@ -7,6 +7,7 @@ package com.reandroid.json;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
 
 public class JsonUtil {
 
@@ -38,4 +39,18 @@ public class JsonUtil {
         jsonConvert.fromJson(jsonObject);
     }
 
+    public static void writeJson(File file, Consumer<JSONWriter> consumer) throws IOException {
+        File dir = file.getParentFile();
+        if(dir != null && !dir.exists()){
+            dir.mkdirs();
+        }
+        Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(file), StandardCharsets.UTF_8));
+        try {
+            consumer.accept(new JSONWriter(writer));
+        }finally {
+            writer.close();
+        }
+    }
+
 }
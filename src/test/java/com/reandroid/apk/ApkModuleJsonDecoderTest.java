@@ -0,0 +1,76 @@
+package com.reandroid.apk;
+
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.chunk.TypeBlock;
+import com.reandroid.arsc.container.SpecTypePair;
+import com.reandroid.json.JSONObject;
+import com.reandroid.json.JSONWriter;
+import com.reandroid.utils.io.FileUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+public class ApkModuleJsonDecoderTest {
+
+    @Test
+    public void testStreamedTableJson() throws IOException {
+        ApkModule apkModule = new ApkModuleTest().createApkModule();
+        TableBlock tableBlock = apkModule.getTableBlock();
+        File dir = new File(FileUtil.getTempDir(), "decode_json_stream");
+        ApkModuleJsonDecoder decoder = new ApkModuleJsonDecoder(apkModule);
+        decoder.decode(dir);
+
+        File file = new File(new File(dir, TableBlock.DIRECTORY_NAME), TableBlock.FILE_NAME_JSON);
+        Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8);
+        JSONObject streamed = new JSONObject(reader);
+        reader.close();
+        JSONObject expected = tableBlock.toJson();
+        Assert.assertTrue(expected.similar(streamed));
+        Assert.assertArrayEquals(fromJson(expected), fromJson(streamed));
+
+        FileUtil.deleteDirectory(dir);
+    }
+    @Test
+    public void testStreamedTypeJson() throws IOException {
+        TableBlock tableBlock = new ApkModuleTest().createApkModule().getTableBlock();
+        int count = 0;
+        for(PackageBlock packageBlock : tableBlock.listPackages()){
+            Iterator<SpecTypePair> iterator = packageBlock.getSpecTypePairs();
+            while (iterator.hasNext()){
+                Iterator<TypeBlock> typeBlocks = iterator.next().getTypeBlocks();
+                while (typeBlocks.hasNext()){
+                    TypeBlock typeBlock = typeBlocks.next();
+                    StringWriter writer = new StringWriter();
+                    typeBlock.writeJson(new JSONWriter(writer));
+                    JSONObject streamed = new JSONObject(writer.toString());
+                    Assert.assertTrue(typeBlock.toString(), typeBlock.toJson().similar(streamed));
+                    count ++;
+                }
+            }
+        }
+        Assert.assertTrue(count > 1);
+    }
+    @Test
+    public void testStreamedFrameworkJson() throws IOException {
+        TableBlock tableBlock = AndroidFrameworks.getLatest().getTableBlock();
+        StringWriter writer = new StringWriter();
+        tableBlock.writeJson(new JSONWriter(writer));
+        Assert.assertTrue(tableBlock.toJson().similar(new JSONObject(writer.toString())));
+    }
+
+    private static byte[] fromJson(JSONObject jsonObject){
+        TableBlock tableBlock = new TableBlock();
+        tableBlock.fromJson(jsonObject);
+        tableBlock.refresh();
+        return tableBlock.getBytes();
+    }
+}
@@ -7,6 +7,10 @@ import com.reandroid.arsc.array.ResValueMapArray;
 import com.reandroid.arsc.chunk.PackageBlock;
 import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.chunk.xml.AndroidManifestBlock;
+import com.reandroid.arsc.chunk.xml.AndroidManifestSummary;
+import com.reandroid.arsc.chunk.xml.ResXmlAttribute;
+import com.reandroid.arsc.chunk.xml.ResXmlElement;
+import com.reandroid.arsc.chunk.xml.ResXmlAttributeRewriter;
 import com.reandroid.arsc.coder.EncodeResult;
 import com.reandroid.arsc.coder.ValueCoder;
 import com.reandroid.arsc.item.TableString;
@@ -24,6 +28,9 @@ import org.junit.runners.MethodSorters;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.zip.ZipEntry;
 
@@ -57,6 +64,105 @@ public class ApkModuleTest {
         Assert.assertNotEquals(0, packageBlock.getTypeIdOffset());
 
     }
+    @Test
+    public void c_testRewriteXmlAttributesCorruptHeader() throws IOException {
+        ApkModule apkModule = createApkModule();
+        // binary xml header claiming far more bytes than available
+        byte[] bytes = new byte[16];
+        bytes[0] = 0x03;
+        bytes[2] = 0x08;
+        bytes[4] = (byte) 0xff;
+        bytes[5] = (byte) 0xff;
+        bytes[6] = (byte) 0xff;
+        bytes[7] = (byte) 0x7f;
+        apkModule.add(new ByteInputSource(bytes, "res/xml/corrupt.xml"));
+
+        ResXmlAttributeRewriter rewriter = new ResXmlAttributeRewriter()
+                .changePackageId(0x7f, 0x80);
+        apkModule.rewriteXmlAttributes(rewriter, 1);
+        Assert.assertArrayEquals(bytes, IOUtil.readFully(
+                apkModule.getInputSource("res/xml/corrupt.xml").openStream()));
+    }
+    @Test
+    public void d_testManifestSummary() throws IOException {
+        ApkModule apkModule = createApkModule();
+        AndroidManifestBlock manifestBlock = apkModule.getAndroidManifestBlock();
+        addComponents(manifestBlock);
+        manifestBlock.refresh();
+
+        AndroidManifestSummary summary = apkModule.getManifestSummary();
+        assertManifestSummary(manifestBlock, summary);
+        Assert.assertEquals(Arrays.asList("android.app.Activity",
+                "com.reandroid.arsc.SecondActivity", "com.example.Other"), summary.getActivities());
+        Assert.assertEquals(Arrays.asList("com.reandroid.arsc.MyService"), summary.getServices());
+        Assert.assertEquals(Integer.valueOf(21), summary.getMinSdkVersion());
+
+        // streamed from archive without loading manifest
+        ApkModule streamModule = new ApkModule();
+        streamModule.add(new ByteInputSource(manifestBlock.getBytes(), AndroidManifestBlock.FILE_NAME));
+        AndroidManifestSummary streamed = streamModule.getManifestSummary();
+        assertManifestSummary(streamModule.getAndroidManifestBlock(), streamed);
+        Assert.assertEquals(summary.toString(), streamed.toString());
+
+        InputStream inputStream = ApkModuleTest.class
+                .getResourceAsStream("/type_id_offset.apk");
+        ArchiveBytes archiveBytes = new ArchiveBytes(inputStream);
+        ApkModule apkModule2 = new ApkModule(archiveBytes.createZipEntryMap());
+        AndroidManifestSummary summary2 = apkModule2.getManifestSummary();
+        Assert.assertNotNull(summary2);
+        assertManifestSummary(apkModule2.getAndroidManifestBlock(), summary2);
+    }
+    private static void addComponents(AndroidManifestBlock manifestBlock){
+        ResXmlElement usesSdk = manifestBlock.getManifestElement()
+                .createChildElement(AndroidManifestBlock.TAG_uses_sdk);
+        usesSdk.getOrCreateAndroidAttribute(AndroidManifestBlock.NAME_minSdkVersion,
+                AndroidManifestBlock.ID_minSdkVersion).setTypeAndData(ValueType.DEC, 21);
+        usesSdk.getOrCreateAndroidAttribute(AndroidManifestBlock.NAME_targetSdkVersion,
+                AndroidManifestBlock.ID_targetSdkVersion).setTypeAndData(ValueType.DEC, 33);
+        ResXmlElement application = manifestBlock.getApplicationElement();
+        addComponent(application, AndroidManifestBlock.TAG_activity, ".SecondActivity");
+        addComponent(application, AndroidManifestBlock.TAG_activity, "com.example.Other");
+        addComponent(application, AndroidManifestBlock.TAG_activity_alias, ".Alias");
+        addComponent(application, AndroidManifestBlock.TAG_service, ".MyService");
+        addComponent(application, AndroidManifestBlock.TAG_receiver, "Receiver");
+        addComponent(application, AndroidManifestBlock.TAG_provider, ".Provider");
+    }
+    private static void addComponent(ResXmlElement application, String tag, String name){
+        application.createChildElement(tag)
+                .getOrCreateAndroidAttribute(AndroidManifestBlock.NAME_name,
+                        AndroidManifestBlock.ID_name).setValueAsString(name);
+    }
+    private static void assertManifestSummary(AndroidManifestBlock manifestBlock,
+                                              AndroidManifestSummary summary){
+        Assert.assertEquals("package", manifestBlock.getPackageName(), summary.getPackageName());
+        Assert.assertEquals("versionCode", manifestBlock.getVersionCode(), summary.getVersionCode());
+        Assert.assertEquals("versionName", manifestBlock.getVersionName(), summary.getVersionName());
+        Assert.assertEquals("minSdkVersion", manifestBlock.getMinSdkVersion(), summary.getMinSdkVersion());
+        Assert.assertEquals("targetSdkVersion",
+                manifestBlock.getTargetSdkVersion(), summary.getTargetSdkVersion());
+        Assert.assertEquals("uses-permission",
+                manifestBlock.getUsesPermissions(), summary.getUsesPermissions());
+        Assert.assertEquals("activity", listComponents(manifestBlock,
+                AndroidManifestBlock.TAG_activity), summary.getActivities());
+        Assert.assertEquals("activity-alias", listComponents(manifestBlock,
+                AndroidManifestBlock.TAG_activity_alias), summary.getActivityAliases());
+        Assert.assertEquals("service", listComponents(manifestBlock,
+                AndroidManifestBlock.TAG_service), summary.getServices());
+        Assert.assertEquals("receiver", listComponents(manifestBlock,
+                AndroidManifestBlock.TAG_receiver), summary.getReceivers());
+        Assert.assertEquals("provider", listComponents(manifestBlock,
+                AndroidManifestBlock.TAG_provider), summary.getProviders());
+    }
+    private static List<String> listComponents(AndroidManifestBlock manifestBlock, String tag){
+        List<String> results = new ArrayList<>();
+        for(ResXmlElement element : manifestBlock.listApplicationElementsByTag(tag)){
+            ResXmlAttribute attribute = element.searchAttributeByResourceId(AndroidManifestBlock.ID_name);
+            if(attribute != null && attribute.getValueType() == ValueType.STRING){
+                results.add(manifestBlock.fullClassName(attribute.getValueAsString()));
+            }
+        }
+        return results;
+    }
     public ApkModule createApkModule() throws IOException {
 
         ApkModule apkModule = new ApkModule();
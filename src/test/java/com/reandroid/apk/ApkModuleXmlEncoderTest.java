@@ -0,0 +1,143 @@
+package com.reandroid.apk;
+
+import com.reandroid.apk.xmlencoder.XMLEncodeCache;
+import com.reandroid.archive.ByteInputSource;
+import com.reandroid.archive.InputSource;
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.chunk.xml.ResXmlDocument;
+import com.reandroid.utils.io.FileUtil;
+import com.reandroid.utils.io.IOUtil;
+import com.reandroid.xml.XMLFactory;
+import org.junit.Assert;
+import org.junit.Test;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class ApkModuleXmlEncoderTest {
+
+    @Test
+    public void testEncodeCache() throws IOException, XmlPullParserException {
+        File dir = decodeProject("encode_cache");
+        File cacheDir = new File(dir, XMLEncodeCache.DIRECTORY_NAME);
+
+        Map<String, byte[]> cold = build(dir, false);
+        Assert.assertFalse(cacheDir.exists());
+
+        assertSameOutput(cold, build(dir, true));
+        List<File> cacheFiles = listFiles(cacheDir);
+        // manifest and layouts
+        Assert.assertEquals(4, cacheFiles.size());
+        setLastModified(cacheFiles, 1000);
+
+        // unchanged rebuild reads every file from cache, nothing is rewritten
+        assertSameOutput(cold, build(dir, true));
+        Assert.assertEquals(cacheFiles, listFiles(cacheDir));
+        assertLastModified(cacheFiles, 1000);
+
+        File layout = findFile(dir, "second.xml");
+        String xml = new String(Files.readAllBytes(layout.toPath()), StandardCharsets.UTF_8);
+        Assert.assertTrue(xml.contains("second"));
+        Files.write(layout.toPath(), xml.replace("second", "changed")
+                .getBytes(StandardCharsets.UTF_8));
+
+        Map<String, byte[]> coldChanged = build(dir, false);
+        Assert.assertFalse(equalBytes(cold, coldChanged));
+        assertSameOutput(coldChanged, build(dir, true));
+        List<File> changedFiles = listFiles(cacheDir);
+        Assert.assertEquals(5, changedFiles.size());
+        Assert.assertTrue(changedFiles.containsAll(cacheFiles));
+        assertLastModified(cacheFiles, 1000);
+
+        FileUtil.deleteDirectory(dir);
+    }
+
+    private static Map<String, byte[]> build(File dir, boolean cache) throws IOException {
+        ApkModuleXmlEncoder encoder = new ApkModuleXmlEncoder();
+        encoder.setEncodeCacheEnabled(cache);
+        encoder.scanDirectory(dir);
+        Map<String, byte[]> results = new TreeMap<>();
+        for(InputSource inputSource : encoder.getApkModule().getInputSources()){
+            results.put(inputSource.getAlias(), IOUtil.readFully(inputSource.openStream()));
+        }
+        return results;
+    }
+    private static void assertSameOutput(Map<String, byte[]> expected, Map<String, byte[]> actual){
+        Assert.assertEquals(expected.keySet(), actual.keySet());
+        for(Map.Entry<String, byte[]> entry : expected.entrySet()){
+            Assert.assertArrayEquals(entry.getKey(), entry.getValue(), actual.get(entry.getKey()));
+        }
+    }
+    private static boolean equalBytes(Map<String, byte[]> map1, Map<String, byte[]> map2){
+        if(!map1.keySet().equals(map2.keySet())){
+            return false;
+        }
+        for(Map.Entry<String, byte[]> entry : map1.entrySet()){
+            if(!Arrays.equals(entry.getValue(), map2.get(entry.getKey()))){
+                return false;
+            }
+        }
+        return true;
+    }
+    private static List<File> listFiles(File dir){
+        List<File> results = new ArrayList<>();
+        if(dir.isDirectory()){
+            results.addAll(ApkUtil.recursiveFiles(dir));
+        }
+        results.sort(null);
+        return results;
+    }
+    private static void setLastModified(List<File> files, long time){
+        for(File file : files){
+            Assert.assertTrue(file.setLastModified(time));
+        }
+    }
+    private static void assertLastModified(List<File> files, long time){
+        for(File file : files){
+            Assert.assertEquals(file.getName(), time, file.lastModified());
+        }
+    }
+    private static File findFile(File dir, String name){
+        for(File file : ApkUtil.recursiveFiles(dir)){
+            if(file.getName().equals(name)){
+                return file;
+            }
+        }
+        throw new AssertionError("Missing " + name);
+    }
+    private static File decodeProject(String name) throws IOException, XmlPullParserException {
+        ApkModule apkModule = new ApkModuleTest().createApkModule();
+        TableBlock tableBlock = apkModule.getTableBlock();
+        PackageBlock packageBlock = tableBlock.pickOne();
+        addLayout(apkModule, packageBlock, "main");
+        addLayout(apkModule, packageBlock, "second");
+        addLayout(apkModule, packageBlock, "third");
+        tableBlock.refresh();
+        File dir = new File(FileUtil.getTempDir(), name);
+        ApkModuleXmlDecoder decoder = new ApkModuleXmlDecoder(apkModule);
+        decoder.decode(dir);
+        return dir;
+    }
+    private static void addLayout(ApkModule apkModule, PackageBlock packageBlock, String name)
+            throws IOException, XmlPullParserException {
+        String path = "res/layout/" + name + ".xml";
+        packageBlock.getOrCreate("", "layout", name).setValueAsString(path);
+        String xml = "<LinearLayout xmlns:android=\"http://schemas.android.com/apk/res/android\"" +
+                " android:layout_width=\"match_parent\" android:orientation=\"vertical\">" +
+                "<TextView android:text=\"" + name + "\" android:textSize=\"14sp\"/></LinearLayout>";
+        ResXmlDocument document = new ResXmlDocument();
+        document.setPackageBlock(packageBlock);
+        document.parse(XMLFactory.newPullParser(xml));
+        document.refresh();
+        apkModule.add(new ByteInputSource(document.getBytes(), path));
+    }
+}
@@ -0,0 +1,56 @@
+package com.reandroid.apk;
+
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.value.Entry;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.util.List;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ResFileIndexTest {
+
+    @Test
+    public void a_testLookup() {
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example");
+        Entry entry = packageBlock.getOrCreate("", "layout", "main");
+        entry.setValueAsString("res/layout/main.xml");
+        Entry entry_land = packageBlock.getOrCreate("-land", "layout", "main");
+        entry_land.setValueAsString("res/layout-land/main.xml");
+
+        ResFileIndex index = new ResFileIndex(tableBlock);
+        List<Entry> entryList = index.getEntries("res/layout/main.xml");
+        Assert.assertEquals(1, entryList.size());
+        Assert.assertSame(entry, entryList.get(0));
+        Assert.assertSame(entryList, index.getEntries("res/layout/main.xml"));
+        Assert.assertEquals(0, index.getEntries("res/layout/missing.xml").size());
+    }
+    @Test
+    public void b_testEditAfterLookup() {
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example");
+        Entry entry = packageBlock.getOrCreate("", "layout", "main");
+        entry.setValueAsString("res/layout/main.xml");
+
+        ResFileIndex index = new ResFileIndex(tableBlock);
+        Assert.assertEquals(1, index.getEntries("res/layout/main.xml").size());
+        Assert.assertEquals(0, index.getEntries("res/layout/other.xml").size());
+
+        entry.setValueAsString("res/layout/other.xml");
+        Assert.assertEquals(0, index.getEntries("res/layout/main.xml").size());
+        Assert.assertEquals(1, index.getEntries("res/layout/other.xml").size());
+
+        Entry entry_land = packageBlock.getOrCreate("-land", "layout", "main");
+        entry_land.setValueAsString("res/layout/other.xml");
+        Assert.assertEquals(2, index.getEntries("res/layout/other.xml").size());
+
+        entry_land.setNull(true);
+        List<Entry> entryList = index.getEntries("res/layout/other.xml");
+        Assert.assertEquals(1, entryList.size());
+        Assert.assertSame(entry, entryList.get(0));
+    }
+}
@@ -0,0 +1,58 @@
+package com.reandroid.apk.xmlencoder;
+
+import com.reandroid.apk.ApkModule;
+import com.reandroid.apk.ApkModuleTest;
+import com.reandroid.apk.ApkModuleXmlDecoder;
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.value.ValueType;
+import com.reandroid.utils.io.FileUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+public class XMLTableBlockEncoderTest {
+
+    @Test
+    public void testParallelSameAsSequential() throws IOException {
+        File dir = decodeProject("table_encoder_parallel");
+        byte[] sequential = encode(dir, 1);
+        Assert.assertArrayEquals(sequential, encode(dir, 4));
+        Assert.assertArrayEquals(sequential, encode(dir, 2));
+        FileUtil.deleteDirectory(dir);
+    }
+
+    private static byte[] encode(File dir, int threadCount) throws IOException {
+        XMLTableBlockEncoder encoder = new XMLTableBlockEncoder();
+        encoder.setThreadCount(threadCount);
+        encoder.scanMainDirectory(dir);
+        TableBlock tableBlock = encoder.getTableBlock();
+        tableBlock.refresh();
+        return tableBlock.getBytes();
+    }
+    private static File decodeProject(String name) throws IOException {
+        ApkModule apkModule = new ApkModuleTest().createApkModule();
+        TableBlock tableBlock = apkModule.getTableBlock();
+        PackageBlock packageBlock = tableBlock.pickOne();
+        String[] qualifiersList = new String[]{
+                "", "-fr", "-ja", "-zh-rCN", "-land", "-v21", "-sw600dp", "-night"
+        };
+        for(String qualifiers : qualifiersList){
+            for(int i = 0; i < 25; i++){
+                packageBlock.getOrCreate(qualifiers, "string", "text_" + i)
+                        .setValueAsString("text " + i + qualifiers);
+                packageBlock.getOrCreate(qualifiers, "integer", "count_" + i)
+                        .setValueAsRaw(ValueType.DEC, i * qualifiers.length());
+                packageBlock.getOrCreate(qualifiers, "bool", "flag_" + i)
+                        .setValueAsBoolean((i & 1) == 0);
+            }
+        }
+        tableBlock.refresh();
+        File dir = new File(FileUtil.getTempDir(), name);
+        ApkModuleXmlDecoder decoder = new ApkModuleXmlDecoder(apkModule);
+        decoder.decode(dir);
+        return dir;
+    }
+}
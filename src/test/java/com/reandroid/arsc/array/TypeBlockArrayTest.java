@@ -0,0 +1,80 @@
+package com.reandroid.arsc.array;
+
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.chunk.TypeBlock;
+import com.reandroid.arsc.value.Entry;
+import com.reandroid.json.JSONArray;
+import com.reandroid.json.JSONObject;
+import com.reandroid.json.JSONReader;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.StringReader;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TypeBlockArrayTest {
+
+    @Test
+    public void a_testJsonReaderSparseFirst() {
+        TypeBlockArray typeBlockArray = readTypes(createJson(true));
+        Assert.assertEquals(1, typeBlockArray.childesCount());
+        assertTypeBlock(typeBlockArray.get(0), true);
+    }
+    @Test
+    public void b_testJsonReaderSparseLast() {
+        TypeBlockArray typeBlockArray = readTypes(createJson(false));
+        Assert.assertEquals(1, typeBlockArray.childesCount());
+        assertTypeBlock(typeBlockArray.get(0), true);
+    }
+    @Test
+    public void c_testJsonReaderNotSparse() {
+        JSONArray jsonArray = createJson(false);
+        jsonArray.getJSONObject(0).remove(TypeBlock.NAME_is_sparse);
+        TypeBlockArray typeBlockArray = readTypes(jsonArray);
+        Assert.assertEquals(1, typeBlockArray.childesCount());
+        assertTypeBlock(typeBlockArray.get(0), false);
+    }
+    private void assertTypeBlock(TypeBlock typeBlock, boolean sparse){
+        Assert.assertEquals(sparse, typeBlock.isSparse());
+        Assert.assertEquals("-land", typeBlock.getResConfig().getQualifiers());
+        Entry entry = typeBlock.getEntry(2);
+        Assert.assertNotNull(entry);
+        Assert.assertEquals("value_2", entry.getResValue().getValueAsString());
+    }
+    private TypeBlockArray readTypes(JSONArray jsonArray){
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example");
+        TypeBlockArray typeBlockArray = packageBlock
+                .getOrCreateSpecTypePair("string").getTypeBlockArray();
+        JSONReader reader = new JSONReader(new StringReader(jsonArray.toString()));
+        typeBlockArray.fromJson(reader);
+        return typeBlockArray;
+    }
+    private JSONArray createJson(boolean sparseFirst){
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example");
+        for(int i = 0; i < 3; i++){
+            packageBlock.getOrCreate("-land", "string", "name_" + i)
+                    .setValueAsString("value_" + i);
+        }
+        JSONObject typeJson = packageBlock.getSpecTypePair("string")
+                .getTypeBlockArray().get(0).toJson();
+        typeJson.remove(TypeBlock.NAME_is_sparse);
+        JSONObject jsonObject = new JSONObject();
+        if(sparseFirst){
+            jsonObject.put(TypeBlock.NAME_is_sparse, true);
+        }
+        for(String name : typeJson.keySet()){
+            jsonObject.put(name, typeJson.get(name));
+        }
+        if(!sparseFirst){
+            jsonObject.put(TypeBlock.NAME_is_sparse, true);
+        }
+        JSONArray jsonArray = new JSONArray();
+        jsonArray.put(jsonObject);
+        return jsonArray;
+    }
+}
@@ -0,0 +1,101 @@
+package com.reandroid.arsc.chunk.xml;
+
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.item.ResXmlID;
+import com.reandroid.arsc.value.ValueType;
+import org.junit.Assert;
+import org.junit.Test;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+
+public class ResXmlAttributeRewriterTest {
+    @Test
+    public void testSearchAfterPackageIdChange() throws IOException, XmlPullParserException {
+        ResXmlDocument document = loadDocument();
+        ResXmlElement root = document.getResXmlElement();
+        // build attribute index before ids change
+        Assert.assertNotNull(root.searchAttributeByResourceId(0x0101021b));
+
+        int count = new ResXmlAttributeRewriter()
+                .changePackageId(0x01, 0x02)
+                .rewrite(document);
+        Assert.assertTrue(count > 0);
+
+        ResXmlAttribute attribute = root.searchAttributeByResourceId(0x0201021b);
+        Assert.assertNotNull(attribute);
+        Assert.assertEquals(1, attribute.getData());
+        Assert.assertNull(root.searchAttributeByResourceId(0x0101021b));
+        ResXmlElement activity = root.getElementByTagName("application")
+                .getElementByTagName("activity");
+        Assert.assertTrue(activity.getAttributesWithId(0x02010003).hasNext());
+        Assert.assertNotNull(activity.searchAttributeByResourceId(0x02010003));
+    }
+    @Test
+    public void testSearchAfterIdChange() throws IOException, XmlPullParserException {
+        ResXmlDocument document = loadDocument();
+        ResXmlElement root = document.getResXmlElement();
+        Assert.assertNotNull(root.searchAttributeByResourceId(0x0101021c));
+
+        ResXmlID xmlID = document.getResXmlIDMap().getByResId(0x0101021c);
+        xmlID.set(0x7f010000);
+
+        Assert.assertNotNull(root.searchAttributeByResourceId(0x7f010000));
+        Assert.assertNull(root.searchAttributeByResourceId(0x0101021c));
+        Assert.assertSame(xmlID, document.getResXmlIDMap().getByResId(0x7f010000));
+    }
+    @Test
+    public void testRewriteBytesKeepsInput() throws IOException, XmlPullParserException {
+        byte[] bytes = compileBytes();
+        byte[] original = bytes.clone();
+        ResXmlAttributeRewriter rewriter = new ResXmlAttributeRewriter()
+                .replace(0x0101021b, ValueType.DEC, 1, ValueType.DEC, 2);
+
+        byte[] rewritten = rewriter.rewrite(bytes);
+        Assert.assertNotNull(rewritten);
+        Assert.assertNotSame(bytes, rewritten);
+        Assert.assertArrayEquals(original, bytes);
+
+        ResXmlDocument document = loadDocument(rewritten);
+        Assert.assertEquals(2, document.getResXmlElement()
+                .searchAttributeByResourceId(0x0101021b).getData());
+
+        ResXmlDocument expected = loadDocument(original);
+        Assert.assertEquals(1, rewriter.rewrite(expected));
+        expected.refresh();
+        Assert.assertArrayEquals(expected.getBytes(), rewritten);
+
+        Assert.assertSame(bytes, rewriter.rewriteInPlace(bytes));
+        Assert.assertArrayEquals(rewritten, bytes);
+        Assert.assertNull(new ResXmlAttributeRewriter()
+                .replace(0x0101021b, ValueType.DEC, 5, ValueType.DEC, 2)
+                .rewrite(original));
+    }
+    @Test
+    public void testRewriteBytesRemove() throws IOException, XmlPullParserException {
+        byte[] bytes = compileBytes();
+        byte[] original = bytes.clone();
+        byte[] rewritten = new ResXmlAttributeRewriter()
+                .remove(0x0101021c)
+                .rewrite(bytes);
+        Assert.assertNotNull(rewritten);
+        Assert.assertArrayEquals(original, bytes);
+        ResXmlElement root = loadDocument(rewritten).getResXmlElement();
+        Assert.assertNull(root.searchAttributeByResourceId(0x0101021c));
+        Assert.assertNotNull(root.searchAttributeByResourceId(0x0101021b));
+    }
+    private static ResXmlDocument loadDocument() throws IOException, XmlPullParserException {
+        return loadDocument(compileBytes());
+    }
+    private static ResXmlDocument loadDocument(byte[] bytes) throws IOException, XmlPullParserException {
+        ResXmlDocument document = new ResXmlDocument();
+        document.setPackageBlock(ResXmlStreamParserTest.createDummy().pickOne());
+        document.readBytes(new java.io.ByteArrayInputStream(bytes));
+        return document;
+    }
+    private static byte[] compileBytes() throws IOException, XmlPullParserException {
+        PackageBlock packageBlock = ResXmlStreamParserTest.createDummy().pickOne();
+        return ResXmlStreamParserTest.compileDocument(packageBlock,
+                ResXmlStreamParserTest.XML_STRING);
+    }
+}
@@ -0,0 +1,186 @@
+package com.reandroid.arsc.chunk.xml;
+
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.xml.XMLFactory;
+import org.junit.Assert;
+import org.junit.Test;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+import java.util.Random;
+
+public class ResXmlCompilerTest {
+    @Test
+    public void testSameBytesAsDocument() throws IOException, XmlPullParserException {
+        PackageBlock packageBlock = ResXmlStreamParserTest.createDummy().pickOne();
+        ResXmlCompiler compiler = new ResXmlCompiler(packageBlock);
+        assertSameAsDocument(compiler, packageBlock, ResXmlStreamParserTest.XML_STRING);
+        // tables are reused between calls
+        assertSameAsDocument(compiler, packageBlock, ResXmlStreamParserTest.XML_STRING);
+    }
+    @Test
+    public void testEdgeCases() throws IOException, XmlPullParserException {
+        PackageBlock packageBlock = ResXmlStreamParserTest.createDummy().pickOne();
+        ResXmlCompiler compiler = new ResXmlCompiler(packageBlock);
+        for(String xml : EDGE_CASES){
+            assertSameAsDocument(compiler, packageBlock, xml);
+        }
+    }
+    @Test
+    public void testSameErrorAsDocument() throws IOException, XmlPullParserException {
+        PackageBlock packageBlock = ResXmlStreamParserTest.createDummy().pickOne();
+        ResXmlCompiler compiler = new ResXmlCompiler(packageBlock);
+        String xml = "<root xmlns:a=\"urn:one\" a:x=\"1\"/>";
+        String expected = null;
+        try {
+            ResXmlStreamParserTest.compileDocument(packageBlock, xml);
+        } catch (IOException ex) {
+            expected = ex.getMessage();
+        }
+        Assert.assertNotNull(expected);
+        try {
+            compiler.compile(XMLFactory.newPullParser(xml));
+            Assert.fail("Expecting IOException");
+        } catch (IOException ex) {
+            Assert.assertEquals(expected, ex.getMessage());
+        }
+    }
+    @Test
+    public void testGeneratedLayouts() throws IOException, XmlPullParserException {
+        PackageBlock packageBlock = ResXmlStreamParserTest.createDummy().pickOne();
+        ResXmlCompiler compiler = new ResXmlCompiler(packageBlock);
+        Random random = new Random(300);
+        for(int i = 0; i < 300; i++){
+            assertSameAsDocument(compiler, packageBlock, generateLayout(random));
+        }
+    }
+    @Test
+    public void testCompiledBytesLoadable() throws IOException, XmlPullParserException {
+        PackageBlock packageBlock = ResXmlStreamParserTest.createDummy().pickOne();
+        ResXmlCompiler compiler = new ResXmlCompiler(packageBlock);
+        byte[] bytes = compiler.compile(XMLFactory.newPullParser(
+                ResXmlStreamParserTest.XML_STRING));
+
+        ResXmlDocument document = new ResXmlDocument();
+        document.setPackageBlock(packageBlock);
+        document.readBytes(new java.io.ByteArrayInputStream(bytes));
+        ResXmlElement root = document.getResXmlElement();
+        Assert.assertNotNull(root);
+        Assert.assertEquals("manifest", root.getName());
+        Assert.assertEquals(2, root.listElements("uses-permission").size());
+        Assert.assertNotNull(root.searchAttributeByResourceId(0x0101021b));
+    }
+    @Test(expected = IOException.class)
+    public void testCompileWithoutPackage() throws IOException, XmlPullParserException {
+        new ResXmlCompiler().compile(XMLFactory.newPullParser(
+                ResXmlStreamParserTest.XML_STRING));
+    }
+    private static void assertSameAsDocument(ResXmlCompiler compiler, PackageBlock packageBlock,
+                                             String xml) throws IOException, XmlPullParserException {
+        byte[] expected = ResXmlStreamParserTest.compileDocument(packageBlock, xml);
+        byte[] actual = compiler.compile(XMLFactory.newPullParser(xml));
+        Assert.assertArrayEquals(xml, expected, actual);
+    }
+    private static String generateLayout(Random random){
+        StringBuilder builder = new StringBuilder();
+        builder.append("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n");
+        builder.append("<LinearLayout xmlns:android=\"http://schemas.android.com/apk/res/android\"");
+        appendAttributes(builder, random);
+        builder.append(">\n");
+        int count = 1 + random.nextInt(6);
+        for(int i = 0; i < count; i++){
+            appendElement(builder, random, 1);
+        }
+        builder.append("</LinearLayout>\n");
+        return builder.toString();
+    }
+    private static void appendElement(StringBuilder builder, Random random, int depth){
+        String tag = TAGS[random.nextInt(TAGS.length)];
+        indent(builder, depth);
+        builder.append('<').append(tag);
+        appendAttributes(builder, random);
+        if(depth > 3 || random.nextInt(3) != 0){
+            builder.append(" />\n");
+            return;
+        }
+        builder.append(">\n");
+        int count = random.nextInt(4);
+        for(int i = 0; i < count; i++){
+            appendElement(builder, random, depth + 1);
+        }
+        indent(builder, depth);
+        builder.append("</").append(tag).append(">\n");
+    }
+    private static void appendAttributes(StringBuilder builder, Random random){
+        for(String[] attribute : ATTRIBUTES){
+            if(random.nextInt(3) == 0){
+                continue;
+            }
+            String value = attribute[1 + random.nextInt(attribute.length - 1)];
+            builder.append(' ').append(attribute[0]).append("=\"").append(value).append('"');
+        }
+    }
+    private static void indent(StringBuilder builder, int depth){
+        for(int i = 0; i < depth; i++){
+            builder.append("    ");
+        }
+    }
+
+    private static final String[] TAGS = new String[]{
+            "LinearLayout", "FrameLayout", "TextView", "Button", "ImageView", "view"
+    };
+    private static final String[][] ATTRIBUTES = new String[][]{
+            {"android:layout_width", "match_parent", "wrap_content", "120dp", "-1"},
+            {"android:layout_height", "match_parent", "wrap_content", "48dip"},
+            {"android:orientation", "vertical", "horizontal"},
+            {"android:gravity", "center", "top|start", "center_vertical|end"},
+            {"android:text", "Hello", "caf\u00e9 &amp; \u4e2d\u6587", "emoji \ud83d\ude00", "@android:string/ok", ""},
+            {"android:textSize", "14sp", "12.5sp"},
+            {"android:textColor", "#ff000000", "#fff", "?android:attr/textColorPrimary", "@android:color/white"},
+            {"android:visibility", "gone", "visible"},
+            {"android:id", "@android:id/text1", "@android:id/button1"},
+            {"android:enabled", "true", "false"},
+            {"android:alpha", "0.5", "1.0"},
+            {"android:background", "@null", "@android:drawable/btn_default", "#80ff0000"},
+            {"android:tag", "tag value", "  spaced  ", "100", "true"},
+            {"class", "com.example.View", "android.widget.Space"},
+            {"style", "@android:style/Widget", "?android:attr/buttonStyle"}
+    };
+    private static final String[] EDGE_CASES = new String[]{
+            // entities in attributes and text
+            "<root attr=\"&lt;a&gt; &amp; &quot;b&quot; &apos;c&apos; &#169; &#x1F600;\">" +
+                    "&lt;text&gt; &amp; &#8364;</root>",
+            // CDATA mixed with text
+            "<root>before <![CDATA[<raw> & \"data\"]]> after</root>",
+            "<root><![CDATA[only cdata]]></root>",
+            // comments
+            "<!-- leading comment --><root><!-- child comment --><child/>" +
+                    "<!-- trailing --></root>",
+            // @ and ? references
+            "<root xmlns:android=\"http://schemas.android.com/apk/res/android\"" +
+                    " android:theme=\"@android:style/Widget\"" +
+                    " android:textColor=\"?android:attr/textColorPrimary\"" +
+                    " android:background=\"@null\"" +
+                    " android:text=\"@empty\"" +
+                    " android:label=\"\\@escaped\"" +
+                    " android:tag=\"\\?escaped\"/>",
+            // redeclared namespaces
+            "<a:root xmlns:a=\"urn:one\" xmlns:b=\"urn:two\">" +
+                    "<a:child xmlns:a=\"urn:three\"><b:inner xmlns:b=\"urn:one\"/>" +
+                    "</a:child><a:tail/></a:root>",
+            "<root xmlns:android=\"http://schemas.android.com/apk/res/android\"" +
+                    " xmlns:a=\"urn:one\" android:text=\"one\">" +
+                    "<a:child xmlns:a=\"urn:other\" android:text=\"two\"/></root>",
+            "<root xmlns:android=\"http://schemas.android.com/apk/res/android\">" +
+                    "<child xmlns:android=\"http://schemas.android.com/apk/res/android\"" +
+                    " android:text=\"redeclared\"/></root>",
+            "<root xmlns:unused=\"urn:unused\" xmlns:x=\"urn:x\"><x:child/></root>",
+            // non-BMP unicode
+            "<root attr=\"\ud83d\ude00\ud83c\udf89 \ud840\udc00\">\ud801\udc37 text \ud83d\udc4d</root>",
+            // mixed text and elements
+            "<root>start <b>bold</b> middle <i>italic <u>under</u></i> end</root>",
+            "<root>\n    <child/>\n    text\n    <child/>\n</root>",
+            "<root>  </root>",
+            "<root/>"
+    };
+}
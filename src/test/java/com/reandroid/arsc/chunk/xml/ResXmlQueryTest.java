@@ -0,0 +1,70 @@
+package com.reandroid.arsc.chunk.xml;
+
+import com.reandroid.arsc.chunk.PackageBlock;
+import org.junit.Assert;
+import org.junit.Test;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ResXmlQueryTest {
+    @Test
+    public void testPaths() throws IOException {
+        Assert.assertEquals(1, count("/manifest"));
+        Assert.assertEquals(2, count("/manifest/uses-permission"));
+        Assert.assertEquals(2, count("//activity"));
+        Assert.assertEquals(0, count("/activity"));
+        Assert.assertEquals(3, count("/manifest/application/*"));
+        Assert.assertEquals(1, count("//meta-data"));
+        Assert.assertTrue(ResXmlQuery.compile("//service").matches(getXmlBytes()));
+        Assert.assertFalse(ResXmlQuery.compile("//receiver").matches(getXmlBytes()));
+    }
+    @Test
+    public void testPredicates() throws IOException {
+        Assert.assertEquals(1, count("//uses-permission[@maxSdkVersion]"));
+        Assert.assertEquals(1, count("//uses-permission[not(@android:maxSdkVersion)]"));
+        Assert.assertEquals(1, count("//activity[@0x01010010=true]"));
+        Assert.assertEquals(1, count("//activity[@exported=false]"));
+        Assert.assertEquals(1, count("//activity[@name='.MainActivity']"));
+        Assert.assertEquals(1, count("//activity[@name!='.MainActivity']"));
+        Assert.assertEquals(1, count("/manifest/uses-sdk[@minSdkVersion=21][@targetSdkVersion=0x20]"));
+        Assert.assertEquals(1, count("//application[type(@theme)=REFERENCE]"));
+        Assert.assertEquals(0, count("//application[type(@label)=REFERENCE]"));
+    }
+    @Test
+    public void testVisitor() throws IOException {
+        List<String> names = new ArrayList<>();
+        int count = ResXmlQuery.compile("//activity").evaluate(
+                new ByteArrayInputStream(getXmlBytes()), parser -> {
+                    names.add(parser.getAttributeValue(0));
+                    return true;
+                });
+        Assert.assertEquals(2, count);
+        Assert.assertEquals(2, names.size());
+        Assert.assertEquals(".MainActivity", names.get(0));
+        Assert.assertEquals(".SecondActivity", names.get(1));
+    }
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidExpression() {
+        ResXmlQuery.compile("//activity[@name=");
+    }
+    private static int count(String expression) throws IOException {
+        return ResXmlQuery.compile(expression).count(getXmlBytes());
+    }
+    private static byte[] getXmlBytes() throws IOException {
+        if(XML_BYTES == null){
+            PackageBlock packageBlock = ResXmlStreamParserTest.createDummy().pickOne();
+            try {
+                XML_BYTES = ResXmlStreamParserTest.compileDocument(packageBlock,
+                        ResXmlStreamParserTest.XML_STRING);
+            } catch (XmlPullParserException ex) {
+                throw new IOException(ex);
+            }
+        }
+        return XML_BYTES;
+    }
+    private static byte[] XML_BYTES;
+}
@@ -0,0 +1,150 @@
+package com.reandroid.arsc.chunk.xml;
+
+import com.reandroid.apk.AndroidFrameworks;
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.xml.XMLFactory;
+import org.junit.Assert;
+import org.junit.Test;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+public class ResXmlStreamParserTest {
+    @Test
+    public void testEventsSameAsPullParser() throws IOException, XmlPullParserException {
+        PackageBlock packageBlock = createDummy().pickOne();
+        byte[] bytes = compileDocument(packageBlock, XML_STRING);
+
+        ResXmlPullParser pullParser = new ResXmlPullParser(packageBlock);
+        pullParser.setInput(new ByteArrayInputStream(bytes), null);
+        String expected = trace(pullParser);
+        pullParser.close();
+
+        ResXmlStreamParser streamParser = new ResXmlStreamParser(packageBlock);
+        streamParser.setInput(bytes);
+        String actual = trace(streamParser);
+        streamParser.close();
+
+        Assert.assertTrue(expected.contains("android:theme=@android:style/Widget"));
+        Assert.assertEquals(expected, actual);
+    }
+    @Test
+    public void testDepthAndSkipSubTree() throws IOException, XmlPullParserException {
+        PackageBlock packageBlock = createDummy().pickOne();
+        byte[] bytes = compileDocument(packageBlock, XML_STRING);
+
+        ResXmlStreamParser parser = new ResXmlStreamParser(packageBlock);
+        parser.setInput(bytes);
+        Assert.assertEquals(XmlPullParser.START_TAG, parser.nextTag());
+        Assert.assertEquals("manifest", parser.getName());
+        Assert.assertEquals(1, parser.getDepth());
+
+        Assert.assertEquals(XmlPullParser.START_TAG, parser.nextTag());
+        Assert.assertEquals("uses-sdk", parser.getName());
+        Assert.assertEquals(2, parser.getDepth());
+        Assert.assertEquals("21", parser.getAttributeValue(
+                XML_NS_ANDROID, "minSdkVersion"));
+        Assert.assertEquals(XmlPullParser.END_TAG, parser.nextTag());
+
+        for(int i = 0; i < 2; i++){
+            Assert.assertEquals(XmlPullParser.START_TAG, parser.nextTag());
+            Assert.assertEquals("uses-permission", parser.getName());
+            parser.skipSubTree();
+        }
+        Assert.assertEquals(XmlPullParser.START_TAG, parser.nextTag());
+        Assert.assertEquals("application", parser.getName());
+        parser.skipSubTree();
+        Assert.assertEquals(XmlPullParser.END_TAG, parser.getEventType());
+        Assert.assertEquals("application", parser.getName());
+
+        Assert.assertEquals(XmlPullParser.END_TAG, parser.nextTag());
+        Assert.assertEquals("manifest", parser.getName());
+        Assert.assertEquals(XmlPullParser.END_DOCUMENT, parser.next());
+        parser.close();
+    }
+
+    @Test
+    public void testEndTagNamespace() throws IOException, XmlPullParserException {
+        PackageBlock packageBlock = createDummy().pickOne();
+        byte[] bytes = compileDocument(packageBlock,
+                "<root xmlns:x=\"urn:x\"><x:child/></root>");
+        ResXmlStreamParser parser = new ResXmlStreamParser(packageBlock);
+        parser.setInput(bytes);
+        parser.setFeature(XmlPullParser.FEATURE_PROCESS_NAMESPACES, false);
+        Assert.assertEquals(XmlPullParser.START_TAG, parser.nextTag());
+        Assert.assertEquals(XmlPullParser.START_TAG, parser.nextTag());
+        Assert.assertEquals("urn:x", parser.getNamespace());
+        Assert.assertEquals("x", parser.getPrefix());
+        Assert.assertEquals(XmlPullParser.END_TAG, parser.nextTag());
+        Assert.assertEquals("urn:x", parser.getNamespace());
+        Assert.assertEquals("x", parser.getPrefix());
+        Assert.assertEquals("child", parser.getName());
+        Assert.assertEquals(XmlPullParser.END_TAG, parser.nextTag());
+        Assert.assertEquals("root", parser.getName());
+        Assert.assertNull(parser.getNamespace());
+        parser.close();
+    }
+    static String trace(XmlPullParser parser) throws IOException, XmlPullParserException {
+        StringBuilder builder = new StringBuilder();
+        int event = parser.getEventType();
+        while (event != XmlPullParser.END_DOCUMENT){
+            if(event == XmlPullParser.START_TAG){
+                builder.append('<').append(parser.getName());
+                int count = parser.getAttributeCount();
+                for(int i = 0; i < count; i++){
+                    builder.append(' ')
+                            .append(parser.getAttributePrefix(i))
+                            .append(':')
+                            .append(parser.getAttributeName(i))
+                            .append('=')
+                            .append(parser.getAttributeValue(i));
+                }
+                builder.append(">\n");
+            }else if(event == XmlPullParser.END_TAG){
+                builder.append("</").append(parser.getName()).append(">\n");
+            }else if(event == XmlPullParser.TEXT){
+                builder.append("TEXT ").append(parser.getText()).append('\n');
+            }
+            event = parser.next();
+        }
+        return builder.toString();
+    }
+    static byte[] compileDocument(PackageBlock packageBlock, String xml) throws IOException, XmlPullParserException {
+        ResXmlDocument document = new ResXmlDocument();
+        document.setPackageBlock(packageBlock);
+        document.parse(XMLFactory.newPullParser(xml));
+        document.refresh();
+        return document.getBytes();
+    }
+    static TableBlock createDummy() throws IOException {
+        TableBlock tableBlock = new TableBlock();
+        tableBlock.newPackage(0x7f, "com.example.package");
+        tableBlock.refresh();
+        tableBlock.addFramework(AndroidFrameworks.getLatest().getTableBlock());
+        return tableBlock;
+    }
+
+    private static final String XML_NS_ANDROID = "http://schemas.android.com/apk/res/android";
+
+    static final String XML_STRING = "<?xml version='1.0' encoding='utf-8' ?>\n" +
+            "<manifest xmlns:android=\"http://schemas.android.com/apk/res/android\"\n" +
+            "          android:versionCode=\"1\"\n" +
+            "          android:versionName=\"1.0\"\n" +
+            "          package=\"com.example.package\">\n" +
+            "  <uses-sdk android:minSdkVersion=\"21\"\n" +
+            "            android:targetSdkVersion=\"32\" />\n" +
+            "  <uses-permission android:name=\"android.permission.WRITE_EXTERNAL_STORAGE\"\n" +
+            "                   android:maxSdkVersion=\"28\" />\n" +
+            "  <uses-permission android:name=\"android.permission.READ_EXTERNAL_STORAGE\" />\n" +
+            "  <application android:label=\"Example\" android:theme=\"@android:style/Widget\">\n" +
+            "    <activity android:name=\".MainActivity\" android:exported=\"true\">\n" +
+            "      <meta-data android:name=\"text\">Text node</meta-data>\n" +
+            "    </activity>\n" +
+            "    <activity android:name=\".SecondActivity\" android:exported=\"false\" />\n" +
+            "    <service android:name=\".ExampleService\" />\n" +
+            "  </application>\n" +
+            "</manifest>";
+}
@@ -0,0 +1,106 @@
+package com.reandroid.arsc.chunk.xml;
+
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.io.BlockReader;
+import com.reandroid.xml.XMLFactory;
+import org.junit.Assert;
+import org.junit.Test;
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlpull.v1.XmlSerializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Iterator;
+
+public class ResXmlTranscoderTest {
+    @Test
+    public void testSameAsDocumentSerialize() throws IOException, XmlPullParserException {
+        PackageBlock packageBlock = ResXmlStreamParserTest.createDummy().pickOne();
+        byte[] bytes = ResXmlStreamParserTest.compileDocument(packageBlock,
+                ResXmlStreamParserTest.XML_STRING);
+
+        ResXmlTranscoder transcoder = new ResXmlTranscoder(packageBlock);
+        String expected = serializeDocument(packageBlock, bytes);
+        Assert.assertEquals(expected, transcoder.transcode(bytes));
+
+        StringWriter writer = new StringWriter();
+        transcoder.transcode(new ByteArrayInputStream(bytes), writer);
+        Assert.assertEquals(expected, writer.toString());
+    }
+    @Test
+    public void testStrippedNamespaces() throws IOException, XmlPullParserException {
+        PackageBlock packageBlock = ResXmlStreamParserTest.createDummy().pickOne();
+        ResXmlDocument document = new ResXmlDocument();
+        document.setPackageBlock(packageBlock);
+        document.parse(XMLFactory.newPullParser(ResXmlStreamParserTest.XML_STRING));
+        Iterator<ResXmlElement> iterator = document.recursiveElements();
+        while (iterator.hasNext()){
+            for(ResXmlAttribute attribute : iterator.next().listAttributes()){
+                attribute.setNamespaceReference(-1);
+            }
+        }
+        // root without android attributes, the namespace is first needed by child elements
+        ResXmlElement root = document.getResXmlElement();
+        root.removeAttribute(root.searchAttributeByResourceId(0x0101021b));
+        root.removeAttribute(root.searchAttributeByResourceId(0x0101021c));
+        document.removeUnusedNamespaces();
+        document.refresh();
+        byte[] bytes = document.getBytes();
+
+        String expected = serializeDocument(packageBlock, bytes);
+        String decoded = new ResXmlTranscoder(packageBlock).transcode(bytes);
+        Assert.assertEquals(expected, decoded);
+        Assert.assertEquals(decoded, 1, count(decoded, "xmlns:android="));
+        Assert.assertTrue(decoded.contains("android:name=\".MainActivity\""));
+    }
+    @Test
+    public void testPrefixedElements() throws IOException, XmlPullParserException {
+        PackageBlock packageBlock = ResXmlStreamParserTest.createDummy().pickOne();
+        String[] xmlList = new String[]{
+                VECTOR_XML,
+                "<root xmlns:x=\"urn:x\"><x:child/></root>"
+        };
+        ResXmlTranscoder transcoder = new ResXmlTranscoder(packageBlock);
+        for(String xml : xmlList){
+            byte[] bytes = ResXmlStreamParserTest.compileDocument(packageBlock, xml);
+            String expected = serializeDocument(packageBlock, bytes);
+            Assert.assertEquals(expected, transcoder.transcode(bytes));
+        }
+        String decoded = transcoder.transcode(
+                ResXmlStreamParserTest.compileDocument(packageBlock, VECTOR_XML));
+        Assert.assertTrue(decoded, decoded.contains("</aapt:attr>"));
+        Assert.assertTrue(decoded, decoded.contains("<aapt:attr name=\"android:fillColor\">"));
+    }
+    private static String serializeDocument(PackageBlock packageBlock, byte[] bytes) throws IOException {
+        ResXmlDocument document = new ResXmlDocument();
+        document.setPackageBlock(packageBlock);
+        document.readBytes(new BlockReader(bytes));
+        StringWriter writer = new StringWriter();
+        XmlSerializer serializer = XMLFactory.newSerializer(writer);
+        document.serialize(serializer);
+        serializer.flush();
+        return writer.toString();
+    }
+    private static int count(String text, String search){
+        int result = 0;
+        int index = text.indexOf(search);
+        while (index >= 0){
+            result ++;
+            index = text.indexOf(search, index + search.length());
+        }
+        return result;
+    }
+
+    private static final String VECTOR_XML = "<?xml version='1.0' encoding='utf-8' ?>\n" +
+            "<vector xmlns:android=\"http://schemas.android.com/apk/res/android\"\n" +
+            "        xmlns:aapt=\"http://schemas.android.com/aapt\"\n" +
+            "        android:width=\"24dp\"\n" +
+            "        android:height=\"24dp\">\n" +
+            "  <path android:pathData=\"M0,0L24,24\">\n" +
+            "    <aapt:attr name=\"android:fillColor\">\n" +
+            "      <gradient android:type=\"linear\" />\n" +
+            "    </aapt:attr>\n" +
+            "  </path>\n" +
+            "</vector>";
+}
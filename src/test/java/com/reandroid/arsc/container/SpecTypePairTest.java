@@ -0,0 +1,76 @@
+package com.reandroid.arsc.container;
+
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.value.Entry;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class SpecTypePairTest {
+
+    @Test
+    public void a_testNameIndex() {
+        PackageBlock packageBlock = newPackage();
+        Entry a = packageBlock.getOrCreate("", "string", "a");
+        Entry b = packageBlock.getOrCreate("", "string", "b");
+        SpecTypePair specTypePair = packageBlock.getSpecTypePair("string");
+
+        Assert.assertEquals(a.getId(), specTypePair.getEntryIdByName("a"));
+        Assert.assertEquals(b.getId(), specTypePair.getEntryIdByName("b"));
+        Assert.assertEquals(SpecTypePair.ENTRY_ID_UNKNOWN, specTypePair.getEntryIdByName("c"));
+
+        Entry a_de = packageBlock.getOrCreate("-de", "string", "a");
+        Assert.assertEquals(a.getResourceId(), a_de.getResourceId());
+        Assert.assertSame(a_de, packageBlock.getOrCreate("-de", "string", "a"));
+    }
+    @Test
+    public void b_testReName() {
+        PackageBlock packageBlock = newPackage();
+        Entry a = packageBlock.getOrCreate("", "string", "a");
+        a.setValueAsString("a");
+        Entry a_de = packageBlock.getOrCreate("-de", "string", "a");
+        a_de.setValueAsString("a - de");
+        SpecTypePair specTypePair = packageBlock.getSpecTypePair("string");
+        // build index before renaming
+        Assert.assertEquals(a.getId(), specTypePair.getEntryIdByName("a"));
+
+        a.reName("b");
+        Assert.assertEquals("b", a.getName());
+        Assert.assertEquals("b", a_de.getName());
+        Assert.assertEquals(SpecTypePair.ENTRY_ID_UNKNOWN, specTypePair.getEntryIdByName("a"));
+        Assert.assertEquals(a.getId(), specTypePair.getEntryIdByName("b"));
+        Assert.assertNull(a_de.getTypeBlock().getEntry("a"));
+        Assert.assertSame(a_de, a_de.getTypeBlock().getEntry("b"));
+
+        Entry created = packageBlock.getOrCreate("-de", "string", "a");
+        Assert.assertNotEquals(a.getResourceId(), created.getResourceId());
+        Assert.assertEquals("a", created.getName());
+        Assert.assertEquals("b", a_de.getName());
+        Assert.assertEquals("a - de", a_de.getResValue().getValueAsString());
+    }
+    @Test
+    public void c_testNameChangedOutOfIndex() {
+        PackageBlock packageBlock = newPackage();
+        Entry a = packageBlock.getOrCreate("", "string", "a");
+        a.setValueAsString("a");
+        SpecTypePair specTypePair = packageBlock.getSpecTypePair("string");
+        Assert.assertEquals(a.getId(), specTypePair.getEntryIdByName("a"));
+
+        // renames the shared spec string directly, no entry is notified
+        packageBlock.getSpecStringPool().get(a.getSpecReference()).set("z");
+        packageBlock.getSpecStringPool().refreshUniqueIdMap();
+
+        Assert.assertEquals("z", a.getName());
+        Assert.assertEquals(SpecTypePair.ENTRY_ID_UNKNOWN, specTypePair.getEntryIdByName("a"));
+        Assert.assertEquals(a.getId(), specTypePair.getEntryIdByName("z"));
+        Entry created = packageBlock.getOrCreate("", "string", "a");
+        Assert.assertNotEquals(a.getResourceId(), created.getResourceId());
+    }
+    private static PackageBlock newPackage(){
+        TableBlock tableBlock = new TableBlock();
+        return tableBlock.newPackage(0x7f, "com.example");
+    }
+}
@@ -0,0 +1,135 @@
+package com.reandroid.arsc.item;
+
+import com.reandroid.arsc.pool.TableStringPool;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+
+public class StringItemTest {
+
+    @Test
+    public void testReferencesGrowAndShrink() {
+        TableStringPool stringPool = new TableStringPool(true);
+        StringItem stringItem = stringPool.getOrCreate("value");
+        List<ReferenceItem> expected = new ArrayList<>();
+        // inline, array and set storage
+        for(int i = 0; i < 40; i++){
+            IntegerItem ref = new IntegerItem();
+            stringItem.addReference(ref);
+            expected.add(ref);
+            // duplicates are ignored at every storage size
+            stringItem.addReference(ref);
+            stringItem.addReference(expected.get(0));
+            assertReferences(expected, stringItem);
+        }
+        // back through array and inline storage
+        while (!expected.isEmpty()){
+            ReferenceItem ref = expected.remove(expected.size() / 2);
+            Assert.assertTrue(stringItem.removeReference(ref));
+            Assert.assertFalse(stringItem.removeReference(ref));
+            assertReferences(expected, stringItem);
+        }
+        Assert.assertFalse(stringItem.hasReference());
+        // grows again after shrinking
+        for(int i = 0; i < 20; i++){
+            IntegerItem ref = new IntegerItem();
+            stringItem.addReference(ref);
+            expected.add(ref);
+        }
+        assertReferences(expected, stringItem);
+    }
+    @Test
+    public void testIndexChangeUpdatesReferences() {
+        TableStringPool stringPool = new TableStringPool(true);
+        StringItem stringItem = stringPool.getOrCreate("value");
+        List<IntegerItem> references = new ArrayList<>();
+        for(int count : new int[]{1, 3, 30}){
+            while (references.size() < count){
+                IntegerItem ref = new IntegerItem();
+                references.add(ref);
+                stringItem.addReference(ref);
+            }
+            stringItem.onIndexChanged(0, count + 7);
+            for(IntegerItem ref : references){
+                Assert.assertEquals(count + 7, ref.get());
+            }
+        }
+    }
+    @Test
+    public void testReferencedListView() {
+        TableStringPool stringPool = new TableStringPool(true);
+        StringItem stringItem = stringPool.getOrCreate("value");
+        Collection<ReferenceItem> view = stringItem.getReferencedList();
+        List<ReferenceItem> expected = new ArrayList<>();
+        for(int i = 0; i < 30; i++){
+            IntegerItem ref = new IntegerItem();
+            Assert.assertTrue(view.add(ref));
+            Assert.assertFalse(view.add(ref));
+            expected.add(ref);
+        }
+        assertReferences(expected, stringItem);
+        Assert.assertTrue(view.remove(expected.remove(3)));
+        Assert.assertFalse(view.remove("not a reference"));
+        assertReferences(expected, stringItem);
+
+        // removing through iterator while in set storage
+        removeEverySecond(view, expected);
+        assertReferences(expected, stringItem);
+        // and while in array storage
+        removeEverySecond(view, expected);
+        assertReferences(expected, stringItem);
+
+        view.clear();
+        Assert.assertTrue(view.isEmpty());
+        Assert.assertFalse(stringItem.hasReference());
+    }
+    @Test
+    public void testModificationCountOnlyOnChange() {
+        TableStringPool stringPool = new TableStringPool(true);
+        StringItem stringItem = stringPool.getOrCreate("value");
+        IntegerItem ref = new IntegerItem();
+
+        int count = stringPool.getModificationCount();
+        stringItem.addReference(ref);
+        Assert.assertNotEquals(count, stringPool.getModificationCount());
+
+        count = stringPool.getModificationCount();
+        stringItem.addReference(ref);
+        stringItem.removeReference(new IntegerItem());
+        stringItem.getReferencedList().add(ref);
+        Assert.assertEquals(count, stringPool.getModificationCount());
+
+        stringItem.getReferencedList().remove(ref);
+        Assert.assertNotEquals(count, stringPool.getModificationCount());
+
+        count = stringPool.getModificationCount();
+        stringItem.removeAllReference();
+        Assert.assertEquals(count, stringPool.getModificationCount());
+    }
+
+    private static void removeEverySecond(Collection<ReferenceItem> view, List<ReferenceItem> expected){
+        Iterator<ReferenceItem> iterator = view.iterator();
+        int i = 0;
+        while (iterator.hasNext()){
+            ReferenceItem ref = iterator.next();
+            if((i % 2) == 0){
+                iterator.remove();
+                expected.remove(ref);
+            }
+            i++;
+        }
+    }
+    private static void assertReferences(Collection<ReferenceItem> expected, StringItem stringItem){
+        Collection<ReferenceItem> referencedList = stringItem.getReferencedList();
+        Assert.assertEquals(expected.size(), referencedList.size());
+        Assert.assertEquals(!expected.isEmpty(), stringItem.hasReference());
+        List<ReferenceItem> actual = new ArrayList<>(referencedList);
+        Assert.assertEquals(expected.size(), actual.size());
+        Assert.assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+    }
+}
@@ -0,0 +1,75 @@
+package com.reandroid.arsc.model;
+
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.value.Entry;
+import com.reandroid.arsc.value.ResConfig;
+import com.reandroid.arsc.value.ValueType;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ResolvedEntryCacheTest {
+
+    @Test
+    public void a_testEntryAdded() {
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example");
+        Entry entry = packageBlock.getOrCreate("", "string", "name");
+        entry.setValueAsString("default");
+        int resourceId = entry.getResourceId();
+        ResConfig de = ResConfig.parse("-de");
+
+        Assert.assertNull(tableBlock.resolveBestEntry(resourceId, de));
+        Assert.assertSame(entry, tableBlock.resolveBestEntry(resourceId, new ResConfig()));
+
+        Entry entry_de = packageBlock.getOrCreate("-de", "string", "name");
+        entry_de.setValueAsString("de");
+        Assert.assertSame(entry_de, tableBlock.resolveBestEntry(resourceId, de));
+        Assert.assertSame(entry_de, tableBlock.resolveBestEntries(
+                new int[]{resourceId}, ResConfig.parse("-de"))[0]);
+    }
+    @Test
+    public void b_testEntryRemoved() {
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example");
+        Entry entry_de = packageBlock.getOrCreate("-de", "string", "name");
+        entry_de.setValueAsString("de");
+        int resourceId = entry_de.getResourceId();
+        ResConfig de = ResConfig.parse("-de");
+
+        Assert.assertSame(entry_de, tableBlock.resolveBestEntry(resourceId, de));
+        entry_de.setNull(true);
+        Assert.assertNull(tableBlock.resolveBestEntry(resourceId, de));
+    }
+    @Test
+    public void c_testValueChanged() {
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example");
+        Entry target = packageBlock.getOrCreate("", "string", "target");
+        target.setValueAsString("target");
+        Entry entry = packageBlock.getOrCreate("", "string", "name");
+        entry.setValueAsString("name");
+        int resourceId = entry.getResourceId();
+        ResConfig config = new ResConfig();
+
+        Assert.assertSame(entry, tableBlock.resolveBestEntry(resourceId, config));
+        entry.setValueAsRaw(ValueType.REFERENCE, target.getResourceId());
+        Assert.assertSame(target, tableBlock.resolveBestEntry(resourceId, config));
+    }
+    @Test
+    public void d_testConfigChanged() {
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example");
+        Entry entry = packageBlock.getOrCreate("-de", "string", "name");
+        entry.setValueAsString("name");
+        int resourceId = entry.getResourceId();
+        ResConfig fr = ResConfig.parse("-fr");
+
+        Assert.assertNull(tableBlock.resolveBestEntry(resourceId, fr));
+        entry.getTypeBlock().getResConfig().parseQualifiers("-fr");
+        Assert.assertSame(entry, tableBlock.resolveBestEntry(resourceId, fr));
+    }
+}
@@ -0,0 +1,123 @@
+package com.reandroid.arsc.pool;
+
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.item.TableString;
+import com.reandroid.arsc.value.Entry;
+import com.reandroid.arsc.value.ResValue;
+import org.junit.Assert;
+import org.junit.Test;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+public class StringPoolTest {
+
+    @Test
+    public void testCompact() throws IOException, XmlPullParserException {
+        TableBlock tableBlock = createTable();
+        TableStringPool stringPool = tableBlock.getStringPool();
+        Assert.assertEquals(2, stringPool.get("dup").size());
+
+        Assert.assertEquals(4, stringPool.compact());
+        tableBlock.refresh();
+
+        assertCompacted(tableBlock);
+        Assert.assertEquals(Arrays.asList(
+                "<b>styled</b>", "c", "b", "used", "dup", "other"), stringPool.toStringList());
+
+        TableBlock loaded = new TableBlock();
+        loaded.readBytes(new ByteArrayInputStream(tableBlock.getBytes()));
+        assertCompacted(loaded);
+        Assert.assertArrayEquals(tableBlock.getBytes(), loaded.getBytes());
+    }
+    @Test
+    public void testCompactSameAsRemoveUnused() throws IOException, XmlPullParserException {
+        TableBlock expected = createTable();
+        TableStringPool expectedPool = expected.getStringPool();
+        expectedPool.clearDuplicates();
+        int removed = expectedPool.removeUnusedStrings().size();
+        expectedPool.refreshUniqueIdMap();
+        expected.refresh();
+
+        TableBlock tableBlock = createTable();
+        Assert.assertEquals(removed, tableBlock.getStringPool().compact());
+        tableBlock.refresh();
+
+        Assert.assertEquals(expectedPool.toStringList(),
+                tableBlock.getStringPool().toStringList());
+        Assert.assertArrayEquals(expected.getBytes(), tableBlock.getBytes());
+    }
+    @Test
+    public void testCompactWithoutMerge() throws IOException, XmlPullParserException {
+        TableBlock tableBlock = createTable();
+        TableStringPool stringPool = tableBlock.getStringPool();
+        Assert.assertEquals(3, stringPool.compact(false));
+        tableBlock.refresh();
+        Assert.assertEquals(2, stringPool.get("dup").size());
+        Assert.assertEquals(1, stringPool.countStyles());
+
+        TableBlock loaded = new TableBlock();
+        loaded.readBytes(new ByteArrayInputStream(tableBlock.getBytes()));
+        assertCompacted(loaded);
+    }
+
+    private static void assertCompacted(TableBlock tableBlock){
+        TableStringPool stringPool = tableBlock.getStringPool();
+        PackageBlock packageBlock = tableBlock.pickOne();
+        Assert.assertEquals(1, stringPool.countStyles());
+        Assert.assertEquals("<b>styled</b>", stringPool.get(0).getXml());
+        Assert.assertNull(stringPool.get("unused"));
+        Assert.assertNull(stringPool.get("<c>unused_styled</c>"));
+
+        assertValue(packageBlock, "used", "used");
+        assertValue(packageBlock, "dup_1", "dup");
+        assertValue(packageBlock, "dup_2", "dup");
+        assertValue(packageBlock, "other", "other");
+        Entry styled = packageBlock.getOrCreate("", "string", "styled");
+        Assert.assertEquals("<b>styled</b>",
+                styled.getResValue().getDataAsPoolString().getXml());
+    }
+    private static void assertValue(PackageBlock packageBlock, String name, String value){
+        Entry entry = packageBlock.getOrCreate("", "string", name);
+        ResValue resValue = entry.getResValue();
+        Assert.assertEquals(name, value, resValue.getValueAsString());
+        TableString tableString = (TableString) resValue.getDataAsPoolString();
+        Assert.assertTrue(name, tableString.getReferencedList().size() > 0);
+    }
+    /**
+     * Creates strings [unused styled, used styled, span tags, used, unused, dup, placeholder,
+     * dup, other] where the second dup is a duplicate appended to the pool
+     * */
+    private static TableBlock createTable() throws IOException, XmlPullParserException {
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example");
+        TableStringPool stringPool = tableBlock.getStringPool();
+
+        stringPool.getOrCreateStyled("<c>unused_styled</c>");
+        TableString styled = stringPool.getOrCreateStyled("<b>styled</b>");
+        packageBlock.getOrCreate("", "string", "used").setValueAsString("used");
+        stringPool.getOrCreate("unused");
+        packageBlock.getOrCreate("", "string", "dup_1").setValueAsString("dup");
+
+        Entry dup2 = packageBlock.getOrCreate("", "string", "dup_2");
+        dup2.setValueAsString("placeholder");
+        TableString duplicate = stringPool.getStringsArray().createNext();
+        duplicate.set("dup");
+        dup2.getResValue().setData(duplicate.getIndex());
+
+        packageBlock.getOrCreate("", "string", "other").setValueAsString("other");
+        Entry styledEntry = packageBlock.getOrCreate("", "string", "styled");
+        styledEntry.setValueAsString("placeholder");
+        styledEntry.getResValue().setData(styled.getIndex());
+        stringPool.refreshUniqueIdMap();
+
+        List<String> strings = stringPool.toStringList();
+        Assert.assertEquals(Arrays.asList("<c>unused_styled</c>", "<b>styled</b>", "c", "b", "used", "unused",
+                "dup", "placeholder", "dup", "other"), strings);
+        return tableBlock;
+    }
+}
@@ -0,0 +1,105 @@
+package com.reandroid.arsc.pool.builder;
+
+import com.reandroid.arsc.item.TableString;
+import com.reandroid.arsc.pool.TableStringPool;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StringPoolBuilderTest {
+    @Test
+    public void testUtf8SameBytesAsStringItem() {
+        testSameBytesAsStringItem(true);
+    }
+    @Test
+    public void testUtf16SameBytesAsStringItem() {
+        testSameBytesAsStringItem(false);
+    }
+    @Test
+    public void testAddAndIndexOf() {
+        StringPoolBuilder builder = new StringPoolBuilder(true, 2);
+        Assert.assertEquals(-1, builder.indexOf("a"));
+        Assert.assertEquals(0, builder.add("a"));
+        Assert.assertEquals(1, builder.add(null));
+        Assert.assertEquals(1, builder.add(""));
+        for(int i = 0; i < 100; i++){
+            Assert.assertEquals(i + 2, builder.add("string_" + i));
+        }
+        Assert.assertEquals(0, builder.add("a"));
+        Assert.assertEquals(102, builder.size());
+        Assert.assertEquals(52, builder.indexOf("string_50"));
+        Assert.assertEquals(1, builder.indexOf(null));
+        Assert.assertEquals("string_99", builder.get(101));
+        // length, byte length and null terminator
+        Assert.assertEquals(4, builder.getEncodedLength(0));
+
+        builder.clear();
+        Assert.assertEquals(0, builder.size());
+        Assert.assertEquals(-1, builder.indexOf("a"));
+        Assert.assertEquals(0, builder.add("b"));
+    }
+    @Test
+    public void testAppendToExistingPool() {
+        TableStringPool stringPool = new TableStringPool(true);
+        stringPool.getOrCreate("existing");
+
+        StringPoolBuilder builder = new StringPoolBuilder(true);
+        builder.add("first");
+        builder.add("second");
+        int start = builder.appendTo(stringPool);
+
+        Assert.assertEquals(1, start);
+        Assert.assertEquals(3, stringPool.countStrings());
+        Assert.assertEquals("existing", stringPool.get(0).get());
+        Assert.assertEquals("first", stringPool.get(1).get());
+        Assert.assertEquals("second", stringPool.get(2).get());
+        Assert.assertNotNull(stringPool.get("second"));
+    }
+    @Test(expected = IllegalArgumentException.class)
+    public void testAppendToDifferentEncoding() {
+        StringPoolBuilder builder = new StringPoolBuilder(false);
+        builder.add("text");
+        builder.appendTo(new TableStringPool(true));
+    }
+
+    private void testSameBytesAsStringItem(boolean utf8) {
+        String[] strings = createStrings();
+        TableStringPool expectedPool = new TableStringPool(utf8);
+        for(String str : strings){
+            expectedPool.getStringsArray().createNext().set(str);
+        }
+        StringPoolBuilder builder = new StringPoolBuilder(utf8);
+        for(String str : strings){
+            builder.add(str);
+        }
+        TableStringPool actualPool = new TableStringPool(utf8);
+        Assert.assertEquals(0, builder.appendTo(actualPool));
+        Assert.assertEquals(strings.length, actualPool.countStrings());
+        for(int i = 0; i < strings.length; i++){
+            TableString expected = expectedPool.get(i);
+            TableString actual = actualPool.get(i);
+            Assert.assertArrayEquals("String at " + i, expected.getBytes(), actual.getBytes());
+            Assert.assertEquals(expected.getBytes().length, builder.getEncodedLength(i));
+            Assert.assertEquals(expected.get(), actual.get());
+        }
+    }
+    private static String[] createStrings() {
+        StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < 40000; i++){
+            builder.append((char) ('a' + (i % 26)));
+        }
+        String longAscii = builder.toString();
+        return new String[]{
+                "",
+                "res/layout/main.xml",
+                "caf\u00e9 \u00fcber",
+                "\u0627\u0644\u0639\u0631\u0628\u064a\u0629",
+                "\u4e2d\u6587\u5b57\u7b26",
+                "emoji \ud83d\ude00 pair",
+                "unpaired \ud83d surrogate",
+                "trailing \ude00",
+                longAscii.substring(0, 200),
+                longAscii,
+                longAscii.replace('a', '\u00e9')
+        };
+    }
+}
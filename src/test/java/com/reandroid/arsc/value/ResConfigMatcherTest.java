@@ -0,0 +1,139 @@
+package com.reandroid.arsc.value;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ResConfigMatcherTest {
+
+    @Test
+    public void a_testMoreSpecificThanDefault() {
+        for(String qualifiers : QUALIFIERS){
+            if(qualifiers.length() == 0 || qualifiers.equals(DENSITY)){
+                continue;
+            }
+            assertMoreSpecific(qualifiers, "");
+        }
+        // density is never more specific
+        assertNotComparable(DENSITY, "");
+    }
+    @Test
+    public void b_testBothSetIsNotMoreSpecific() {
+        // ResTable_config::isMoreSpecificThan decides only when one side is unset
+        assertNotComparable("-v21", "-v23");
+        assertNotComparable("-land", "-port");
+        assertNotComparable("-sw600dp", "-sw720dp");
+        assertNotComparable("-w600dp", "-w720dp");
+        assertNotComparable("-h480dp", "-h720dp");
+        assertNotComparable("-mcc310", "-mcc311");
+        assertNotComparable("-small", "-large");
+        assertNotComparable("-round", "-notround");
+        assertNotComparable("-night", "-notnight");
+        assertNotComparable("-car", "-television");
+        assertNotComparable("-finger", "-notouch");
+        assertNotComparable("-qwerty", "-12key");
+        assertNotComparable("-dpad", "-trackball");
+        assertNotComparable("-keysexposed", "-keyshidden");
+        assertNotComparable("-ldltr", "-ldrtl");
+        assertNotComparable("-480x320", "-800x480");
+    }
+    @Test
+    public void c_testPrecedence() {
+        assertMoreSpecific("-mcc310", "-en");
+        assertMoreSpecific("-en", "-ldrtl");
+        assertMoreSpecific("-en-rUS", "-en");
+        assertMoreSpecific("-ldrtl", "-sw600dp");
+        assertMoreSpecific("-sw600dp", "-w720dp");
+        assertMoreSpecific("-w720dp", "-large");
+        assertMoreSpecific("-large", "-land");
+        assertMoreSpecific("-land", "-night");
+        assertMoreSpecific("-night", "-finger");
+        assertMoreSpecific("-finger", "-keyshidden");
+        assertMoreSpecific("-keyshidden", "-qwerty");
+        assertMoreSpecific("-qwerty", "-dpad");
+        assertMoreSpecific("-dpad", "-v21");
+        assertMoreSpecific("-land-v21", "-land");
+        assertMoreSpecific("-sw600dp", "-land-v21");
+    }
+    @Test
+    public void d_testAntisymmetric() {
+        for(String qualifiers1 : QUALIFIERS){
+            ResConfig config1 = ResConfig.parse(qualifiers1);
+            for(String qualifiers2 : QUALIFIERS){
+                ResConfig config2 = ResConfig.parse(qualifiers2);
+                Assert.assertFalse("'" + qualifiers1 + "' <> '" + qualifiers2 + "'",
+                        config1.isMoreSpecificThan(config2)
+                                && config2.isMoreSpecificThan(config1));
+            }
+            Assert.assertFalse(qualifiers1, config1.isMoreSpecificThan(config1));
+        }
+    }
+    @Test
+    public void e_testBetterThanRequested() {
+        ResConfig requested = ResConfig.parse("-en-rUS-sw800dp-land-v30");
+        assertBetter("-v23", "-v21", requested);
+        assertBetter("-sw720dp", "-sw600dp", requested);
+        assertBetter("-land", "", requested);
+        assertBetter("-en-rUS", "-en", requested);
+        assertBetter("-en", "-sw720dp", requested);
+    }
+
+    private static void assertMoreSpecific(String qualifiers1, String qualifiers2){
+        ResConfig config1 = ResConfig.parse(qualifiers1);
+        ResConfig config2 = ResConfig.parse(qualifiers2);
+        Assert.assertTrue("'" + qualifiers1 + "' > '" + qualifiers2 + "'",
+                config1.isMoreSpecificThan(config2));
+        Assert.assertFalse("'" + qualifiers2 + "' > '" + qualifiers1 + "'",
+                config2.isMoreSpecificThan(config1));
+    }
+    private static void assertNotComparable(String qualifiers1, String qualifiers2){
+        ResConfig config1 = ResConfig.parse(qualifiers1);
+        ResConfig config2 = ResConfig.parse(qualifiers2);
+        Assert.assertFalse("'" + qualifiers1 + "' > '" + qualifiers2 + "'",
+                config1.isMoreSpecificThan(config2));
+        Assert.assertFalse("'" + qualifiers2 + "' > '" + qualifiers1 + "'",
+                config2.isMoreSpecificThan(config1));
+    }
+    private static void assertBetter(String qualifiers1, String qualifiers2, ResConfig requested){
+        ResConfig config1 = ResConfig.parse(qualifiers1);
+        ResConfig config2 = ResConfig.parse(qualifiers2);
+        Assert.assertTrue("'" + qualifiers1 + "' better than '" + qualifiers2 + "'",
+                config1.isBetterThan(config2, requested));
+        Assert.assertFalse("'" + qualifiers2 + "' better than '" + qualifiers1 + "'",
+                config2.isBetterThan(config1, requested));
+    }
+
+    private static final String DENSITY = "-xhdpi";
+    private static final String[] QUALIFIERS = new String[]{
+            "",
+            "-mcc310",
+            "-mcc310-mnc004",
+            "-en",
+            "-en-rUS",
+            "-de",
+            "-ldrtl",
+            "-sw600dp",
+            "-sw720dp",
+            "-w720dp",
+            "-h480dp",
+            "-large",
+            "-long",
+            "-round",
+            "-land",
+            "-port",
+            "-night",
+            "-car",
+            DENSITY,
+            "-finger",
+            "-keyshidden",
+            "-qwerty",
+            "-dpad",
+            "-480x320",
+            "-v21",
+            "-v23",
+            "-land-v21",
+            "-en-land",
+    };
+}
@@ -0,0 +1,85 @@
+package com.reandroid.json;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+public class JSONReaderTest {
+    @Test
+    public void testReadTokens() throws IOException {
+        JSONReader reader = new JSONReader(new StringReader(JSON_STRING));
+        reader.beginObject();
+        Assert.assertEquals("name", reader.peekName());
+        Assert.assertEquals("name", reader.nextName());
+        Assert.assertEquals("example", reader.nextString());
+        Assert.assertEquals("id", reader.nextName());
+        Assert.assertEquals(0x7f010000, reader.nextInt());
+        Assert.assertEquals("is_sparse", reader.nextName());
+        Assert.assertTrue(reader.nextBoolean());
+        Assert.assertEquals("missing", reader.nextName());
+        Assert.assertNull(reader.nextString());
+        Assert.assertEquals("entries", reader.nextName());
+        reader.beginArray();
+        int count = 0;
+        while (reader.hasNext()){
+            JSONObject jsonObject = reader.readJSONObject();
+            Assert.assertEquals(count, jsonObject.getInt("entry_id"));
+            count ++;
+        }
+        reader.endArray();
+        Assert.assertEquals(2, count);
+        Assert.assertEquals("config", reader.nextName());
+        JSONObject config = reader.readJSONObject();
+        Assert.assertEquals("en", config.getString("language"));
+        Assert.assertFalse(reader.hasNext());
+        reader.endObject();
+        Assert.assertEquals(JSONReader.Token.END_DOCUMENT, reader.peek());
+        reader.close();
+    }
+    @Test
+    public void testSkipValue() throws IOException {
+        JSONReader reader = new JSONReader(new StringReader(JSON_STRING));
+        reader.beginObject();
+        while (reader.hasNext()){
+            String name = reader.nextName();
+            if("config".equals(name)){
+                Assert.assertEquals("en", reader.readJSONObject().getString("language"));
+            }else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        reader.close();
+    }
+    @Test
+    public void testSameAsJSONObject() throws IOException {
+        JSONReader reader = new JSONReader(new StringReader(JSON_STRING));
+        JSONObject actual = reader.readJSONObject();
+        reader.close();
+        JSONObject expected = new JSONObject(JSON_STRING);
+        Assert.assertTrue(expected.similar(actual));
+    }
+    @Test(expected = JSONException.class)
+    public void testUnexpectedToken() throws IOException {
+        JSONReader reader = new JSONReader(new StringReader("[1, 2]"));
+        try {
+            reader.beginObject();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static final String JSON_STRING = "{" +
+            "\"name\": \"example\"," +
+            "\"id\": 2130771968," +
+            "\"is_sparse\": true," +
+            "\"missing\": null," +
+            "\"entries\": [" +
+            "  {\"entry_id\": 0, \"values\": [1, 2, {\"nested\": [true]}]}," +
+            "  {\"entry_id\": 1, \"name\": \"quote \\\" and \\u00e9\"}" +
+            "]," +
+            "\"config\": {\"language\": \"en\"}" +
+            "}";
+}